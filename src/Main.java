@@ -1,20 +1,32 @@
+import cache.StartupPrefetch;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
+import utils.ConfigProps;
 import utils.DBConnector;
+import utils.DBExecutor;
 import utils.NotificationHandler;
+import utils.QueryMetrics;
+import utils.SlowQueryLog;
+import utils.StartupTimeline;
+import view_controller.MainViewController;
 
 public class Main extends Application {
 
     @Override
     public void start(Stage primaryStage) throws IOException {
+        StartupTimeline.mark("JavaFX started");
+        StartupPrefetch.readSnapshot();
 
         Locale locale = Locale.getDefault();
         String resourcePath = "resources/languages/change_language";
@@ -29,24 +41,63 @@ public class Main extends Application {
         primaryStage.getScene().getWindow().addEventFilter(WindowEvent.WINDOW_CLOSE_REQUEST,
             this::confirmClose);
         primaryStage.show();
+        StartupTimeline.mark("login shown");
+
+        connectInBackground();
+    }
+
+    /**
+     * Opens the database connection off the JavaFX thread while the login
+     * screen is showing, then prefetches the data the main view needs. If the
+     * connection fails the user is told and DAO calls retry it on demand.
+     */
+    private void connectInBackground() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                DBConnector.startConnection();
+            } catch (ClassNotFoundException | SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, DBExecutor.dbExecutor()).whenComplete((ignored, error) -> {
+            if (error == null) {
+                StartupTimeline.mark("database connected");
+                StartupPrefetch.start();
+            } else {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                StartupTimeline.mark("database connection failed");
+                cause.printStackTrace();
+                Platform.runLater(() ->
+                    NotificationHandler.warningPopup("Database Connector", cause.getMessage()));
+            }
+        });
     }
 
     private void confirmClose(WindowEvent event) {
         if(!NotificationHandler.confirmPopup(event, "Changes will not be saved.")) {
             event.consume();
+        } else {
+            MainViewController.shutdown();
         }
     }
 
 
     public static void main(String[] args) {
-        try {
-            DBConnector.startConnection();
-            launch(args);
-        } catch (ClassNotFoundException | SQLException e) {
-            NotificationHandler.warningPopup("Database Connector", e.getMessage());
-            e.printStackTrace();
-        }
+        StartupTimeline.mark("main");
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::shutdown, "shutdown"));
+        launch(args);
+    }
+
+    /**
+     * Writes out queued slow query log entries, stops the database workers,
+     * closes the connection pool and writes the query metrics. Run by the JVM
+     * on every exit, whether the last window was closed or the main view's
+     * exit button called System.exit.
+     */
+    private static void shutdown() {
+        SlowQueryLog.flush();
+        DBExecutor.shutdown();
         DBConnector.closeConnection();
+        QueryMetrics.dumpTo(new ConfigProps().getMetricsFile());
     }
 
 }
@@ -0,0 +1,214 @@
+package benchmark;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import utils.DBConnector;
+
+/**
+ * Seeding, timing and index helpers shared by the command line benchmarks.
+ * Seeded appointments are half hour bookings starting on a quarter hour,
+ * spread at random over five years from 2020, on the three seeded contacts
+ * and the test user.
+ *
+ * @author Sakae Watanabe
+ */
+final class BenchmarkData {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Start time of the earliest seeded appointment. */
+  static final LocalDateTime SEED_ORIGIN = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+  /** Days the seeded appointments are spread over. */
+  static final int SEED_SPAN_DAYS = 5 * 365;
+
+  /** Number of contacts seeded appointments are shared between. */
+  static final int SEED_CONTACTS = 3;
+
+  /** Indexes on appointments in the current schema, as name and columns. */
+  static final String[][] APPOINTMENT_INDEXES = {
+      {"Start_ID", "Start, Appointment_ID"},
+      {"Contact_Start_End", "Contact_ID, Start, End"},
+      {"Customer_Start_End", "Customer_ID, Start, End"},
+      {"User_Start_End", "User_ID, Start, End"}};
+
+  /** Foreign key indexes of the original schema, as name and columns. */
+  static final String[][] FOREIGN_KEY_INDEXES = {
+      {"Contact_ID", "Contact_ID"},
+      {"Customer_ID", "Customer_ID"},
+      {"User_ID", "User_ID"}};
+
+  /** Appointments inserted per batch while seeding. */
+  private static final int BATCH_SIZE = 10_000;
+
+  private BenchmarkData() { }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Runs an operation once to warm up, then the given number of times, and
+   * prints the median and 95th percentile times taken.
+   *
+   * @param label Description printed with the timing.
+   * @param runs Number of timed runs.
+   * @param operation Operation returning the number of rows it produced.
+   */
+  static void time(String label, int runs, Supplier<Integer> operation) {
+    int found = operation.get();
+    List<Long> nanos = new ArrayList<>();
+    for (int i = 0; i < runs; i++) {
+      long begin = System.nanoTime();
+      operation.get();
+      nanos.add(System.nanoTime() - begin);
+    }
+    Collections.sort(nanos);
+    System.out.printf("%-46s %8d rows %10.2f ms median %10.2f ms p95 of %d%n", label, found,
+        nanos.get(nanos.size() / 2) / 1_000_000.0,
+        nanos.get((int) Math.ceil(nanos.size() * 0.95) - 1) / 1_000_000.0, runs);
+  }
+
+  /**
+   * Inserts generated appointments until the table holds at least the given
+   * number of rows.
+   *
+   * @param rows Number of appointments wanted.
+   * @throws SQLException if the appointments cannot be inserted.
+   */
+  static void seed(int rows) throws SQLException {
+    int missing = rows - countAppointments();
+    if (missing <= 0) {
+      return;
+    }
+    int customerId = benchmarkCustomer();
+    String insert = "INSERT INTO appointments (Title, Description, Location, Type, Start, End,"
+        + " Created_By, Last_Updated_By, Customer_ID, User_ID, Contact_ID)"
+        + " VALUES ('Benchmark', 'Generated', 'Benchmark', 'Benchmark', ?, ?,"
+        + " 'benchmark', 'benchmark', ?, 1, ?)";
+    Random random = new Random(rows);
+    System.out.println("Seeding " + missing + " appointments...");
+
+    while (missing > 0) {
+      int batch = Math.min(BATCH_SIZE, missing);
+      DBConnector.write(conn -> {
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+          for (int i = 0; i < batch; i++) {
+            LocalDateTime start = randomSlot(random);
+            ps.setTimestamp(1, Timestamp.valueOf(start));
+            ps.setTimestamp(2, Timestamp.valueOf(start.plusMinutes(30)));
+            ps.setInt(3, customerId);
+            ps.setInt(4, 1 + random.nextInt(SEED_CONTACTS));
+            ps.addBatch();
+          }
+          ps.executeBatch();
+          conn.commit();
+        } catch (SQLException e) {
+          conn.rollback();
+          throw e;
+        }
+        return null;
+      });
+      missing -= batch;
+    }
+  }
+
+  /**
+   * @param random Source of randomness.
+   * @return Quarter hour within the seed span.
+   */
+  static LocalDateTime randomSlot(Random random) {
+    return SEED_ORIGIN.plusMinutes(15L * random.nextInt(SEED_SPAN_DAYS * 24 * 4));
+  }
+
+  /**
+   * @return Number of appointments in the database.
+   * @throws SQLException if the count fails.
+   */
+  static int countAppointments() throws SQLException {
+    return DBConnector.read(conn -> {
+      try (Statement st = conn.createStatement();
+          ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM appointments")) {
+        rs.next();
+        return rs.getInt(1);
+      }
+    });
+  }
+
+  /**
+   * Creates one set of appointment indexes and then drops another. Creating
+   * first keeps an index on each foreign key, which MySQL requires.
+   * Statements failing because an index already exists or is already gone
+   * are reported and skipped.
+   *
+   * @param create Indexes to create, as name and columns.
+   * @param drop Indexes to drop, as name and columns.
+   * @throws SQLException if the database cannot be reached.
+   */
+  static void swapIndexes(String[][] create, String[][] drop) throws SQLException {
+    DBConnector.write(conn -> {
+      try (Statement st = conn.createStatement()) {
+        for (String[] index : create) {
+          tryExecute(st, "CREATE INDEX " + index[0] + " ON appointments (" + index[1] + ")");
+        }
+        for (String[] index : drop) {
+          tryExecute(st, DBConnector.dialect().dropIndex("appointments", index[0]));
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Finds the customer seeded appointments belong to, creating it in the
+   * first division if the database has no customers.
+   *
+   * @return Id of the benchmark customer.
+   * @throws SQLException if the customer cannot be read or created.
+   */
+  static int benchmarkCustomer() throws SQLException {
+    return DBConnector.write(conn -> {
+      try (Statement st = conn.createStatement()) {
+        try (ResultSet rs = st.executeQuery("SELECT MIN(Customer_ID) FROM customers")) {
+          if (rs.next() && rs.getObject(1) != null) {
+            return rs.getInt(1);
+          }
+        }
+        st.executeUpdate("INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone,"
+            + " Created_By, Last_Updated_By, Division_ID)"
+            + " SELECT 'Benchmark', 'Benchmark', '00000', '000-000-0000', 'benchmark',"
+            + " 'benchmark', MIN(Division_ID) FROM first_level_divisions");
+        try (ResultSet rs = st.executeQuery("SELECT MIN(Customer_ID) FROM customers")) {
+          rs.next();
+          return rs.getInt(1);
+        }
+      }
+    });
+  }
+
+  /**
+   * Executes a schema statement, reporting rather than throwing on failure.
+   *
+   * @param st Statement to execute with.
+   * @param sql Schema statement.
+   */
+  private static void tryExecute(Statement st, String sql) {
+    try {
+      st.execute(sql);
+    } catch (SQLException e) {
+      System.out.println("Skipped " + sql + ": " + e.getMessage());
+    }
+  }
+}
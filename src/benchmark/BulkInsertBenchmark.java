@@ -0,0 +1,103 @@
+package benchmark;
+
+import static benchmark.BenchmarkData.SEED_CONTACTS;
+import static benchmark.BenchmarkData.time;
+
+import dao.AppointmentDAO;
+import dao.impl.AppointmentDAOImpl;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import model.Appointment;
+import model.User;
+import utils.DBConnector;
+
+/**
+ * Command line benchmark of adding many appointments, comparing one
+ * addAppointment call per appointment, each its own round trip and commit,
+ * against a single batched addAppointments call. Five thousand appointments
+ * are added per run by default.
+ * <p>
+ * Runs against the database configured in config.properties. Use
+ * dbBackend=h2 for a throw away in-memory database. The appointments added
+ * are deleted again when the benchmark finishes.
+ *
+ * @author Sakae Watanabe
+ */
+public class BulkInsertBenchmark {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Appointments added per run when no count is given. */
+  private static final int DEFAULT_ROWS = 5_000;
+
+  /** Timed runs of each way of adding. */
+  private static final int RUNS = 3;
+
+  /** Title given to the appointments added, so they can be removed afterwards. */
+  private static final String TITLE = "Bulk benchmark";
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Adds the appointments one at a time and then in bulk, printing timings
+   * for each, and deletes them afterwards.
+   *
+   * @param args Optional number of appointments added per run.
+   * @throws Exception if the database cannot be reached.
+   */
+  public static void main(String[] args) throws Exception {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+    DBConnector.startConnection();
+    try {
+      List<Appointment> appointments = generate(rows, BenchmarkData.benchmarkCustomer());
+      User user = new User(1, "benchmark", null);
+      AppointmentDAO appointmentDAO = new AppointmentDAOImpl();
+      System.out.println("Bulk insert benchmark, " + DBConnector.dialect().getName() + ", "
+          + rows + " appointments per run");
+
+      time("before: addAppointment per row", RUNS, () -> {
+        int added = 0;
+        for (Appointment appointment : appointments) {
+          if (appointmentDAO.addAppointment(appointment, user) > 0) {
+            added++;
+          }
+        }
+        return added;
+      });
+      time("after: batched addAppointments", RUNS,
+          () -> appointmentDAO.addAppointments(appointments, user).length);
+    } finally {
+      DBConnector.write(conn -> {
+        try (PreparedStatement ps =
+            conn.prepareStatement("DELETE FROM appointments WHERE Title = ?")) {
+          ps.setString(1, TITLE);
+          return ps.executeUpdate();
+        }
+      });
+      DBConnector.closeConnection();
+    }
+  }
+
+  /**
+   * @param rows Number of appointments to generate.
+   * @param customerId Customer the appointments are booked with.
+   * @return Half hour appointments at random quarter hours, not yet added.
+   */
+  private static List<Appointment> generate(int rows, int customerId) {
+    Random random = new Random(rows);
+    List<Appointment> appointments = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      LocalDateTime start = BenchmarkData.randomSlot(random);
+      appointments.add(new Appointment(0, customerId, 1 + random.nextInt(SEED_CONTACTS), null, 1,
+          TITLE, "Generated", "Benchmark", "Benchmark", start, start.plusMinutes(30)));
+    }
+    return appointments;
+  }
+}
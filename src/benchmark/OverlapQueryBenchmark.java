@@ -0,0 +1,137 @@
+package benchmark;
+
+import static benchmark.BenchmarkData.APPOINTMENT_INDEXES;
+import static benchmark.BenchmarkData.FOREIGN_KEY_INDEXES;
+import static benchmark.BenchmarkData.SEED_CONTACTS;
+import static benchmark.BenchmarkData.time;
+
+import dao.AppointmentDAO;
+import dao.AppointmentDAO.Resource;
+import dao.impl.AppointmentDAOImpl;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+import utils.DBConnector;
+
+/**
+ * Command line benchmark of the appointment conflict check at increasing
+ * table sizes, 100 thousand and one million appointments by default. Times
+ * the old global check, two ORed BETWEEN ranges over every appointment,
+ * against the overlap query scoped to one contact and backed by the
+ * (Contact_ID, Start, End) index. Each run probes a different random half
+ * hour for a random contact.
+ * <p>
+ * Runs against the database configured in config.properties, which is
+ * seeded with generated appointments. Use dbBackend=h2 for a throw away
+ * in-memory database. Indexes are created during the run, so do not point it
+ * at a production database.
+ *
+ * @author Sakae Watanabe
+ */
+public class OverlapQueryBenchmark {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Table sizes benchmarked when none are given. */
+  private static final int[] DEFAULT_SIZES = {100_000, 1_000_000};
+
+  /** Timed runs of the old check, which scans the whole table. */
+  private static final int LEGACY_RUNS = 20;
+
+  /** Timed runs of the overlap query. */
+  private static final int OVERLAP_RUNS = 500;
+
+  /** The conflict check as it was before being scoped to a resource. */
+  private static final String LEGACY_QUERY = "SELECT a.Appointment_ID, a.Customer_ID,"
+      + " a.Contact_ID, c.Contact_Name, a.User_ID, a.Title, a.Description, a.Type, a.Location,"
+      + " a.Start, a.End"
+      + " FROM appointments AS a"
+      + " INNER JOIN contacts AS c"
+      + " WHERE a.Contact_ID = c.Contact_ID AND"
+      + " (End BETWEEN ? AND ? "
+      + " OR Start BETWEEN ? AND ?) AND"
+      + " a.Appointment_ID != ?";
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Seeds the database up to each size in turn and prints timings for both
+   * checks at that size.
+   *
+   * @param args Optional table sizes to benchmark, in ascending order.
+   * @throws Exception if the database cannot be reached or seeded.
+   */
+  public static void main(String[] args) throws Exception {
+    int[] sizes = DEFAULT_SIZES;
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        sizes[i] = Integer.parseInt(args[i]);
+      }
+    }
+
+    DBConnector.startConnection();
+    try {
+      BenchmarkData.swapIndexes(APPOINTMENT_INDEXES, FOREIGN_KEY_INDEXES);
+      AppointmentDAO appointmentDAO = new AppointmentDAOImpl();
+      for (int size : sizes) {
+        BenchmarkData.seed(size);
+        int count = BenchmarkData.countAppointments();
+        System.out.println("Overlap query benchmark, " + DBConnector.dialect().getName() + ", "
+            + count + " appointments");
+
+        Random legacyProbes = new Random(size);
+        time("before: global BETWEEN check, " + count, LEGACY_RUNS,
+            () -> legacyCheck(BenchmarkData.randomSlot(legacyProbes)));
+
+        Random overlapProbes = new Random(size);
+        time("after: contact overlap query, " + count, OVERLAP_RUNS, () -> {
+          LocalDateTime start = BenchmarkData.randomSlot(overlapProbes);
+          int contactId = 1 + overlapProbes.nextInt(SEED_CONTACTS);
+          return appointmentDAO.getOverlapping(Resource.CONTACT, contactId, start,
+              start.plusMinutes(30), -1).size();
+        });
+      }
+    } finally {
+      DBConnector.closeConnection();
+    }
+  }
+
+  /**
+   * Runs the old conflict check for a half hour starting at the given time.
+   *
+   * @param start Start of the half hour to check.
+   * @return Number of appointments the old check reported.
+   */
+  private static int legacyCheck(LocalDateTime start) {
+    Timestamp starts = Timestamp.valueOf(start);
+    Timestamp ends = Timestamp.valueOf(start.plusMinutes(30));
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(LEGACY_QUERY)) {
+          ps.setTimestamp(1, starts);
+          ps.setTimestamp(2, ends);
+          ps.setTimestamp(3, starts);
+          ps.setTimestamp(4, ends);
+          ps.setInt(5, -1);
+          int found = 0;
+          try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+              found++;
+            }
+          }
+          return found;
+        }
+      });
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package benchmark;
+
+import static benchmark.BenchmarkData.time;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import model.Appointment;
+import utils.DBConnector;
+import utils.RowMapper;
+
+/**
+ * Command line microbenchmark of result set mapping, comparing the appointment
+ * rows read by column label, as the DAO parse methods used to, against a
+ * RowMapper reading by column index. The rows are fetched once into a
+ * scrollable result set held by the driver and mapped repeatedly, so the
+ * timings measure mapping alone without network or query time.
+ * <p>
+ * Runs against the database configured in config.properties, seeding it with
+ * generated appointments up to the requested row count, 100 thousand by
+ * default. Use dbBackend=h2 for a throw away in-memory database.
+ *
+ * @author Sakae Watanabe
+ */
+public class RowMapperBenchmark {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Appointments mapped when no row count is given. */
+  private static final int DEFAULT_ROWS = 100_000;
+
+  /** Timed passes over the result set for each mapping. */
+  private static final int RUNS = 20;
+
+  /** Appointment query as run by the appointment DAO. */
+  private static final String QUERY = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID,"
+      + " c.Contact_Name, a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
+      + " FROM appointments AS a"
+      + " INNER JOIN contacts AS c"
+      + " WHERE a.Contact_ID = c.Contact_ID"
+      + " LIMIT ?";
+
+  /** Mapper matching the one used by the appointment DAO. */
+  private static final RowMapper<Appointment> APPOINTMENT_MAPPER = new RowMapper<>(
+      row -> new Appointment(row.getInt(0), row.getInt(1), row.getInt(2), row.getString(3),
+          row.getInt(4), row.getString(5), row.getString(6), row.getString(7),
+          row.getString(8), row.getLocalDateTime(9), row.getLocalDateTime(10)),
+      "Appointment_ID", "Customer_ID", "Contact_ID", "Contact_Name", "User_ID", "Title",
+      "Description", "Type", "Location", "Start", "End");
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Seeds the database, fetches the rows once and prints timings for each
+   * mapping.
+   *
+   * @param args Optional number of appointments to map.
+   * @throws Exception if the database cannot be reached or seeded.
+   */
+  public static void main(String[] args) throws Exception {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+    DBConnector.startConnection();
+    try {
+      BenchmarkData.seed(rows);
+      DBConnector.read(conn -> {
+        run(conn, rows);
+        return null;
+      });
+    } finally {
+      DBConnector.closeConnection();
+    }
+  }
+
+  /**
+   * Fetches the rows into a scrollable result set and times both mappings
+   * over it.
+   *
+   * @param conn Connection to query with.
+   * @param rows Number of appointments to fetch.
+   * @throws SQLException if the query fails.
+   */
+  private static void run(Connection conn, int rows) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement(QUERY, ResultSet.TYPE_SCROLL_INSENSITIVE,
+        ResultSet.CONCUR_READ_ONLY)) {
+      ps.setInt(1, rows);
+      try (ResultSet rs = ps.executeQuery()) {
+        System.out.println("Row mapper benchmark, " + DBConnector.dialect().getName() + ", "
+            + rows + " appointments");
+        time("before: read by column label", RUNS, () -> pass(rs, false));
+        time("after: read by column index", RUNS, () -> pass(rs, true));
+      }
+    }
+  }
+
+  /**
+   * Maps every row of the result set once.
+   *
+   * @param rs Scrollable result set of appointment rows.
+   * @param byIndex True to map with the RowMapper, false to read by label.
+   * @return Number of rows mapped.
+   */
+  private static int pass(ResultSet rs, boolean byIndex) {
+    try {
+      rs.beforeFirst();
+      List<Appointment> mapped = new ArrayList<>();
+      if (byIndex) {
+        APPOINTMENT_MAPPER.mapAll(rs, mapped);
+      } else {
+        while (rs.next()) {
+          mapped.add(parseByLabel(rs));
+        }
+      }
+      return mapped.size();
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * The appointment parse method as it was before row mappers, reading each
+   * column by label.
+   *
+   * @param rs Result set positioned on a row.
+   * @return Appointment for the row.
+   * @throws SQLException if a column cannot be read.
+   */
+  private static Appointment parseByLabel(ResultSet rs) throws SQLException {
+    return new Appointment(rs.getInt("Appointment_ID"), rs.getInt("Customer_ID"),
+        rs.getInt("Contact_ID"), rs.getString("Contact_Name"), rs.getInt("User_ID"),
+        rs.getString("Title"), rs.getString("Description"), rs.getString("Type"),
+        rs.getString("Location"), rs.getTimestamp("Start").toLocalDateTime(),
+        rs.getTimestamp("End").toLocalDateTime());
+  }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import static benchmark.BenchmarkData.APPOINTMENT_INDEXES;
+import static benchmark.BenchmarkData.FOREIGN_KEY_INDEXES;
+import static benchmark.BenchmarkData.SEED_ORIGIN;
+import static benchmark.BenchmarkData.SEED_SPAN_DAYS;
+import static benchmark.BenchmarkData.time;
+
+import dao.AppointmentDAO;
+import dao.impl.AppointmentDAOImpl;
+import java.time.LocalDateTime;
+import model.Appointment;
+import utils.DBConnector;
+
+/**
+ * Command line benchmark comparing the week and month appointment views
+ * before and after they were pushed down to SQL. The old views loaded every
+ * appointment and filtered in memory; the new views query only the window,
+ * timed here both without and with the appointment start time indexes.
+ * <p>
+ * Runs against the database configured in config.properties, seeding it with
+ * generated appointments up to the requested row count, one million by
+ * default. Use dbBackend=h2 for a throw away in-memory database. Indexes are
+ * dropped and created again during the run, so do not point it at a
+ * production database.
+ *
+ * @author Sakae Watanabe
+ */
+public class WindowQueryBenchmark {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Appointments seeded when no row count is given. */
+  private static final int DEFAULT_ROWS = 1_000_000;
+
+  /** Timed runs for the full load, which takes seconds at a million rows. */
+  private static final int FULL_LOAD_RUNS = 3;
+
+  /** Timed runs for each window query. */
+  private static final int WINDOW_RUNS = 20;
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Seeds the database and prints timings for each approach.
+   *
+   * @param args Optional number of appointments to benchmark against.
+   * @throws Exception if the database cannot be reached or seeded.
+   */
+  public static void main(String[] args) throws Exception {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+    DBConnector.startConnection();
+    try {
+      BenchmarkData.seed(rows);
+      AppointmentDAO appointmentDAO = new AppointmentDAOImpl();
+      LocalDateTime from = SEED_ORIGIN.plusDays(SEED_SPAN_DAYS / 2);
+      LocalDateTime toWeek = from.plusWeeks(1);
+      LocalDateTime toMonth = from.plusMonths(1);
+
+      System.out.println("Window query benchmark, " + DBConnector.dialect().getName() + ", "
+          + BenchmarkData.countAppointments() + " appointments");
+      time("before: full load and filter, week", FULL_LOAD_RUNS,
+          () -> filterInMemory(appointmentDAO, from, toWeek));
+      time("before: full load and filter, month", FULL_LOAD_RUNS,
+          () -> filterInMemory(appointmentDAO, from, toMonth));
+
+      BenchmarkData.swapIndexes(FOREIGN_KEY_INDEXES, APPOINTMENT_INDEXES);
+      time("range query without indexes, week", WINDOW_RUNS,
+          () -> appointmentDAO.getStartingBetween(from, toWeek).size());
+      time("range query without indexes, month", WINDOW_RUNS,
+          () -> appointmentDAO.getStartingBetween(from, toMonth).size());
+
+      BenchmarkData.swapIndexes(APPOINTMENT_INDEXES, FOREIGN_KEY_INDEXES);
+      time("after: range query with indexes, week", WINDOW_RUNS,
+          () -> appointmentDAO.getStartingBetween(from, toWeek).size());
+      time("after: range query with indexes, month", WINDOW_RUNS,
+          () -> appointmentDAO.getStartingBetween(from, toMonth).size());
+    } finally {
+      DBConnector.closeConnection();
+    }
+  }
+
+  /**
+   * The week and month views as they worked before, loading every
+   * appointment and keeping those starting within the window.
+   *
+   * @param appointmentDAO DAO to load appointments with.
+   * @param from Start of the window.
+   * @param to End of the window.
+   * @return Number of appointments within the window.
+   */
+  private static int filterInMemory(AppointmentDAO appointmentDAO, LocalDateTime from,
+      LocalDateTime to) {
+    int matched = 0;
+    for (Appointment appointment : appointmentDAO.getAll()) {
+      LocalDateTime start = appointment.getStartTime();
+      if (!start.isBefore(from) && start.isBefore(to)) {
+        matched++;
+      }
+    }
+    return matched;
+  }
+}
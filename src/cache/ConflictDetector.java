@@ -0,0 +1,274 @@
+package cache;
+
+import dao.AppointmentDAO.Resource;
+import dao.AsyncAppointmentDAO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import model.Appointment;
+import utils.BusinessHours;
+import utils.ConfigProps;
+import utils.IntervalTree;
+
+/**
+ * In-memory index of upcoming appointments for instant conflict checks while
+ * an appointment is being edited. Keeps an interval tree per contact, per
+ * customer and per user, built from the appointments starting within a
+ * window from now and kept up to date as this application adds, updates and
+ * deletes appointments, and as the main view reads other clients' changes.
+ * <p>
+ * Appointments booked by other clients are not seen until the main view's
+ * next refresh, so a clear result here is advisory; the database overlap
+ * query stays the authoritative check when an appointment is saved. Checks
+ * falling outside the loaded window return null so the caller goes to the
+ * database. All methods must be called on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public class ConflictDetector {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Detector shared by the main and appointment views. */
+  private static final ConflictDetector shared = new ConflictDetector();
+
+  /** Interval trees of appointments keyed by resource kind, then resource id. */
+  private final Map<Resource, Map<Integer, IntervalTree<Appointment>>> trees =
+      new EnumMap<>(Resource.class);
+
+  /** Indexed copy of each appointment by appointment id. */
+  private final Map<Integer, Appointment> indexed = new HashMap<>();
+
+  /** Changes made while the index was loading, replayed once it has loaded. */
+  private final List<Runnable> pendingChanges = new ArrayList<>();
+
+  /** Earliest start time loaded, null until loaded. */
+  private LocalDateTime loadedFrom = null;
+
+  /** Start time the loaded window runs up to, exclusive. */
+  private LocalDateTime loadedTo = null;
+
+  /** Load in progress, null when none. */
+  private CompletableFuture<Void> loading = null;
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @return Detector shared by the main and appointment views.
+   */
+  public static ConflictDetector shared() {
+    return shared;
+  }
+
+  /**
+   * Loads the upcoming appointments in the background if they have not been
+   * loaded yet. Loading starts far enough before now to include appointments
+   * still under way.
+   *
+   * @param appointmentDAO Async DAO to load the appointments with.
+   * @return CompletableFuture completing once the index has loaded.
+   */
+  public CompletableFuture<Void> ensureLoaded(AsyncAppointmentDAO appointmentDAO) {
+    if (loadedFrom != null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (loading == null) {
+      LocalDateTime now = LocalDateTime.now();
+      LocalDateTime from = now.minus(BusinessHours.getMaxAppointmentLength());
+      LocalDateTime to = now.plusDays(new ConfigProps().getConflictWindowDays());
+      loading = appointmentDAO.getStartingBetween(from, to).thenAccept(rows -> {
+        loading = null;
+        load(rows, from, to);
+      });
+    }
+    return loading;
+  }
+
+  /**
+   * Drops the index and loads it again in the background, for when changes
+   * made by other clients could not all be read. Does nothing if a load is
+   * already in progress.
+   *
+   * @param appointmentDAO Async DAO to load the appointments with.
+   * @return CompletableFuture completing once the index has loaded.
+   */
+  public CompletableFuture<Void> reload(AsyncAppointmentDAO appointmentDAO) {
+    if (loading == null) {
+      loadedFrom = null;
+      loadedTo = null;
+    }
+    return ensureLoaded(appointmentDAO);
+  }
+
+  /**
+   * Replaces the index with the appointments starting within a window,
+   * applying any changes made while they were being fetched.
+   *
+   * @param appointments Every appointment starting within the window.
+   * @param from Start of the window.
+   * @param to End of the window.
+   */
+  private void load(List<Appointment> appointments, LocalDateTime from, LocalDateTime to) {
+    trees.clear();
+    indexed.clear();
+    loadedFrom = from;
+    loadedTo = to;
+    appointments.forEach(this::put);
+    pendingChanges.forEach(Runnable::run);
+    pendingChanges.clear();
+  }
+
+  /**
+   * Finds indexed appointments of a contact, customer or user overlapping a
+   * half open interval.
+   *
+   * @param resource Kind of resource to check.
+   * @param resourceId Id of the contact, customer or user.
+   * @param starts Start of the interval.
+   * @param ends End of the interval.
+   * @param ignore Id of an appointment to leave out, such as the one being edited.
+   * @return Overlapping appointments in start order, or null if the interval
+   *         is not covered by the loaded window.
+   */
+  public List<Appointment> findConflicts(Resource resource, int resourceId,
+      LocalDateTime starts, LocalDateTime ends, int ignore) {
+    if (!covers(starts, ends)) {
+      return null;
+    }
+    IntervalTree<Appointment> tree = treesFor(resource).get(resourceId);
+    if (tree == null) {
+      return new ArrayList<>();
+    }
+    return tree.overlapping(starts, ends, ignore);
+  }
+
+  /**
+   * Indexes a saved appointment, replacing any earlier version of it. A copy
+   * is indexed, so later edits to the appointment do not affect the index
+   * until it is saved again.
+   *
+   * @param appointment Appointment added or updated in the database.
+   */
+  public void put(Appointment appointment) {
+    if (deferred(() -> put(appointment))) {
+      return;
+    }
+    remove(appointment.getId());
+    if (appointment.getStartTime().isBefore(loadedFrom)
+        || !appointment.getStartTime().isBefore(loadedTo)) {
+      return;
+    }
+    Appointment copy = new Appointment(appointment);
+    indexed.put(copy.getId(), copy);
+    for (Resource resource : Resource.values()) {
+      treesFor(resource).computeIfAbsent(resourceId(resource, copy), id -> new IntervalTree<>())
+          .insert(copy.getStartTime(), copy.getEndTime(), copy.getId(), copy);
+    }
+  }
+
+  /**
+   * Removes a deleted appointment from the index.
+   *
+   * @param appointmentId Id of the appointment deleted.
+   */
+  public void remove(int appointmentId) {
+    if (deferred(() -> remove(appointmentId))) {
+      return;
+    }
+    Appointment removed = indexed.remove(appointmentId);
+    if (removed == null) {
+      return;
+    }
+    for (Resource resource : Resource.values()) {
+      Map<Integer, IntervalTree<Appointment>> byId = treesFor(resource);
+      int id = resourceId(resource, removed);
+      IntervalTree<Appointment> tree = byId.get(id);
+      tree.remove(removed.getStartTime(), appointmentId);
+      if (tree.isEmpty()) {
+        byId.remove(id);
+      }
+    }
+  }
+
+  /**
+   * Removes every appointment of a deleted customer from the index.
+   *
+   * @param customerId Id of the customer deleted.
+   */
+  public void removeCustomer(int customerId) {
+    if (deferred(() -> removeCustomer(customerId))) {
+      return;
+    }
+    IntervalTree<Appointment> tree = treesFor(Resource.CUSTOMER).get(customerId);
+    if (tree == null) {
+      return;
+    }
+    for (Appointment appointment : tree.overlapping(LocalDateTime.MIN, LocalDateTime.MAX, -1)) {
+      remove(appointment.getId());
+    }
+  }
+
+  /**
+   * An interval is covered when every appointment that could overlap it,
+   * those starting up to the longest appointment length before it, falls
+   * within the loaded window.
+   *
+   * @param starts Start of the interval.
+   * @param ends End of the interval.
+   * @return True if the index can answer for the interval.
+   */
+  private boolean covers(LocalDateTime starts, LocalDateTime ends) {
+    return loadedFrom != null
+        && !starts.minus(BusinessHours.getMaxAppointmentLength()).isBefore(loadedFrom)
+        && !ends.isAfter(loadedTo);
+  }
+
+  /**
+   * Holds back a change until the index has loaded. Changes made before
+   * loading has started are dropped, as the load will include them.
+   *
+   * @param change Change to the index.
+   * @return True if the index has not loaded and the change was held back.
+   */
+  private boolean deferred(Runnable change) {
+    if (loadedFrom != null) {
+      return false;
+    }
+    if (loading != null) {
+      pendingChanges.add(change);
+    }
+    return true;
+  }
+
+  /**
+   * @param resource Kind of resource.
+   * @return Interval trees of the resource kind keyed by resource id.
+   */
+  private Map<Integer, IntervalTree<Appointment>> treesFor(Resource resource) {
+    return trees.computeIfAbsent(resource, r -> new HashMap<>());
+  }
+
+  /**
+   * @param resource Kind of resource.
+   * @param appointment Appointment booked for the resource.
+   * @return Id of the contact, customer or user of the appointment.
+   */
+  private static int resourceId(Resource resource, Appointment appointment) {
+    switch (resource) {
+      case CONTACT:
+        return appointment.getContactId();
+      case CUSTOMER:
+        return appointment.getCustomerId();
+      default:
+        return appointment.getUserId();
+    }
+  }
+}
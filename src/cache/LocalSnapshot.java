@@ -0,0 +1,414 @@
+package cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import model.Appointment;
+import model.Country;
+import model.Customer;
+import model.Division;
+import utils.ConfigProps;
+
+/**
+ * Copy of the main view's data kept in a local file, so the main view can be
+ * shown as soon as the user logs in and brought up to date with the changes
+ * made since, rather than waiting for the full loads. Holds the customers,
+ * the first page of appointments, the countries and divisions used to name
+ * them, and the watermarks the data is current to.
+ * <p>
+ * The file starts with a header of four ints: a marker, the format version,
+ * the payload length and a CRC32 of the payload. Files of another version,
+ * failing the checksum, or saved against another database are ignored; the
+ * next save replaces them. Files are written through a memory mapping to a
+ * temporary file moved over the old one, so a crash while saving leaves the
+ * previous snapshot intact.
+ *
+ * @author Sakae Watanabe
+ */
+public class LocalSnapshot {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Marker at the start of every snapshot file.
+   */
+  private static final int MAGIC = 0x4150534E;
+
+  /**
+   * Version of the payload layout, raised whenever it changes.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Bytes of header before the payload.
+   */
+  private static final int HEADER_BYTES = 16;
+
+  /**
+   * Database the snapshot was taken from.
+   */
+  private final String source;
+
+  /**
+   * Watermark the customers are current to.
+   */
+  private final Timestamp customersSince;
+
+  /**
+   * Watermark the appointments are current to.
+   */
+  private final Timestamp appointmentsSince;
+
+  /**
+   * Countries, in the order read.
+   */
+  private final List<Country> countries;
+
+  /**
+   * First level divisions, in the order read.
+   */
+  private final List<Division> divisions;
+
+  /**
+   * Customers shown by the main view.
+   */
+  private final List<Customer> customers;
+
+  /**
+   * First page of appointments in start time order.
+   */
+  private final List<Appointment> appointments;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Creates a snapshot of the current database's data. The records must not
+   * be modified afterwards, as they are written from another thread.
+   *
+   * @param customersSince Watermark the customers are current to.
+   * @param appointmentsSince Watermark the appointments are current to.
+   * @param countries Countries, in the order read.
+   * @param divisions First level divisions, in the order read.
+   * @param customers Customers shown by the main view.
+   * @param appointments First page of appointments in start time order.
+   */
+  public LocalSnapshot(Timestamp customersSince, Timestamp appointmentsSince,
+      List<Country> countries, List<Division> divisions, List<Customer> customers,
+      List<Appointment> appointments) {
+    this(currentSource(), customersSince, appointmentsSince, countries, divisions, customers,
+        appointments);
+  }
+
+  /**
+   * @param source Database the snapshot was taken from.
+   * @param customersSince Watermark the customers are current to.
+   * @param appointmentsSince Watermark the appointments are current to.
+   * @param countries Countries, in the order read.
+   * @param divisions First level divisions, in the order read.
+   * @param customers Customers shown by the main view.
+   * @param appointments First page of appointments in start time order.
+   */
+  private LocalSnapshot(String source, Timestamp customersSince, Timestamp appointmentsSince,
+      List<Country> countries, List<Division> divisions, List<Customer> customers,
+      List<Appointment> appointments) {
+    this.source = source;
+    this.customersSince = customersSince;
+    this.appointmentsSince = appointmentsSince;
+    this.countries = countries;
+    this.divisions = divisions;
+    this.customers = customers;
+    this.appointments = appointments;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Reads the snapshot saved in a file.
+   *
+   * @param file File the snapshot was saved to.
+   * @return Snapshot read, or null if there is none, or it is of another
+   *         version, corrupt, or taken from another database.
+   */
+  public static LocalSnapshot read(Path file) {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        return rejected(file, "truncated");
+      }
+      MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (mapped.getInt() != MAGIC) {
+        return rejected(file, "not a snapshot");
+      }
+      if (mapped.getInt() != VERSION) {
+        return rejected(file, "other version");
+      }
+      int length = mapped.getInt();
+      int checksum = mapped.getInt();
+      if (length != channel.size() - HEADER_BYTES) {
+        return rejected(file, "truncated");
+      }
+
+      ByteBuffer payload = mapped.slice();
+      CRC32 crc = new CRC32();
+      crc.update(payload.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        return rejected(file, "checksum mismatch");
+      }
+
+      LocalSnapshot snapshot = decode(payload);
+      if (!snapshot.source.equals(currentSource())) {
+        return rejected(file, "other database");
+      }
+      return snapshot;
+    } catch (IOException | RuntimeException e) {
+      // A payload passing the checksum but failing to decode is still corrupt.
+      return rejected(file, e.toString());
+    }
+  }
+
+  /**
+   * Saves the snapshot, replacing any saved before.
+   *
+   * @param file File to save the snapshot to.
+   * @throws IOException if the snapshot cannot be written.
+   */
+  public void write(Path file) throws IOException {
+    byte[] payload = encode();
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer mapped = channel.map(MapMode.READ_WRITE, 0,
+          HEADER_BYTES + payload.length);
+      mapped.putInt(MAGIC)
+          .putInt(VERSION)
+          .putInt(payload.length)
+          .putInt((int) crc.getValue())
+          .put(payload);
+      mapped.force();
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * @return Watermark the customers are current to.
+   */
+  public Timestamp getCustomersSince() {
+    return customersSince;
+  }
+
+  /**
+   * @return Watermark the appointments are current to.
+   */
+  public Timestamp getAppointmentsSince() {
+    return appointmentsSince;
+  }
+
+  /**
+   * @return Countries, in the order read.
+   */
+  public List<Country> getCountries() {
+    return countries;
+  }
+
+  /**
+   * @return First level divisions, in the order read.
+   */
+  public List<Division> getDivisions() {
+    return divisions;
+  }
+
+  /**
+   * @return Customers shown by the main view.
+   */
+  public List<Customer> getCustomers() {
+    return customers;
+  }
+
+  /**
+   * @return First page of appointments in start time order.
+   */
+  public List<Appointment> getAppointments() {
+    return appointments;
+  }
+
+  /**
+   * @return Backend and url of the database connected to.
+   */
+  private static String currentSource() {
+    ConfigProps config = new ConfigProps();
+    return config.getDbBackend() + " " + config.getDbUrl();
+  }
+
+  /**
+   * Reports a snapshot file that cannot be used.
+   *
+   * @param file File read.
+   * @param reason Why the file cannot be used.
+   * @return Null, for the caller to return.
+   */
+  private static LocalSnapshot rejected(Path file, String reason) {
+    System.err.println("Snapshot " + file + " ignored: " + reason);
+    return null;
+  }
+
+  /**
+   * @return Payload holding the snapshot's data.
+   * @throws IOException never, as the payload is written to memory.
+   */
+  private byte[] encode() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+
+    writeString(out, source);
+    out.writeLong(customersSince.getTime());
+    out.writeLong(appointmentsSince.getTime());
+
+    out.writeInt(countries.size());
+    for (Country c : countries) {
+      out.writeInt(c.getId());
+      writeString(out, c.getName());
+    }
+    out.writeInt(divisions.size());
+    for (Division d : divisions) {
+      out.writeInt(d.getId());
+      writeString(out, d.getName());
+      out.writeInt(d.getCountryID());
+    }
+    out.writeInt(customers.size());
+    for (Customer c : customers) {
+      out.writeInt(c.getId());
+      writeString(out, c.getName());
+      writeString(out, c.getAddress());
+      writeString(out, c.getPostalCode());
+      writeString(out, c.getPhoneNumber());
+      out.writeInt(c.getDivisionId());
+    }
+    out.writeInt(appointments.size());
+    for (Appointment a : appointments) {
+      out.writeInt(a.getId());
+      out.writeInt(a.getCustomerId());
+      out.writeInt(a.getContactId());
+      writeString(out, a.getContactName());
+      out.writeInt(a.getUserId());
+      writeString(out, a.getTitle());
+      writeString(out, a.getDescription());
+      writeString(out, a.getType());
+      writeString(out, a.getLocation());
+      writeTime(out, a.getStartTime());
+      writeTime(out, a.getEndTime());
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @param in Payload positioned at its start.
+   * @return Snapshot held by the payload.
+   */
+  private static LocalSnapshot decode(ByteBuffer in) {
+    String source = readString(in);
+    Timestamp customersSince = new Timestamp(in.getLong());
+    Timestamp appointmentsSince = new Timestamp(in.getLong());
+
+    int count = in.getInt();
+    List<Country> countries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      countries.add(new Country(in.getInt(), readString(in)));
+    }
+    count = in.getInt();
+    List<Division> divisions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      divisions.add(new Division(in.getInt(), readString(in), in.getInt()));
+    }
+    count = in.getInt();
+    List<Customer> customers = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      customers.add(new Customer(in.getInt(), readString(in), readString(in),
+          readString(in), readString(in), in.getInt()));
+    }
+    count = in.getInt();
+    List<Appointment> appointments = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      appointments.add(new Appointment(in.getInt(), in.getInt(), in.getInt(), readString(in),
+          in.getInt(), readString(in), readString(in), readString(in), readString(in),
+          readTime(in), readTime(in)));
+    }
+    return new LocalSnapshot(source, customersSince, appointmentsSince, countries, divisions,
+        customers, appointments);
+  }
+
+  /**
+   * @param out Payload being written.
+   * @param value String to write, may be null.
+   * @throws IOException never, as the payload is written to memory.
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  /**
+   * @param in Payload being read.
+   * @return String read, may be null.
+   */
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] utf8 = new byte[length];
+    in.get(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param out Payload being written.
+   * @param time Time to write.
+   * @throws IOException never, as the payload is written to memory.
+   */
+  private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+    out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+    out.writeInt(time.getNano());
+  }
+
+  /**
+   * @param in Payload being read.
+   * @return Time read.
+   */
+  private static LocalDateTime readTime(ByteBuffer in) {
+    return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,597 @@
+package cache;
+
+import dao.AsyncAppointmentDAO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableListBase;
+import model.Appointment;
+import model.ChangeSet;
+
+/**
+ * Read only list of every appointment in start time order, fetched a page at
+ * a time as a table view asks for rows. Pages are loaded by keyset on start
+ * time and appointment id, so each page costs the same however far down the
+ * table it lies. Only a bounded number of pages are kept in memory; pages far
+ * from the rows last viewed are dropped and fetched again if scrolled back to.
+ * <p>
+ * Rows that have not arrived yet are returned as null and the list fires an
+ * update once they load. The list grows by a page whenever the last page is
+ * viewed, until the database has no more appointments. All methods must be
+ * called on the JavaFX application thread.
+ * <p>
+ * Each page covers a fixed range of keys, from the key before it up to the
+ * key of its last row when first fetched. Appointments added, changed or
+ * deleted are applied to the pages in memory, so their row counts vary; a
+ * dropped page is brought up to date when it is fetched again, and its row
+ * count corrected if the range has gained or lost rows meanwhile.
+ * <p>
+ * A page whose fetch fails is left as it was, unloaded or not yet appended,
+ * and fetched again the next time its rows are viewed.
+ *
+ * @author Sakae Watanabe
+ */
+public class PagedAppointmentList extends ObservableListBase<Appointment> {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Async DAO the pages are fetched with.
+   */
+  private final AsyncAppointmentDAO appointmentDAO;
+
+  /**
+   * Appointments fetched per page.
+   */
+  private final int pageSize;
+
+  /**
+   * Most pages held in memory at once.
+   */
+  private final int maxPages;
+
+  /**
+   * Every page fetched so far, in order. Dropped pages keep their keys so they
+   * can be fetched again.
+   */
+  private final List<Page> pages = new ArrayList<>();
+
+  /**
+   * Number of appointments known so far.
+   */
+  private int size = 0;
+
+  /**
+   * Indicates the last page has been fetched.
+   */
+  private boolean exhausted = false;
+
+  /**
+   * Indicates the next page is being fetched.
+   */
+  private boolean loadingNext = false;
+
+  /**
+   * Indicates appointments were added after the last page while the next
+   * page was being fetched, so a short page does not mean the end.
+   */
+  private boolean tailChanged = false;
+
+  /**
+   * Index of the first row of each page, null when page row counts have
+   * changed and it must be rebuilt.
+   */
+  private int[] offsets = null;
+
+  /**
+   * Page holding the most recently viewed row.
+   */
+  private int viewedPage = 0;
+
+  /**
+   * Incremented on refresh so pages fetched for an older list are ignored.
+   */
+  private int generation = 0;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * @param appointmentDAO Async DAO the pages are fetched with.
+   * @param pageSize Appointments fetched per page.
+   * @param maxPages Most pages held in memory at once, at least two.
+   */
+  public PagedAppointmentList(AsyncAppointmentDAO appointmentDAO, int pageSize, int maxPages) {
+    this.appointmentDAO = appointmentDAO;
+    this.pageSize = pageSize;
+    this.maxPages = Math.max(2, maxPages);
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Returns the appointment at the index, starting a fetch of its page if it
+   * is not in memory and of the next page if it is on the last page.
+   *
+   * @param index Position of the appointment in start time order.
+   * @return Appointment at the index, or null while its page is loading.
+   */
+  @Override
+  public Appointment get(int index) {
+    Objects.checkIndex(index, size);
+    int pageIndex = pageOf(index);
+    int offset = offset(pageIndex);
+    Page page = pages.get(pageIndex);
+    viewedPage = pageIndex;
+
+    if (pageIndex == pages.size() - 1) {
+      loadNext();
+    }
+    if (page.rows == null) {
+      reload(pageIndex);
+      return null;
+    }
+    return page.rows.get(index - offset);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Drops every page and fetches the first page again. Called after
+   * appointments have been added, changed or deleted.
+   *
+   * @return CompletableFuture completing once the first page has loaded.
+   */
+  public CompletableFuture<Void> refresh() {
+    generation++;
+    List<Appointment> removed = new ArrayList<>(Collections.nCopies(size, null));
+    pages.clear();
+    offsets = null;
+    size = 0;
+    exhausted = false;
+    loadingNext = false;
+    tailChanged = false;
+    viewedPage = 0;
+    if (!removed.isEmpty()) {
+      beginChange();
+      nextRemove(0, removed);
+      endChange();
+    }
+    return loadNext();
+  }
+
+  /**
+   * Starts the list from rows saved by an earlier run in place of fetching
+   * its first page. The rows are taken as the whole of the first page's key
+   * range, ending at the last row, and must be brought up to date by
+   * applying the changes made since they were saved. Has no effect unless
+   * the list is empty and not loading.
+   *
+   * @param rows Rows of the first page in start time order.
+   */
+  public void seed(List<Appointment> rows) {
+    if (rows.isEmpty() || !pages.isEmpty() || loadingNext) {
+      return;
+    }
+    Page page = new Page(null, 0);
+    page.fill(rows);
+    pages.add(page);
+    offsets = null;
+    size = page.count;
+
+    beginChange();
+    nextAdd(0, size);
+    endChange();
+  }
+
+  /**
+   * Copies the rows of the first page for saving, so that together with the
+   * watermark the list is current to they can seed the list at a later
+   * start.
+   *
+   * @return Copies of the first page's rows, empty if it is not in memory.
+   */
+  public List<Appointment> copyFirstPage() {
+    List<Appointment> copies = new ArrayList<>();
+    if (!pages.isEmpty() && pages.get(0).rows != null) {
+      pages.get(0).rows.forEach(a -> copies.add(new Appointment(a)));
+    }
+    return copies;
+  }
+
+  /**
+   * Applies appointments added, changed and deleted since the list was loaded
+   * to the pages in memory, keeping the rows around them in place. Changes
+   * falling in dropped pages are picked up when those pages are fetched
+   * again, and changes after the last page when the list next grows. All the
+   * rows added and removed are reported to listeners as a single change.
+   *
+   * @param changes Appointments changed and deleted.
+   */
+  public void applyChanges(ChangeSet<Appointment> changes) {
+    beginChange();
+    for (int id : changes.getDeleted()) {
+      int[] at = locate(id);
+      if (at != null) {
+        removeRow(at[0], at[1]);
+      }
+    }
+
+    boolean tail = false;
+    for (Appointment changed : changes.getChanged()) {
+      int[] at = locate(changed.getId());
+      if (at != null) {
+        Appointment shown = pages.get(at[0]).rows.get(at[1]);
+        if (shown.getStartTime().equals(changed.getStartTime())) {
+          shown.setAll(changed);
+          continue;
+        }
+        removeRow(at[0], at[1]);
+      }
+      int pageIndex = pageFor(changed);
+      if (pageIndex < 0) {
+        tail = true;
+      } else if (pages.get(pageIndex).rows != null) {
+        insertRow(pageIndex, new Appointment(changed));
+      }
+    }
+    endChange();
+
+    if (tail) {
+      if (loadingNext) {
+        tailChanged = true;
+      } else if (exhausted) {
+        exhausted = false;
+        loadNext();
+      }
+    }
+  }
+
+  /**
+   * @return Number of pages currently held in memory.
+   */
+  public int getLoadedPageCount() {
+    int loaded = 0;
+    for (Page page : pages) {
+      if (page.rows != null) {
+        loaded++;
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Fetches the page after the last one known and appends it.
+   *
+   * @return CompletableFuture completing once the page has been appended.
+   */
+  private CompletableFuture<Void> loadNext() {
+    if (exhausted || loadingNext) {
+      return CompletableFuture.completedFuture(null);
+    }
+    loadingNext = true;
+    Page last = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+    LocalDateTime afterStart = last == null ? null : last.lastStart;
+    int afterId = last == null ? 0 : last.lastId;
+    int loadGeneration = generation;
+
+    return appointmentDAO.getPage(afterStart, afterId, pageSize).whenComplete((rows, e) -> {
+      if (loadGeneration == generation) {
+        loadingNext = false;
+      }
+    }).thenAccept(rows -> {
+      if (loadGeneration != generation || rows == null) {
+        return;
+      }
+      if (rows.size() < pageSize && !tailChanged) {
+        exhausted = true;
+      }
+      tailChanged = false;
+      if (rows.isEmpty()) {
+        return;
+      }
+      Page page = new Page(afterStart, afterId);
+      page.fill(rows);
+      pages.add(page);
+      offsets = null;
+
+      int from = size;
+      size += rows.size();
+      beginChange();
+      nextAdd(from, size);
+      endChange();
+      evictDistantPages();
+    });
+  }
+
+  /**
+   * Fetches a dropped page again using the key it was first fetched with,
+   * keeping the rows up to the end of its key range. If the range has gained
+   * or lost rows since, the page's row count is corrected. Should the range
+   * have grown past what one fetch returns, the whole list is refreshed
+   * instead.
+   *
+   * @param pageIndex Index of the page to fetch.
+   */
+  private void reload(int pageIndex) {
+    Page page = pages.get(pageIndex);
+    if (page.loading) {
+      return;
+    }
+    page.loading = true;
+    int loadGeneration = generation;
+    int limit = page.count + pageSize;
+
+    appointmentDAO.getPage(page.afterStart, page.afterId, limit).thenAccept(rows -> {
+      if (loadGeneration != generation || rows == null) {
+        return;
+      }
+      int within = 0;
+      while (within < rows.size() && !page.endsBefore(rows.get(within))) {
+        within++;
+      }
+      if (within == limit) {
+        refresh();
+        return;
+      }
+
+      int from = offset(pageIndex);
+      int expected = page.count;
+      page.rows = new ArrayList<>(rows.subList(0, within));
+      page.count = within;
+      size += within - expected;
+      offsets = null;
+
+      beginChange();
+      if (within == expected) {
+        nextReplace(from, from + within, Collections.nCopies(expected, null));
+      } else {
+        nextRemove(from, Collections.nCopies(expected, null));
+        nextAdd(from, from + within);
+      }
+      endChange();
+      evictDistantPages();
+    }).whenComplete((done, e) -> page.loading = false);
+  }
+
+  /**
+   * Finds an appointment among the pages held in memory.
+   *
+   * @param id Id of the appointment.
+   * @return Index of its page and of its row within the page, or null if it
+   *         is not in memory.
+   */
+  private int[] locate(int id) {
+    for (int p = 0; p < pages.size(); p++) {
+      List<Appointment> rows = pages.get(p).rows;
+      if (rows == null) {
+        continue;
+      }
+      for (int r = 0; r < rows.size(); r++) {
+        if (rows.get(r).getId() == id) {
+          return new int[]{p, r};
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the page whose key range holds an appointment's start time and id.
+   *
+   * @param appointment Appointment to place.
+   * @return Index of the page, or -1 if it sorts after every page known.
+   */
+  private int pageFor(Appointment appointment) {
+    int low = 0;
+    int high = pages.size() - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (pages.get(mid).endsBefore(appointment)) {
+        low = mid + 1;
+      } else {
+        found = mid;
+        high = mid - 1;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Inserts a row into a page in memory at its place in start time order.
+   *
+   * @param pageIndex Index of the page, which must be in memory.
+   * @param appointment Appointment to insert.
+   */
+  private void insertRow(int pageIndex, Appointment appointment) {
+    Page page = pages.get(pageIndex);
+    int row = 0;
+    while (row < page.rows.size() && Page.compare(page.rows.get(row), appointment) < 0) {
+      row++;
+    }
+    int index = offset(pageIndex) + row;
+    page.rows.add(row, appointment);
+    page.count++;
+    size++;
+    offsets = null;
+
+    beginChange();
+    nextAdd(index, index + 1);
+    endChange();
+  }
+
+  /**
+   * Removes a row from a page in memory.
+   *
+   * @param pageIndex Index of the page, which must be in memory.
+   * @param row Index of the row within the page.
+   */
+  private void removeRow(int pageIndex, int row) {
+    Page page = pages.get(pageIndex);
+    int index = offset(pageIndex) + row;
+    Appointment removed = page.rows.remove(row);
+    page.count--;
+    size--;
+    offsets = null;
+
+    beginChange();
+    nextRemove(index, removed);
+    endChange();
+  }
+
+  /**
+   * @param index Position of a row in the list.
+   * @return Index of the page holding the row.
+   */
+  private int pageOf(int index) {
+    buildOffsets();
+    int low = 0;
+    int high = pages.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (offsets[mid] <= index) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param pageIndex Index of a page.
+   * @return Position in the list of the page's first row.
+   */
+  private int offset(int pageIndex) {
+    buildOffsets();
+    return offsets[pageIndex];
+  }
+
+  /**
+   * Rebuilds the first row index of each page if row counts have changed.
+   */
+  private void buildOffsets() {
+    if (offsets != null) {
+      return;
+    }
+    offsets = new int[pages.size()];
+    int next = 0;
+    for (int i = 0; i < pages.size(); i++) {
+      offsets[i] = next;
+      next += pages.get(i).count;
+    }
+  }
+
+  /**
+   * Drops pages furthest from the last viewed row until no more than the
+   * maximum number of pages with rows are held. No change is fired, as
+   * dropped pages are off screen; their rows read as null until fetched
+   * again. Pages left empty by deletes are kept, as a dropped page without
+   * rows is never viewed and so would never be fetched again.
+   */
+  private void evictDistantPages() {
+    int loaded = 0;
+    for (Page page : pages) {
+      if (page.rows != null && !page.rows.isEmpty()) {
+        loaded++;
+      }
+    }
+    while (loaded > maxPages) {
+      int furthest = -1;
+      for (int i = 0; i < pages.size(); i++) {
+        List<Appointment> rows = pages.get(i).rows;
+        if (rows != null && !rows.isEmpty() && (furthest < 0
+            || Math.abs(i - viewedPage) > Math.abs(furthest - viewedPage))) {
+          furthest = i;
+        }
+      }
+      pages.get(furthest).rows = null;
+      loaded--;
+    }
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * One page of appointments and the keys bounding its range.
+   */
+  private static final class Page {
+
+    /** Start time of the last row before this page, null for the first page. */
+    private final LocalDateTime afterStart;
+
+    /** Id of the last row before this page. */
+    private final int afterId;
+
+    /** Start time of the last row when first fetched, ending the range. */
+    private LocalDateTime lastStart;
+
+    /** Id of the last row when first fetched, ending the range. */
+    private int lastId;
+
+    /** Number of rows on the page. */
+    private int count;
+
+    /** Rows on the page, null when dropped from memory. */
+    private List<Appointment> rows;
+
+    /** Indicates the page is being fetched again. */
+    private boolean loading = false;
+
+    /**
+     * @param afterStart Start time of the last row before this page.
+     * @param afterId Id of the last row before this page.
+     */
+    private Page(LocalDateTime afterStart, int afterId) {
+      this.afterStart = afterStart;
+      this.afterId = afterId;
+    }
+
+    /**
+     * Stores the rows of the page and the key of its last row.
+     *
+     * @param fetched Rows fetched for the page, never empty.
+     */
+    private void fill(List<Appointment> fetched) {
+      rows = new ArrayList<>(fetched);
+      count = rows.size();
+      Appointment last = rows.get(count - 1);
+      lastStart = last.getStartTime();
+      lastId = last.getId();
+    }
+
+    /**
+     * @param appointment Appointment to compare with the end of the range.
+     * @return True if the appointment sorts after this page's range.
+     */
+    private boolean endsBefore(Appointment appointment) {
+      int order = appointment.getStartTime().compareTo(lastStart);
+      return order > 0 || (order == 0 && appointment.getId() > lastId);
+    }
+
+    /**
+     * @param a First appointment.
+     * @param b Second appointment.
+     * @return Negative, zero or positive as a sorts before, with or after b
+     *         by start time then id.
+     */
+    private static int compare(Appointment a, Appointment b) {
+      int order = a.getStartTime().compareTo(b.getStartTime());
+      return order != 0 ? order : Integer.compare(a.getId(), b.getId());
+    }
+  }
+}
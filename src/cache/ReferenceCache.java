@@ -0,0 +1,268 @@
+package cache;
+
+import dao.impl.ContactDAOImpl;
+import dao.impl.CountryDAOImpl;
+import dao.impl.CustomerDAOImpl;
+import dao.impl.DivisionDAOImpl;
+import dao.impl.UserDAOImpl;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import javafx.collections.ObservableList;
+import model.Contact;
+import model.Country;
+import model.Customer;
+import model.Division;
+import model.GeographyIndex;
+import model.User;
+import utils.ConfigProps;
+import utils.DBExecutor;
+import utils.IntIndex;
+
+/**
+ * Application wide cache of the lists the customer and appointment forms
+ * choose from, so opening a form runs no queries once the cache is warm.
+ * Each list is kept for a time to live and can be invalidated when records
+ * are written. Views asking for a list while it is loading share the one
+ * load rather than starting their own.
+ * <p>
+ * Contacts, users, countries and divisions are not edited by the
+ * application and are kept for the configured reference time to live.
+ * Customers are kept for a shorter time and invalidated whenever this or
+ * another client changes one. The lists handed out are shared and must not
+ * be modified. Contacts, users and customers are indexed by id as they are
+ * loaded, so every view looks records up through the same index. Countries
+ * and divisions are offered as a prebuilt geography index instead.
+ *
+ * @author Sakae Watanabe
+ */
+public class ReferenceCache {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Contacts for the appointment view combo box. */
+  public static final Entry<Contact> contacts = new Entry<>(
+      () -> new ContactDAOImpl().getAll(), Contact::getId, referenceTtl());
+
+  /** Users for the appointment view combo box. */
+  public static final Entry<User> users = new Entry<>(
+      () -> new UserDAOImpl().getAll(), User::getId, referenceTtl());
+
+  /** Countries for the customer view combo box. */
+  public static final Entry<Country> countries = new Entry<>(
+      () -> new CountryDAOImpl().getAll(), null, referenceTtl());
+
+  /** First level divisions for the customer view combo box. */
+  public static final Entry<Division> divisions = new Entry<>(
+      () -> new DivisionDAOImpl().getAll(), null, referenceTtl());
+
+  /** Customers for the main view and appointment view. */
+  public static final Entry<Customer> customers = new Entry<>(
+      () -> new CustomerDAOImpl().getAll(), Customer::getId,
+      Duration.ofSeconds(new ConfigProps().getCustomerCacheSeconds()));
+
+  /**
+   * Index over the cached countries and divisions, null until first built.
+   */
+  private static volatile GeographyIndex geography;
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Returns the index of the cached countries and divisions, built again only
+   * when either list has been loaded again.
+   *
+   * @return CompletableFuture completed on the JavaFX thread with the index.
+   */
+  public static CompletableFuture<GeographyIndex> geography() {
+    return countries.get().thenCombine(divisions.get(), (c, d) -> {
+      GeographyIndex held = geography;
+      if (held == null || !held.isBuiltFrom(c, d)) {
+        held = new GeographyIndex(c, d);
+        geography = held;
+      }
+      return held;
+    });
+  }
+
+  /**
+   * Starts loading every list in the background so the first views opened
+   * find them ready.
+   *
+   * @return CompletableFuture completing once every list has loaded.
+   */
+  public static CompletableFuture<Void> warm() {
+    return CompletableFuture.allOf(contacts.load(), users.load(), countries.load(),
+        divisions.load(), customers.load());
+  }
+
+  /**
+   * @return Time to live of the lists not edited by the application.
+   */
+  private static Duration referenceTtl() {
+    return Duration.ofSeconds(new ConfigProps().getReferenceCacheSeconds());
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * One cached list, loaded on first use and again once it has expired or
+   * been invalidated.
+   *
+   * @param <T> Type of record in the list.
+   */
+  public static final class Entry<T> {
+
+    /** Blocking DAO call producing the list. */
+    private final Supplier<ObservableList<T>> loader;
+
+    /** Reads the id records are indexed by, null if the list is not indexed. */
+    private final ToIntFunction<T> key;
+
+    /** Time the list is kept after loading. */
+    private final Duration ttl;
+
+    /** Load in progress or finished, null until loaded or once invalidated. */
+    private final AtomicReference<CompletableFuture<Loaded<T>>> current =
+        new AtomicReference<>();
+
+    /** Time in nanoseconds the current list expires, set once it has loaded. */
+    private volatile long expiresAt;
+
+    /**
+     * @param loader Blocking DAO call producing the list.
+     * @param key Reads the id records are indexed by, null for no index.
+     * @param ttl Time the list is kept after loading.
+     */
+    private Entry(Supplier<ObservableList<T>> loader, ToIntFunction<T> key, Duration ttl) {
+      this.loader = loader;
+      this.key = key;
+      this.ttl = ttl;
+    }
+
+    /**
+     * Returns the cached list, loading it if it is missing or expired.
+     *
+     * @return CompletableFuture completed on the JavaFX thread with the list.
+     */
+    public CompletableFuture<ObservableList<T>> get() {
+      return load().thenApplyAsync(Loaded::getList, DBExecutor.fxExecutor());
+    }
+
+    /**
+     * Returns the cached list together with its index by id, loading it if
+     * it is missing or expired.
+     *
+     * @return CompletableFuture completed on the JavaFX thread with the list
+     *         and its index.
+     */
+    public CompletableFuture<Loaded<T>> getLoaded() {
+      return load().thenApplyAsync(loaded -> loaded, DBExecutor.fxExecutor());
+    }
+
+    /**
+     * Drops the cached list so the next request loads it again. A load
+     * already in progress still completes for those waiting on it.
+     */
+    public void invalidate() {
+      current.set(null);
+    }
+
+    /**
+     * @return Time the list is kept after loading.
+     */
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    /**
+     * Returns the current load if it is in progress or still fresh, or else
+     * starts a new one. Only one new load is started however many callers
+     * find the list missing at once.
+     *
+     * @return CompletableFuture completed on a worker thread with the list.
+     */
+    private CompletableFuture<Loaded<T>> load() {
+      while (true) {
+        CompletableFuture<Loaded<T>> held = current.get();
+        if (held != null && !held.isCompletedExceptionally()
+            && (!held.isDone() || System.nanoTime() - expiresAt < 0)) {
+          return held;
+        }
+        CompletableFuture<Loaded<T>> load = new CompletableFuture<>();
+        if (current.compareAndSet(held, load)) {
+          start(load);
+          return load;
+        }
+      }
+    }
+
+    /**
+     * Runs the loader and builds the index on a database worker thread. An
+     * empty list is handed out but not kept, as the DAOs return an empty list
+     * when a query fails.
+     *
+     * @param load Future to complete with the list.
+     */
+    private void start(CompletableFuture<Loaded<T>> load) {
+      DBExecutor.supplyInBackground(() -> {
+        ObservableList<T> list = loader.get();
+        return new Loaded<>(list, key == null ? null : new IntIndex<>(list, key));
+      }).whenComplete((loaded, error) -> {
+        if (error != null) {
+          load.completeExceptionally(error);
+          return;
+        }
+        if (current.get() == load) {
+          expiresAt = System.nanoTime() + (loaded.list.isEmpty() ? 0 : ttl.toNanos());
+        }
+        load.complete(loaded);
+      });
+    }
+  }
+
+  /**
+   * A list as loaded, with its index by id.
+   *
+   * @param <T> Type of record in the list.
+   */
+  public static final class Loaded<T> {
+
+    /** List loaded, shared and not to be modified. */
+    private final ObservableList<T> list;
+
+    /** Records of the list by id, null if the list is not indexed. */
+    private final IntIndex<T> index;
+
+    /**
+     * @param list List loaded.
+     * @param index Records of the list by id, null if not indexed.
+     */
+    private Loaded(ObservableList<T> list, IntIndex<T> index) {
+      this.list = list;
+      this.index = index;
+    }
+
+    /**
+     * @return List loaded, shared and not to be modified.
+     */
+    public ObservableList<T> getList() {
+      return list;
+    }
+
+    /**
+     * @return Records of the list by id, null if the list is not indexed.
+     */
+    public IntIndex<T> getIndex() {
+      return index;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import utils.ConfigProps;
+import utils.DBExecutor;
+
+/**
+ * Saves the main view's local snapshot on a schedule and once more when the
+ * application exits. Each snapshot is captured on the JavaFX thread, where
+ * the data it copies is changed, and written on a background thread.
+ *
+ * @author Sakae Watanabe
+ */
+public class SnapshotWriter {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Captures a snapshot of the data shown, or null if there is nothing
+   * worth saving. Run on the JavaFX thread.
+   */
+  private final Supplier<LocalSnapshot> capture;
+
+  /**
+   * File the snapshot is saved to.
+   */
+  private final Path file;
+
+  /**
+   * Single daemon thread running the scheduled saves.
+   */
+  private final ScheduledExecutorService writer;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Creates the writer and schedules its saves.
+   *
+   * @param capture Captures a snapshot on the JavaFX thread, or null if
+   *                there is nothing worth saving.
+   * @param config Configuration supplying the file and save interval.
+   */
+  public SnapshotWriter(Supplier<LocalSnapshot> capture, ConfigProps config) {
+    this.capture = capture;
+    this.file = Paths.get(config.getSnapshotFile());
+    long interval = Math.max(1, config.getSnapshotSaveSeconds());
+
+    this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "snapshot-writer");
+      t.setDaemon(true);
+      return t;
+    });
+    writer.scheduleWithFixedDelay(this::saveScheduled, interval, interval, TimeUnit.SECONDS);
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Reads the snapshot saved by an earlier run.
+   *
+   * @param config Configuration supplying the file.
+   * @return Snapshot read, or null if there is none usable.
+   */
+  public static LocalSnapshot readSaved(ConfigProps config) {
+    return LocalSnapshot.read(Paths.get(config.getSnapshotFile()));
+  }
+
+  /**
+   * Stops the scheduled saves and saves a final snapshot. Must be called on
+   * the JavaFX thread.
+   */
+  public void shutdown() {
+    writer.shutdown();
+    write(capture.get());
+  }
+
+  /**
+   * Captures a snapshot on the JavaFX thread and writes it on this one.
+   */
+  private void saveScheduled() {
+    try {
+      write(CompletableFuture.supplyAsync(capture, DBExecutor.fxExecutor()).get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      System.err.println("Snapshot: " + e.getCause());
+    }
+  }
+
+  /**
+   * Writes a snapshot, one at a time so the final save cannot interleave
+   * with a scheduled one.
+   *
+   * @param snapshot Snapshot to write, or null to write nothing.
+   */
+  private synchronized void write(LocalSnapshot snapshot) {
+    if (snapshot == null) {
+      return;
+    }
+    try {
+      snapshot.write(file);
+    } catch (IOException e) {
+      System.err.println("Snapshot: " + e.getMessage());
+    }
+  }
+}
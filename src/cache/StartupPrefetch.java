@@ -0,0 +1,166 @@
+package cache;
+
+import dao.impl.AppointmentDAOImpl;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javafx.collections.ObservableList;
+import model.Appointment;
+import utils.BusinessHours;
+import utils.ConfigProps;
+import utils.DBExecutor;
+import utils.StartupTimeline;
+
+/**
+ * Loads the data the main, customer and appointment views need in parallel
+ * while the user is still on the login screen. The form choice lists and
+ * customers are loaded into the ReferenceCache. The coming week of
+ * appointments is handed out once to the first view asking for it; later
+ * requests, and requests made after it has grown stale, go to the database
+ * as normal. The local snapshot saved by the last run is read as soon as the
+ * application starts, without waiting for the database.
+ *
+ * @author Sakae Watanabe
+ */
+public class StartupPrefetch {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Age after which prefetched data is discarded rather than handed out.
+   */
+  private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+  /** Appointments within a week of start up for the main view's first paint. */
+  public static final Slot<Appointment> weekAppointments = new Slot<>("week appointments");
+
+  /** Snapshot saved by the last run, being read or read, null once taken. */
+  private static final AtomicReference<CompletableFuture<LocalSnapshot>> snapshot =
+      new AtomicReference<>();
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Starts all loads in parallel on database worker threads. Intended to be
+   * called once the database connection has been opened.
+   */
+  public static void start() {
+    StartupTimeline.mark("prefetch started");
+    CompletableFuture.allOf(
+        ReferenceCache.warm(),
+        weekAppointments.load(() -> {
+          LocalDateTime now = LocalDateTime.now();
+          return new AppointmentDAOImpl().getStartingBetween(
+              now.minus(BusinessHours.getMaxAppointmentLength()), now.plusWeeks(1));
+        }))
+        .thenRun(() -> StartupTimeline.mark("prefetch complete"));
+  }
+
+  /**
+   * Reads the snapshot saved by the last run in the background. Intended to
+   * be called at start up, before the database connection is opened, as the
+   * read runs off the database worker threads and does not wait on it.
+   */
+  public static void readSnapshot() {
+    snapshot.set(CompletableFuture.supplyAsync(() -> {
+      LocalSnapshot read = SnapshotWriter.readSaved(new ConfigProps());
+      StartupTimeline.mark(read == null ? "no snapshot" : "snapshot read");
+      return read;
+    }));
+  }
+
+  /**
+   * Takes the snapshot saved by the last run if it has been read by now.
+   * Only the first view asking is handed it.
+   *
+   * @return Snapshot read, or null if there is none, it is still being read,
+   *         or it has already been taken.
+   */
+  public static LocalSnapshot takeSnapshot() {
+    CompletableFuture<LocalSnapshot> read = snapshot.getAndSet(null);
+    if (read == null || !read.isDone() || read.isCompletedExceptionally()) {
+      return null;
+    }
+    return read.join();
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * Holds one prefetched list until a view takes it.
+   *
+   * @param <T> Type of record in the list.
+   */
+  public static final class Slot<T> {
+
+    /** Name of the list for the start up timeline. */
+    private final String name;
+
+    /** Load in progress or finished, null once taken. */
+    private final AtomicReference<CompletableFuture<ObservableList<T>>> pending =
+        new AtomicReference<>();
+
+    /** Time in nanoseconds the load finished. */
+    private volatile long loadedAt;
+
+    /**
+     * @param name Name of the list for the start up timeline.
+     */
+    private Slot(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Starts loading the list in the background, replacing anything held.
+     *
+     * @param loader Blocking DAO call producing the list.
+     * @return CompletableFuture completing once the list has loaded.
+     */
+    private CompletableFuture<ObservableList<T>> load(Supplier<ObservableList<T>> loader) {
+      CompletableFuture<ObservableList<T>> load = DBExecutor.supplyInBackground(() -> {
+        ObservableList<T> list = loader.get();
+        loadedAt = System.nanoTime();
+        StartupTimeline.mark("prefetched " + name + " (" + list.size() + ")");
+        return list;
+      });
+      pending.set(load);
+      return load;
+    }
+
+    /**
+     * Takes the prefetched list if it is loading or loaded and still fresh.
+     *
+     * @return CompletableFuture completed on the JavaFX thread with the list,
+     *         or null if there is nothing to hand out.
+     */
+    public CompletableFuture<ObservableList<T>> take() {
+      CompletableFuture<ObservableList<T>> load = pending.getAndSet(null);
+      if (load == null || load.isCompletedExceptionally()
+          || (load.isDone() && System.nanoTime() - loadedAt > MAX_AGE.toNanos())) {
+        return null;
+      }
+      return load.thenApplyAsync(list -> list, DBExecutor.fxExecutor());
+    }
+
+    /**
+     * Takes the prefetched list, or loads it with the fallback if there is
+     * nothing to hand out.
+     *
+     * @param fallback Async DAO call used when nothing was prefetched.
+     * @return CompletableFuture completed on the JavaFX thread with the list.
+     */
+    public CompletableFuture<ObservableList<T>> takeOr(
+        Supplier<CompletableFuture<ObservableList<T>>> fallback) {
+      CompletableFuture<ObservableList<T>> load = take();
+      return load != null ? load : fallback.get();
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package dao;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 import javafx.collections.ObservableList;
 import model.Appointment;
+import model.BookingResult;
+import model.ChangeSet;
 import model.Customer;
 import model.User;
+import utils.UnitOfWork;
 
 /**
  * AppointmentDAO interface specifies methods to be implemented for appointment
@@ -28,17 +34,45 @@ public interface AppointmentDAO {
   public ObservableList<Appointment> getAll();
 
   /**
-   * getBefore queries appointment data for all appointments starting between
-   * the start and end time not matching ignore. Method used to check for list
-   * of conflicting appointments when adding or updating new entries while not
-   * checking for the ignored id.
+   * getPage fetches one page of appointments ordered by start time then id,
+   * beginning after the supplied key. Keyset paging keeps the cost of a page
+   * the same however deep into the table it lies.
    *
-   * @param starts LocalDateTime to use as upper bound for search.
-   * @param ends LocalDateTime to use as upper bound for search.
+   * @param afterStart Start time of the last appointment on the previous page,
+   *                   or null for the first page.
+   * @param afterId Id of the last appointment on the previous page.
+   * @param limit Maximum number of appointments to return.
+   * @return ObservableList holding up to limit appointments after the key, or
+   *         null if the query failed.
+   */
+  public ObservableList<Appointment> getPage(LocalDateTime afterStart, int afterId, int limit);
+
+  /**
+   * getStartingBetween queries appointments starting within a window, from
+   * the lower bound inclusive to the upper bound exclusive, in start order.
+   *
+   * @param from LocalDateTime of the start of the window.
+   * @param to LocalDateTime of the end of the window.
+   * @return ObservableList of appointments starting within the window.
+   */
+  public ObservableList<Appointment> getStartingBetween(LocalDateTime from, LocalDateTime to);
+
+  /**
+   * getOverlapping queries appointments of one contact, customer or user that
+   * overlap the half open interval from starts to ends, not matching ignore.
+   * Appointments touching the interval end to end do not overlap it. Method
+   * used to check for conflicting appointments when adding or updating
+   * entries while not checking for the ignored id.
+   *
+   * @param resource Kind of resource the appointments are booked for.
+   * @param resourceId Id of the contact, customer or user.
+   * @param starts LocalDateTime of the start of the interval.
+   * @param ends LocalDateTime of the end of the interval.
    * @param ignore Id of appointment to be ignored from the search.
-   * @return ObservableList where appointments between start and end time.
+   * @return ObservableList of appointments of the resource overlapping the interval.
    */
-  public ObservableList<Appointment> getBetween(LocalDateTime starts, LocalDateTime ends, int ignore);
+  public ObservableList<Appointment> getOverlapping(Resource resource, int resourceId,
+      LocalDateTime starts, LocalDateTime ends, int ignore);
 
   /**
    * getByContact looks up appointment records matching supplied contact id.
@@ -57,6 +91,41 @@ public interface AppointmentDAO {
    */
   public ObservableList<Appointment> getByCustomerId(int customerId);
 
+  /**
+   * getChangedSince queries appointments added or updated since a watermark,
+   * and the ids of appointments deleted since then, from the primary
+   * database. Used to refresh lists of appointments already shown without
+   * loading them all again.
+   *
+   * @param since Watermark returned with the previous changes, or by
+   *              ChangeLog.watermark before the first load.
+   * @return ChangeSet of the appointments changed and deleted, or null if the
+   *         query failed. The set is expired if the watermark is older than
+   *         the deletions kept, in which case every appointments must be reloaded.
+   */
+  public ChangeSet<Appointment> getChangedSince(Timestamp since);
+
+  /**
+   * forEachAppointment streams every appointment record in start order to an
+   * action without collecting them into a list. Rows are fetched from the
+   * server a batch at a time, so memory use does not grow with the table. The
+   * action runs while the query is open and must not use the database.
+   *
+   * @param action Action run for each appointment as it is read.
+   * @return Number of appointments streamed, or 0 if the query failed.
+   */
+  public int forEachAppointment(Consumer<? super Appointment> action);
+
+  /**
+   * forEachByContact streams every appointment record to an action as
+   * forEachAppointment does, grouped by contact in contact id order and then
+   * in start order within each contact.
+   *
+   * @param action Action run for each appointment as it is read.
+   * @return Number of appointments streamed, or 0 if the query failed.
+   */
+  public int forEachByContact(Consumer<? super Appointment> action);
+
   /**
    * addAppointment will insert new appointment records into database.
    *
@@ -83,6 +152,16 @@ public interface AppointmentDAO {
    */
   public int deleteAppointmentByCustomer(Customer customer);
 
+  /**
+   * Queues deletion of all appointments matching the customer id of supplied
+   * Customer on a unit of work, to be run when the unit is committed.
+   *
+   * @param customer Customer for which appointments will be deleted.
+   * @param work Unit of work the delete joins.
+   * @return Position of the delete in the update counts returned by commit.
+   */
+  public int deleteAppointmentByCustomer(Customer customer, UnitOfWork work);
+
   /**
    * updateAppointment will be used to update appointment record in database
    * matching appointment id of supplied object.
@@ -93,4 +172,54 @@ public interface AppointmentDAO {
    */
   public int updateAppointment(Appointment appointment, User user);
 
+  /**
+   * bookAppointment checks the appointment's contact for overlapping
+   * appointments and, if there are none, adds the appointment or, when it
+   * already has an id, updates it. The check and the save run in one
+   * transaction holding a lock on the contact, so two users cannot book the
+   * same contact for overlapping times at once.
+   *
+   * @param appointment Appointment to be added, or updated if its id is set.
+   * @param user User submitting the appointment.
+   * @return BookingResult holding the appointment id, or the overlapping
+   *         appointments if nothing was saved; null if the booking failed.
+   */
+  public BookingResult bookAppointment(Appointment appointment, User user);
+
+  /**
+   * addAppointments inserts many new appointment records in one transaction,
+   * sent to the database in batches. Either all are added or, on failure,
+   * none are.
+   *
+   * @param appointments Appointments to be added to database.
+   * @param user User submitting the appointments to be added.
+   * @return Primary key of each added appointment in list order, or an empty
+   *         array if the insert failed.
+   */
+  public int[] addAppointments(List<Appointment> appointments, User user);
+
+  /**
+   * updateAppointments updates many appointment records matching the
+   * appointment ids of the supplied objects in one transaction, sent to the
+   * database in batches. Fails and updates none if any id matches no record.
+   *
+   * @param appointments Appointments to be updated in database.
+   * @param user User submitting the appointments to be updated.
+   * @return Integer value representing number of affected rows.
+   */
+  public int updateAppointments(List<Appointment> appointments, User user);
+
+  /**
+   * Resources an appointment is booked for, any of which can be checked for
+   * overlapping bookings.
+   */
+  public enum Resource {
+    /** Contact running the appointment. */
+    CONTACT,
+    /** Customer the appointment is with. */
+    CUSTOMER,
+    /** User the appointment was booked for. */
+    USER
+  }
+
 }
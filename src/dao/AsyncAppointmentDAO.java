@@ -0,0 +1,115 @@
+package dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Appointment;
+import model.ChangeSet;
+import model.Customer;
+import model.User;
+
+/**
+ * AsyncAppointmentDAO interface specifies asynchronous counterparts of the AppointmentDAO
+ * methods. Results are delivered on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public interface AsyncAppointmentDAO {
+
+  /**
+   * getById queries appointment data for matching appointment id.
+   *
+   * @param appointmentId Appointment ID number to use in query.
+   * @return CompletableFuture holding Appointment object representing matching record.
+   */
+  public CompletableFuture<Appointment> getById(int appointmentId);
+
+  /**
+   * @return CompletableFuture holding ObservableList containing all appointment records.
+   */
+  public CompletableFuture<ObservableList<Appointment>> getAll();
+
+  /**
+   * getPage fetches one page of appointments ordered by start time then id,
+   * beginning after the supplied key.
+   *
+   * @param afterStart Start time of the last appointment on the previous page,
+   *                   or null for the first page.
+   * @param afterId Id of the last appointment on the previous page.
+   * @param limit Maximum number of appointments to return.
+   * @return CompletableFuture holding up to limit appointments after the key,
+   *         or null if the query failed.
+   */
+  public CompletableFuture<ObservableList<Appointment>> getPage(LocalDateTime afterStart,
+      int afterId, int limit);
+
+  /**
+   * getStartingBetween queries appointments starting within a window, from
+   * the lower bound inclusive to the upper bound exclusive, in start order.
+   *
+   * @param from LocalDateTime of the start of the window.
+   * @param to LocalDateTime of the end of the window.
+   * @return CompletableFuture holding appointments starting within the window.
+   */
+  public CompletableFuture<ObservableList<Appointment>> getStartingBetween(LocalDateTime from,
+      LocalDateTime to);
+
+  /**
+   * getChangedSince queries appointments changed and deleted since a watermark.
+   *
+   * @param since Watermark returned with the previous changes.
+   * @return CompletableFuture holding the ChangeSet, or null if the query failed.
+   */
+  public CompletableFuture<ChangeSet<Appointment>> getChangedSince(Timestamp since);
+
+  /**
+   * getByContactID looks up appointment records matching supplied contact id.
+   *
+   * @param contactID Integer representing the contact id number.
+   * @return CompletableFuture holding ObservableList of appointments matching supplied contact id.
+   */
+  public CompletableFuture<ObservableList<Appointment>> getByContactID(int contactID);
+
+  /**
+   * getByCustomerId looks up appointment records matching supplied customer id.
+   *
+   * @param customerId Integer representing customer id to match.
+   * @return CompletableFuture holding ObservableList of appointments matching supplied customer id.
+   */
+  public CompletableFuture<ObservableList<Appointment>> getByCustomerId(int customerId);
+
+  /**
+   * addAppointment will insert new appointment records into database.
+   *
+   * @param appointment Appointment object to be added to database.
+   * @param user User submitting the appointment to be added.
+   * @return CompletableFuture holding Integer value representing primary key of added appointment.
+   */
+  public CompletableFuture<Integer> addAppointment(Appointment appointment, User user);
+
+  /**
+   * deleteAppointment will delete matching appointment from database.
+   *
+   * @param appointment Appointment to be deleted from database.
+   * @return CompletableFuture holding Integer value representing number of affected rows.
+   */
+  public CompletableFuture<Integer> deleteAppointment(Appointment appointment);
+
+  /**
+   * deleteAppointmentByCustomer will delete all appointments for the customer.
+   *
+   * @param customer Customer for which appointments will be deleted.
+   * @return CompletableFuture holding Integer value representing number of affected rows.
+   */
+  public CompletableFuture<Integer> deleteAppointmentByCustomer(Customer customer);
+
+  /**
+   * updateAppointment will update the matching appointment record.
+   *
+   * @param appointment Appointment object to be updated in database.
+   * @param user User submitting the appointment to be updated.
+   * @return CompletableFuture holding Integer value representing number of affected rows.
+   */
+  public CompletableFuture<Integer> updateAppointment(Appointment appointment, User user);
+}
@@ -0,0 +1,19 @@
+package dao;
+
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Contact;
+
+/**
+ * AsyncContactDAO interface specifies asynchronous counterparts of the ContactDAO
+ * methods. Results are delivered on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public interface AsyncContactDAO {
+
+  /**
+   * @return CompletableFuture holding Observable list of all contacts in the database.
+   */
+  public CompletableFuture<ObservableList<Contact>> getAll();
+}
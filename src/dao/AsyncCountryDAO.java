@@ -0,0 +1,27 @@
+package dao;
+
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Country;
+
+/**
+ * AsyncCountryDAO interface specifies asynchronous counterparts of the CountryDAO
+ * methods. Results are delivered on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public interface AsyncCountryDAO {
+
+  /**
+   * getById returns a list of countries matching the given country id.
+   *
+   * @param countryId Integer value representing countryID.
+   * @return CompletableFuture holding ObservableList of countries matching the given id.
+   */
+  public CompletableFuture<ObservableList<Country>> getById(int countryId);
+
+  /**
+   * @return CompletableFuture holding Observable list of all countries in the database.
+   */
+  public CompletableFuture<ObservableList<Country>> getAll();
+}
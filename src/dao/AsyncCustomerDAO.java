@@ -0,0 +1,64 @@
+package dao;
+
+import java.sql.Timestamp;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.ChangeSet;
+import model.Customer;
+import model.User;
+
+/**
+ * AsyncCustomerDAO interface specifies asynchronous counterparts of the CustomerDAO
+ * methods. Results are delivered on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public interface AsyncCustomerDAO {
+
+  /**
+   * getById queries customer data matching customer id number.
+   *
+   * @param id Customer ID number to use in query.
+   * @return CompletableFuture holding Customer object representing matching record.
+   */
+  public CompletableFuture<Customer> getById(int id);
+
+  /**
+   * @return CompletableFuture holding ObservableList of Customer objects.
+   */
+  public CompletableFuture<ObservableList<Customer>> getAll();
+
+  /**
+   * getChangedSince queries customers changed and deleted since a watermark.
+   *
+   * @param since Watermark returned with the previous changes.
+   * @return CompletableFuture holding the ChangeSet, or null if the query failed.
+   */
+  public CompletableFuture<ChangeSet<Customer>> getChangedSince(Timestamp since);
+
+  /**
+   * addCustomer will insert new customer records into database.
+   *
+   * @param customer Customer object to be added to database.
+   * @param user User submitting the customer to be added.
+   * @return CompletableFuture holding Integer value representing primary key of added customer.
+   */
+  public CompletableFuture<Integer> addCustomer(Customer customer, User user);
+
+  /**
+   * deleteCustomer will delete the matching customer record from database.
+   *
+   * @param customer Customer object to be removed from database.
+   * @return CompletableFuture holding Integer value representing number of affected rows.
+   */
+  public CompletableFuture<Integer> deleteCustomer(Customer customer);
+
+  /**
+   * updateCustomer will update the matching customer record in database.
+   *
+   * @param customer Customer object to be updated in database.
+   * @param user User submitting the customer to be updated.
+   * @return CompletableFuture holding Integer value representing number of affected rows.
+   */
+  public CompletableFuture<Integer> updateCustomer(Customer customer, User user);
+}
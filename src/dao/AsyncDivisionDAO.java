@@ -0,0 +1,27 @@
+package dao;
+
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Division;
+
+/**
+ * AsyncDivisionDAO interface specifies asynchronous counterparts of the DivisionDAO
+ * methods. Results are delivered on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public interface AsyncDivisionDAO {
+
+  /**
+   * @return CompletableFuture holding Observable list of all divisions in the database.
+   */
+  public CompletableFuture<ObservableList<Division>> getAll();
+
+  /**
+   * getByCountry queries divisions assigned to country id.
+   *
+   * @param countryID Integer value of country id number.
+   * @return CompletableFuture holding ObservableList of division data assigned to country id.
+   */
+  public CompletableFuture<ObservableList<Division>> getByCountry(int countryID);
+}
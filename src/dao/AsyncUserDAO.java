@@ -0,0 +1,27 @@
+package dao;
+
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.User;
+
+/**
+ * AsyncUserDAO interface specifies asynchronous counterparts of the UserDAO
+ * methods. Results are delivered on the JavaFX application thread.
+ *
+ * @author Sakae Watanabe
+ */
+public interface AsyncUserDAO {
+
+  /**
+   * getUserByName looks up the user matching supplied user name.
+   *
+   * @param userName User name to use in query.
+   * @return CompletableFuture holding User object representing matching record.
+   */
+  public CompletableFuture<User> getUserByName(String userName);
+
+  /**
+   * @return CompletableFuture holding ObservableList of all users in database.
+   */
+  public CompletableFuture<ObservableList<User>> getAll();
+}
@@ -1,8 +1,12 @@
 package dao;
 
+import java.sql.Timestamp;
+import java.util.List;
 import javafx.collections.ObservableList;
+import model.ChangeSet;
 import model.Customer;
 import model.User;
+import utils.UnitOfWork;
 
 /**
  * CustomerDAO interface specifies methods to be implemented for customer data
@@ -25,6 +29,18 @@ public interface CustomerDAO {
    */
   public ObservableList<Customer> getAll();
 
+  /**
+   * getChangedSince queries customers added or updated since a watermark, and
+   * the ids of customers deleted since then, from the primary database.
+   *
+   * @param since Watermark returned with the previous changes, or by
+   *              ChangeLog.watermark before the first load.
+   * @return ChangeSet of the customers changed and deleted, or null if the
+   *         query failed. The set is expired if the watermark is older than
+   *         the deletions kept, in which case every customers must be reloaded.
+   */
+  public ChangeSet<Customer> getChangedSince(Timestamp since);
+
   /**
    * addCustomer will be insert new customer records into database.
    *
@@ -43,6 +59,16 @@ public interface CustomerDAO {
    */
   public int deleteCustomer(Customer customer);
 
+  /**
+   * Queues deletion of the customer record matching the customer id of the
+   * supplied object on a unit of work, to be run when the unit is committed.
+   *
+   * @param customer Customer object to be removed from database.
+   * @param work Unit of work the delete joins.
+   * @return Position of the delete in the update counts returned by commit.
+   */
+  public int deleteCustomer(Customer customer, UnitOfWork work);
+
   /**
    * updateCustomer will be used to update customer record in database matching
    * customer id of supplied object.
@@ -52,4 +78,26 @@ public interface CustomerDAO {
    * @return Integer value representing number of affected rows.
    */
   public int updateCustomer(Customer customer, User user);
+
+  /**
+   * addCustomers inserts many new customer records in one transaction, sent to
+   * the database in batches. Either all are added or, on failure, none are.
+   *
+   * @param customers Customers to be added to database.
+   * @param user      User submitting the customers to be added.
+   * @return Primary key of each added customer in list order, or an empty
+   *         array if the insert failed.
+   */
+  public int[] addCustomers(List<Customer> customers, User user);
+
+  /**
+   * updateCustomers updates many customer records matching the customer ids
+   * of the supplied objects in one transaction, sent to the database in
+   * batches. Fails and updates none if any id matches no record.
+   *
+   * @param customers Customers to be updated in database.
+   * @param user      User submitting the customers to be updated.
+   * @return Integer value representing number of affected rows.
+   */
+  public int updateCustomers(List<Customer> customers, User user);
 }
@@ -1,34 +1,20 @@
 package dao;
 
-import java.sql.Connection;
-import utils.DBConnector;
-
 /**
- * Super class for reporting DAO implementations with a basic constructor to
- * initialize database connection. All reports must override local implementations
- * of the constructReport method.
+ * Super class for reporting DAO implementations. Reports borrow a pooled
+ * connection from DBConnector only while building their data, and read from a
+ * replica through DBConnector.readReplica when one is configured. All reports
+ * must override local implementations of the constructReport method.
  *
  * @author Sakae Watanabe
  */
 public abstract class ReportDAO {
 
-  /**
-   * Connection to the application database.
-   */
-  protected Connection conn;
-
   /**
    * Final string representing the output of the report.
    */
   protected String report;
 
-  /**
-   * Simple constructor for super class grabs connection to the database.
-   */
-  public ReportDAO() {
-    this.conn = DBConnector.getConnection();
-  }
-
   /**
    * ConstructReport assembles a report as a formatted string for output.
    */
@@ -7,13 +7,24 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Appointment;
+import model.BookingResult;
+import model.ChangeSet;
 import model.Customer;
 import model.User;
+import utils.BatchWriter;
+import utils.BusinessHours;
+import utils.ChangeLog;
+import utils.ConfigProps;
 import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
+import utils.UnitOfWork;
 
 /**
  * Implementations for the AppointmentDAO interface for use with MySQL connector.
@@ -27,17 +38,80 @@ public class AppointmentDAOImpl implements AppointmentDAO {
   //===========================================================================
 
   /**
-   * Connection instance for accessing application database.
+   * Maps rows selected by the appointment queries, which join the contact
+   * name, to Appointment objects.
    */
-  private final Connection conn;
+  private static final RowMapper<Appointment> APPOINTMENT_MAPPER = new RowMapper<>(
+      row -> new Appointment(row.getInt(0), row.getInt(1), row.getInt(2), row.getString(3),
+          row.getInt(4), row.getString(5), row.getString(6), row.getString(7),
+          row.getString(8), row.getLocalDateTime(9), row.getLocalDateTime(10)),
+      "Appointment_ID", "Customer_ID", "Contact_ID", "Contact_Name", "User_ID", "Title",
+      "Description", "Type", "Location", "Start", "End");
 
   /**
-   * Constructor for AppointmentDAOImpl obtains connection reference from the
-   * DBConnector class.
+   * Selects every appointment for streaming, completed with the ORDER BY columns.
    */
-  public AppointmentDAOImpl() {
-    this.conn = DBConnector.getConnection();
-  }
+  private static final String STREAM_ALL = "SELECT a.Appointment_ID, a.Customer_ID,"
+      + " a.Contact_ID, c.Contact_Name, a.User_ID, a.Title, a.Description, a.Type, a.Location,"
+      + " a.Start, a.End"
+      + " FROM appointments AS a"
+      + " INNER JOIN contacts AS c"
+      + " WHERE a.Contact_ID = c.Contact_ID"
+      + " ORDER BY ";
+
+  /**
+   * Inserts one appointment, bound by bindInsert.
+   */
+  private static final String INSERT = "INSERT INTO appointments (Title, Description, Location,"
+      + " Type, Start, End, Create_Date, Created_By, Last_Update,"
+      + " Last_Updated_By, Customer_ID, User_ID, Contact_ID)"
+      + " VALUES (?, ?, ?, ?, ?, ?, NOW(), ?, NOW(), ?, ?, ?, ?)";
+
+  /**
+   * Updates one appointment by id, bound by bindUpdate.
+   */
+  private static final String UPDATE = "UPDATE appointments"
+      + " SET Title = ?,"
+      + " Location = ?,"
+      + " Type = ?,"
+      + " Start = ?,"
+      + " End = ?,"
+      + " Last_Update = NOW(),"
+      + " Last_Updated_By = ?,"
+      + " Customer_ID = ?,"
+      + " User_ID = ?,"
+      + " Contact_ID = ?"
+      + " WHERE Appointment_ID = ?";
+
+  /**
+   * Locks a contact's row until the end of the transaction, so bookings for
+   * the contact are checked and saved one at a time.
+   */
+  private static final String LOCK_CONTACT =
+      "SELECT Contact_ID FROM contacts WHERE Contact_ID = ? FOR UPDATE";
+
+  /**
+   * Deletes an appointment by id.
+   */
+  private static final String DELETE_BY_ID = "DELETE FROM appointments WHERE Appointment_ID = ?";
+
+  /**
+   * Records the deletion of an appointment, run before DELETE_BY_ID.
+   */
+  private static final String RECORD_DELETE_BY_ID =
+      ChangeLog.recordDeletions("appointments", "Appointment_ID", "Appointment_ID = ?");
+
+  /**
+   * Deletes every appointment for a customer, run directly or in a unit of work.
+   */
+  private static final String DELETE_BY_CUSTOMER = "DELETE FROM appointments WHERE Customer_ID = ?";
+
+  /**
+   * Records the deletion of every appointment for a customer, run before
+   * DELETE_BY_CUSTOMER.
+   */
+  private static final String RECORD_DELETE_BY_CUSTOMER =
+      ChangeLog.recordDeletions("appointments", "Appointment_ID", "Customer_ID = ?");
 
   //===========================================================================
   // Methods
@@ -45,89 +119,203 @@ public class AppointmentDAOImpl implements AppointmentDAO {
 
   @Override
   public Appointment getById(int appointmentId) {
-    Appointment appointment = null;
     String queryById = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
         + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
         + " FROM appointments AS a"
         + " INNER JOIN contacts AS c"
         + " WHERE a.Contact_ID = c.Contact_ID AND a.Appointment_ID = ?";
 
-    try (PreparedStatement ps = conn.prepareStatement(queryById)) {
-      ps.setInt(1, appointmentId);
-      try (ResultSet rs = ps.executeQuery()) {
-        if (rs.next()) {
-          appointment = parseAppointment(rs);
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryById)) {
+          ps.setInt(1, appointmentId);
+          try (ResultSet rs = ps.executeQuery()) {
+            return APPOINTMENT_MAPPER.mapNext(rs);
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment", e);
     }
 
-    return appointment;
+    return null;
   }
 
 
   @Override
   public ObservableList<Appointment> getAll() {
-    ObservableList<Appointment> appointments = FXCollections.observableArrayList();
     String queryAll = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
         + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End "
         + " FROM appointments AS a \n"
         + " INNER JOIN contacts AS c"
         + " WHERE a.Contact_ID = c.Contact_ID ";
 
-    try (PreparedStatement ps = conn.prepareStatement(queryAll);
-        ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        appointments.add(parseAppointment(rs));
-      }
+    try {
+      return DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryAll);
+            ResultSet rs = ps.executeQuery()) {
+          return parseAppointments(rs);
+        }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment", e);
     }
 
-    return appointments;
+    return FXCollections.observableArrayList();
   }
 
 
+  /**
+   * Read from the primary, as the main view follows this list with changes
+   * read from a primary watermark, and rows a lagging replica had not yet
+   * received would never be picked up.
+   */
   @Override
-  public ObservableList<Appointment> getBetween(LocalDateTime starts, LocalDateTime ends,
-      int ignore) {
-    ObservableList<Appointment> appointments = FXCollections.observableArrayList();
-    String queryBetween = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
+  public ObservableList<Appointment> getPage(LocalDateTime afterStart, int afterId, int limit) {
+    String queryPage = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
         + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
         + " FROM appointments AS a"
         + " INNER JOIN contacts AS c"
-        + " WHERE a.Contact_ID = c.Contact_ID AND"
-        + " (End BETWEEN ? AND ? "
-        + " OR Start BETWEEN ? AND ?) AND"
-        + " a.Appointment_ID != ?";
-
-    Timestamp startsTime = Timestamp.valueOf(starts);
-    Timestamp endsTime = Timestamp.valueOf(ends);
-
-    try (PreparedStatement ps = conn.prepareStatement(queryBetween)) {
-      ps.setTimestamp(1, startsTime);
-      ps.setTimestamp(2, endsTime);
-      ps.setTimestamp(3, startsTime);
-      ps.setTimestamp(4, endsTime);
-      ps.setInt(5, ignore);
+        + " WHERE a.Contact_ID = c.Contact_ID"
+        + (afterStart == null ? ""
+            : " AND (a.Start > ? OR (a.Start = ? AND a.Appointment_ID > ?))")
+        + " ORDER BY a.Start, a.Appointment_ID"
+        + " LIMIT ?";
+
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryPage)) {
+          int index = 1;
+          if (afterStart != null) {
+            Timestamp after = Timestamp.valueOf(afterStart);
+            ps.setTimestamp(index++, after);
+            ps.setTimestamp(index++, after);
+            ps.setInt(index++, afterId);
+          }
+          ps.setInt(index, limit);
+
+          try (ResultSet rs = ps.executeQuery()) {
+            return parseAppointments(rs);
+          }
+        }
+      });
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Appointment-Page", e);
+    }
 
-      try (ResultSet rs = ps.executeQuery()) {
-        while (rs.next()) {
-          appointments.add(parseAppointment(rs));
+    return null;
+  }
+
+
+  /**
+   * Read from the primary, as the main view follows this list with changes
+   * read from a primary watermark, and rows a lagging replica had not yet
+   * received would never be picked up.
+   */
+  @Override
+  public ObservableList<Appointment> getStartingBetween(LocalDateTime from, LocalDateTime to) {
+    String queryWindow = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
+        + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
+        + " FROM appointments AS a"
+        + " INNER JOIN contacts AS c"
+        + " WHERE a.Contact_ID = c.Contact_ID AND a.Start >= ? AND a.Start < ?"
+        + " ORDER BY a.Start, a.Appointment_ID";
+
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryWindow)) {
+          ps.setTimestamp(1, Timestamp.valueOf(from));
+          ps.setTimestamp(2, Timestamp.valueOf(to));
+
+          try (ResultSet rs = ps.executeQuery()) {
+            return parseAppointments(rs);
+          }
         }
-      }
+      });
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Appointment-Window", e);
+    }
+
+    return FXCollections.observableArrayList();
+  }
+
+
+  /**
+   * Overlap is tested as Start before ends and End after starts, which also
+   * finds appointments enclosing the interval. Start is also bounded below by
+   * the longest appointment business hours allow, so the (resource, Start,
+   * End) index is range scanned over a few hours of the resource's bookings
+   * and End is checked in the index before any row is read.
+   */
+  @Override
+  public ObservableList<Appointment> getOverlapping(Resource resource, int resourceId,
+      LocalDateTime starts, LocalDateTime ends, int ignore) {
+    try {
+      return DBConnector.read(conn -> queryOverlapping(conn, resource, resourceId, starts, ends,
+          ignore));
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment-Interval", e);
     }
 
-    return appointments;
+    return FXCollections.observableArrayList();
+  }
+
+  /**
+   * Runs the overlap query for getOverlapping on a connection already in use.
+   *
+   * @param conn Connection to query with.
+   * @param resource Kind of resource the appointments are booked for.
+   * @param resourceId Id of the contact, customer or user.
+   * @param starts LocalDateTime of the start of the interval.
+   * @param ends LocalDateTime of the end of the interval.
+   * @param ignore Id of appointment to be ignored from the search.
+   * @return ObservableList of appointments of the resource overlapping the interval.
+   * @throws SQLException if the query fails.
+   */
+  private ObservableList<Appointment> queryOverlapping(Connection conn, Resource resource,
+      int resourceId, LocalDateTime starts, LocalDateTime ends, int ignore) throws SQLException {
+    String queryOverlapping = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID,"
+        + " c.Contact_Name, a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
+        + " FROM appointments AS a"
+        + " INNER JOIN contacts AS c"
+        + " WHERE a.Contact_ID = c.Contact_ID AND a." + resourceColumn(resource) + " = ?"
+        + " AND a.Start > ? AND a.Start < ? AND a.End > ?"
+        + " AND a.Appointment_ID <> ?"
+        + " ORDER BY a.Start, a.Appointment_ID";
+
+    LocalDateTime earliestStart = starts.minus(BusinessHours.getMaxAppointmentLength());
+
+    try (PreparedStatement ps = conn.prepareStatement(queryOverlapping)) {
+      ps.setInt(1, resourceId);
+      ps.setTimestamp(2, Timestamp.valueOf(earliestStart));
+      ps.setTimestamp(3, Timestamp.valueOf(ends));
+      ps.setTimestamp(4, Timestamp.valueOf(starts));
+      ps.setInt(5, ignore);
+
+      try (ResultSet rs = ps.executeQuery()) {
+        return parseAppointments(rs);
+      }
+    }
+  }
+
+  /**
+   * @param resource Kind of resource appointments are booked for.
+   * @return Appointments column holding the id of the resource.
+   */
+  private static String resourceColumn(Resource resource) {
+    switch (resource) {
+      case CONTACT:
+        return "Contact_ID";
+      case CUSTOMER:
+        return "Customer_ID";
+      default:
+        return "User_ID";
+    }
   }
 
 
   @Override
   public ObservableList<Appointment> getByCustomerId(int customerId) {
-    ObservableList<Appointment> appointments = FXCollections.observableArrayList();
     String queryByCustomerId =
         "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
             + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
@@ -135,25 +323,26 @@ public class AppointmentDAOImpl implements AppointmentDAO {
             + " INNER JOIN contacts AS c"
             + " WHERE a.Contact_ID = c.Contact_ID AND a.Customer_ID = ?";
 
-    try (PreparedStatement ps = conn.prepareStatement(queryByCustomerId)) {
-      ps.setInt(1, customerId);
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryByCustomerId)) {
+          ps.setInt(1, customerId);
 
-      try (ResultSet rs = ps.executeQuery()) {
-        while (rs.next()) {
-          appointments.add(parseAppointment(rs));
+          try (ResultSet rs = ps.executeQuery()) {
+            return parseAppointments(rs);
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment", e);
     }
 
-    return appointments;
+    return FXCollections.observableArrayList();
   }
 
 
   @Override
   public ObservableList<Appointment> getByContactID(int contactID) {
-    ObservableList<Appointment> appointments = FXCollections.observableArrayList();
     String byContactID = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
         + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
         + " FROM appointments AS a"
@@ -162,165 +351,330 @@ public class AppointmentDAOImpl implements AppointmentDAO {
         + " c.Contact_ID = ?"
         + " ORDER BY Start";
 
-    try (PreparedStatement ps = conn.prepareStatement(byContactID)) {
-      ps.setInt(1, contactID);
+    try {
+      return DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(byContactID)) {
+          ps.setInt(1, contactID);
 
-      try (ResultSet rs = ps.executeQuery()) {
-        while (rs.next()) {
-          appointments.add(parseAppointment(rs));
+          try (ResultSet rs = ps.executeQuery()) {
+            return parseAppointments(rs);
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Contact-By ID", e);
     }
 
-    return appointments;
+    return FXCollections.observableArrayList();
+  }
+
+
+  /**
+   * Changes are read from the primary, as a replica may not have the latest
+   * changes yet and its clock would not match the primary's watermark.
+   */
+  @Override
+  public ChangeSet<Appointment> getChangedSince(Timestamp since) {
+    String queryChanged = "SELECT a.Appointment_ID, a.Customer_ID, a.Contact_ID, c.Contact_Name,"
+        + " a.User_ID, a.Title, a.Description, a.Type, a.Location, a.Start, a.End"
+        + " FROM appointments AS a"
+        + " INNER JOIN contacts AS c"
+        + " WHERE a.Contact_ID = c.Contact_ID AND a.Last_Update >= ?"
+        + " ORDER BY a.Start, a.Appointment_ID";
+
+    try {
+      return DBConnector.read(conn -> {
+        Timestamp watermark = ChangeLog.watermark(conn);
+        if (ChangeLog.isExpired(since, watermark)) {
+          return ChangeSet.<Appointment>expired(watermark);
+        }
+        ObservableList<Appointment> changed;
+        try (PreparedStatement ps = conn.prepareStatement(queryChanged)) {
+          ps.setTimestamp(1, since);
+
+          try (ResultSet rs = ps.executeQuery()) {
+            changed = parseAppointments(rs);
+          }
+        }
+        Set<Integer> deleted = ChangeLog.deletedSince(conn, "appointments", since);
+        return new ChangeSet<>(changed, deleted, watermark);
+      });
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Appointment-Changes", e);
+    }
+
+    return null;
+  }
+
+
+  @Override
+  public int forEachAppointment(Consumer<? super Appointment> action) {
+    return stream("a.Start, a.Appointment_ID", action, "Appointment-Stream");
+  }
+
+
+  @Override
+  public int forEachByContact(Consumer<? super Appointment> action) {
+    return stream("a.Contact_ID, a.Start, a.Appointment_ID", action, "Contact-Stream");
   }
 
 
   @Override
   public int addAppointment(Appointment appointment, User user) {
-    int newAppointmentID = 0;
-    int rowsAffected;
-
-    String newAppointment = "INSERT INTO appointments (Title, Description, Location, Type,"
-        + " Start, End, Create_Date, Created_By, Last_Update,"
-        + " Last_Updated_By, Customer_ID, User_ID, Contact_ID)"
-        + " VALUES (?, ?, ?, ?, ?, ?, NOW(), ?, NOW(), ?, ?, ?, ?)";
-
-    try (PreparedStatement ps = conn
-        .prepareStatement(newAppointment, PreparedStatement.RETURN_GENERATED_KEYS)) {
-      ps.setString(1, appointment.getTitle());
-      ps.setString(2, appointment.getDescription());
-      ps.setString(3, appointment.getLocation());
-      ps.setString(4, appointment.getType());
-      ps.setTimestamp(5, Timestamp.valueOf(appointment.getStartTime()));
-      ps.setTimestamp(6, Timestamp.valueOf(appointment.getEndTime()));
-      ps.setString(7, user.getName());
-      ps.setString(8, user.getName());
-      ps.setInt(9, appointment.getCustomerId());
-      ps.setInt(10, appointment.getUserId());
-      ps.setInt(11, appointment.getContactId());
-
-      rowsAffected = ps.executeUpdate();
-      if (rowsAffected == 0) {
-        throw new SQLException("Create appointment failed, no rows affected.");
-      }
-      try (ResultSet keys = ps.getGeneratedKeys()) {
-        if (keys.next()) {
-          newAppointmentID = keys.getInt(1);
-        } else {
-          throw new SQLException("Create appointment failed, no rows affected.");
+    try {
+      return DBConnector.write(conn -> {
+        try (PreparedStatement ps = DBConnector.dialect()
+            .prepareInsert(conn, INSERT, "Appointment_ID")) {
+          bindInsert(ps, appointment, user);
+
+          if (ps.executeUpdate() == 0) {
+            throw new SQLException("Create appointment failed, no rows affected.");
+          }
+          try (ResultSet keys = ps.getGeneratedKeys()) {
+            if (keys.next()) {
+              return keys.getInt(1);
+            } else {
+              throw new SQLException("Create appointment failed, no rows affected.");
+            }
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment-Add", e);
     }
 
-    return newAppointmentID;
+    return 0;
   }
 
 
   @Override
   public int updateAppointment(Appointment appointment, User user) {
-    int rowsAffected = 0;
-    String updateAppointment = "UPDATE appointments"
-        + " SET Title = ?,"
-        + " Location = ?,"
-        + " Type = ?,"
-        + " Start = ?,"
-        + " End = ?,"
-        + " Last_Update = NOW(),"
-        + " Last_Updated_By = ?,"
-        + " Customer_ID = ?,"
-        + " User_ID = ?,"
-        + " Contact_ID = ?"
-        + " WHERE Appointment_ID = ?";
-
-    try (PreparedStatement ps = conn.prepareStatement(updateAppointment)) {
-      ps.setString(1, appointment.getTitle());
-      ps.setString(2, appointment.getLocation());
-      ps.setString(3, appointment.getType());
-      ps.setTimestamp(4, Timestamp.valueOf(appointment.getStartTime()));
-      ps.setTimestamp(5, Timestamp.valueOf(appointment.getEndTime()));
-      ps.setString(6, user.getName());
-      ps.setInt(7, appointment.getCustomerId());
-      ps.setInt(8, appointment.getUserId());
-      ps.setInt(9, appointment.getContactId());
-      ps.setInt(10, appointment.getId());
-
-      rowsAffected = ps.executeUpdate();
-
-      if (rowsAffected == 0) {
-        throw new SQLException("Update appointment failed, no rows affected.");
-      }
+    try {
+      return DBConnector.write(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE)) {
+          bindUpdate(ps, appointment, user);
+
+          int rowsAffected = ps.executeUpdate();
+
+          if (rowsAffected == 0) {
+            throw new SQLException("Update appointment failed, no rows affected.");
+          }
+          return rowsAffected;
+        }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment-Update", e);
     }
 
-    return rowsAffected;
+    return 0;
+  }
+
+
+  /**
+   * The contact's row is locked before the overlap query, which is the
+   * transaction's first plain read, so the query sees every booking
+   * committed by whoever held the lock before.
+   */
+  @Override
+  public BookingResult bookAppointment(Appointment appointment, User user) {
+    try {
+      return DBConnector.transaction(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(LOCK_CONTACT)) {
+          ps.setInt(1, appointment.getContactId());
+          try (ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+              throw new SQLException("Book appointment failed, contact "
+                  + appointment.getContactId() + " not found.");
+            }
+          }
+        }
+
+        List<Appointment> conflicts = queryOverlapping(conn, Resource.CONTACT,
+            appointment.getContactId(), appointment.getStartTime(), appointment.getEndTime(),
+            appointment.getId());
+        if (!conflicts.isEmpty()) {
+          return BookingResult.conflicted(conflicts);
+        }
+
+        if (appointment.getId() > 0) {
+          try (PreparedStatement ps = conn.prepareStatement(UPDATE)) {
+            bindUpdate(ps, appointment, user);
+            if (ps.executeUpdate() == 0) {
+              throw new SQLException("Update appointment failed, no rows affected.");
+            }
+            return BookingResult.booked(appointment.getId());
+          }
+        }
+        try (PreparedStatement ps = DBConnector.dialect()
+            .prepareInsert(conn, INSERT, "Appointment_ID")) {
+          bindInsert(ps, appointment, user);
+          ps.executeUpdate();
+          try (ResultSet keys = ps.getGeneratedKeys()) {
+            if (!keys.next()) {
+              throw new SQLException("Create appointment failed, no rows affected.");
+            }
+            return BookingResult.booked(keys.getInt(1));
+          }
+        }
+      });
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Appointment-Book", e);
+    }
+
+    return null;
+  }
+
+  @Override
+  public int[] addAppointments(List<Appointment> appointments, User user) {
+    try {
+      return BatchWriter.insert(INSERT, "Appointment_ID", appointments,
+          (ps, appointment) -> bindInsert(ps, appointment, user));
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Appointment-Add All", e);
+    }
+
+    return new int[0];
+  }
+
+
+  @Override
+  public int updateAppointments(List<Appointment> appointments, User user) {
+    try {
+      return BatchWriter.update(UPDATE, appointments,
+          (ps, appointment) -> bindUpdate(ps, appointment, user));
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Appointment-Update All", e);
+    }
+
+    return 0;
   }
 
 
   @Override
   public int deleteAppointment(Appointment appointment) {
-    int rowsAffected = 0;
-    String deleteById = "DELETE FROM appointments WHERE Appointment_ID = ?";
+    UnitOfWork work = new UnitOfWork();
+    ChangeLog.queuePrune(work);
+    work.queue(RECORD_DELETE_BY_ID, ps -> ps.setInt(1, appointment.getId()));
+    int index = work.queue(DELETE_BY_ID, ps -> ps.setInt(1, appointment.getId()));
 
-    try (PreparedStatement ps = conn.prepareStatement(deleteById)) {
-      ps.setInt(1, appointment.getId());
-      rowsAffected = ps.executeUpdate();
+    try {
+      return work.commit()[index];
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment", e);
     }
 
-    return rowsAffected;
+    return 0;
   }
 
 
   @Override
   public int deleteAppointmentByCustomer(Customer customer) {
-    int rowsAffected = 0;
-    String deleteByCustomer = "DELETE FROM appointments WHERE Customer_ID = ?";
+    UnitOfWork work = new UnitOfWork();
+    int index = deleteAppointmentByCustomer(customer, work);
 
-    try (PreparedStatement ps = conn.prepareStatement(deleteByCustomer)) {
-      ps.setInt(1, customer.getId());
-      rowsAffected = ps.executeUpdate();
+    try {
+      return work.commit()[index];
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Appointment", e);
     }
 
-    return rowsAffected;
+    return 0;
+  }
+
+
+  @Override
+  public int deleteAppointmentByCustomer(Customer customer, UnitOfWork work) {
+    ChangeLog.queuePrune(work);
+    work.queue(RECORD_DELETE_BY_CUSTOMER, ps -> ps.setInt(1, customer.getId()));
+    return work.queue(DELETE_BY_CUSTOMER, ps -> ps.setInt(1, customer.getId()));
   }
 
 
   /**
-   * Helper method for parsing result set data into Appointment objects.
+   * Helper method for collecting every row of a result set into a list.
    *
-   * @param rs Result set form appointment DAO query.
-   * @return Appointment object with parsed information.
+   * @param rs Result set from appointment DAO query.
+   * @return ObservableList of parsed appointments.
    * @throws SQLException if error getting values from result set.
    */
+  private ObservableList<Appointment> parseAppointments(ResultSet rs) throws SQLException {
+    return APPOINTMENT_MAPPER.mapAll(rs, FXCollections.<Appointment>observableArrayList());
+  }
+
+  /**
+   * Sets the parameters of the insert statement for an appointment.
+   *
+   * @param ps Statement prepared from INSERT.
+   * @param appointment Appointment to be added.
+   * @param user User adding the appointment.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void bindInsert(PreparedStatement ps, Appointment appointment, User user)
+      throws SQLException {
+    ps.setString(1, appointment.getTitle());
+    ps.setString(2, appointment.getDescription());
+    ps.setString(3, appointment.getLocation());
+    ps.setString(4, appointment.getType());
+    ps.setTimestamp(5, Timestamp.valueOf(appointment.getStartTime()));
+    ps.setTimestamp(6, Timestamp.valueOf(appointment.getEndTime()));
+    ps.setString(7, user.getName());
+    ps.setString(8, user.getName());
+    ps.setInt(9, appointment.getCustomerId());
+    ps.setInt(10, appointment.getUserId());
+    ps.setInt(11, appointment.getContactId());
+  }
+
+  /**
+   * Sets the parameters of the update statement for an appointment.
+   *
+   * @param ps Statement prepared from UPDATE.
+   * @param appointment Appointment to be updated, matched by id.
+   * @param user User updating the appointment.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void bindUpdate(PreparedStatement ps, Appointment appointment, User user)
+      throws SQLException {
+    ps.setString(1, appointment.getTitle());
+    ps.setString(2, appointment.getLocation());
+    ps.setString(3, appointment.getType());
+    ps.setTimestamp(4, Timestamp.valueOf(appointment.getStartTime()));
+    ps.setTimestamp(5, Timestamp.valueOf(appointment.getEndTime()));
+    ps.setString(6, user.getName());
+    ps.setInt(7, appointment.getCustomerId());
+    ps.setInt(8, appointment.getUserId());
+    ps.setInt(9, appointment.getContactId());
+    ps.setInt(10, appointment.getId());
+  }
+
+  /**
+   * Streams every appointment in the given order to an action. The fetch size
+   * makes the driver read rows through a server side cursor a batch at a time
+   * rather than buffering the whole result, and DBConnector.stream never runs
+   * the query a second time once rows may have reached the action.
+   *
+   * @param orderBy Columns to order the appointments by.
+   * @param action Action run for each appointment as it is read.
+   * @param popupTitle Title of the error popup shown if the query fails.
+   * @return Number of appointments streamed, or 0 if the query failed.
+   */
+  private int stream(String orderBy, Consumer<? super Appointment> action, String popupTitle) {
+    int fetchSize = new ConfigProps().getStreamFetchSize();
+
+    try {
+      return DBConnector.stream(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(STREAM_ALL + orderBy)) {
+          ps.setFetchSize(fetchSize);
+
+          try (ResultSet rs = ps.executeQuery()) {
+            return APPOINTMENT_MAPPER.forEach(rs, action);
+          }
+        }
+      });
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup(popupTitle, e);
+    }
 
-  private Appointment parseAppointment(ResultSet rs) throws SQLException {
-    Appointment appointment;
-
-    int id = rs.getInt("a.Appointment_ID");
-    int customerId = rs.getInt("a.Customer_ID");
-    int contactId = rs.getInt("a.Contact_ID");
-    String contactName = rs.getString("c.Contact_Name");
-    int userId = rs.getInt("a.User_ID");
-    String title = rs.getString("a.Title");
-    String description = rs.getString("a.Description");
-    String type = rs.getString("a.Type");
-    String location = rs.getString("a.Location");
-    LocalDateTime startTime = rs.getTimestamp("a.Start").toLocalDateTime();
-    LocalDateTime endTime = rs.getTimestamp("a.End").toLocalDateTime();
-
-    appointment = new Appointment(id, customerId, contactId, contactName, userId, title,
-        description, type, location, startTime, endTime);
-
-    return appointment;
+    return 0;
   }
 
 }
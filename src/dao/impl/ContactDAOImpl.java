@@ -1,7 +1,6 @@
 package dao.impl;
 
 import dao.ContactDAO;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -10,6 +9,7 @@ import javafx.collections.ObservableList;
 import model.Contact;
 import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
 
 /**
  * Implementation for the ContactDAO interface.
@@ -23,22 +23,16 @@ public class ContactDAOImpl implements ContactDAO {
   //===========================================================================
 
   /**
-   * Connection instance for accessing application database.
+   * Maps contacts rows to Contact objects.
    */
-  private final Connection conn;
+  private static final RowMapper<Contact> CONTACT_MAPPER = new RowMapper<>(
+      row -> new Contact(row.getInt(0), row.getString(1), row.getString(2)),
+      "Contact_ID", "Contact_Name", "Email");
 
   /**
    * Query select statement for lookup of all contact data.
    */
-  private final String allContacts = "SELECT * FROM contacts";
-
-  /**
-   * Constructor for ContactDAOImpl obtains connection reference from the
-   * DBConnector class.
-   */
-  public ContactDAOImpl() {
-    this.conn = DBConnector.getConnection();
-  }
+  private final String allContacts = "SELECT " + CONTACT_MAPPER.columnList() + " FROM contacts";
 
   //===========================================================================
   // Methods
@@ -47,38 +41,18 @@ public class ContactDAOImpl implements ContactDAO {
 
   @Override
   public ObservableList<Contact> getAll() {
-    ObservableList<Contact> contacts = FXCollections.observableArrayList();
-
-    try (PreparedStatement ps = conn.prepareStatement(allContacts);
-        ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        contacts.add(parseContact(rs));
-      }
-
+    try {
+      return DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(allContacts);
+            ResultSet rs = ps.executeQuery()) {
+          return CONTACT_MAPPER.mapAll(rs, FXCollections.<Contact>observableArrayList());
+        }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Contact", e);
     }
 
-    return contacts;
-  }
-
-
-  /**
-   * Helper method to assist with parsing result set data into Contact objects.
-   *
-   * @param rs Result set from contact DAO query.
-   * @return Contact object with parsed information.
-   * @throws SQLException if error parsing column from result set.
-   */
-  private Contact parseContact(ResultSet rs) throws SQLException {
-    Contact contact;
-
-    int contactId = rs.getInt("Contact_ID");
-    String name = rs.getString("Contact_Name");
-    String email = rs.getString("Email");
-    contact = new Contact(contactId, name, email);
-
-    return contact;
+    return FXCollections.observableArrayList();
   }
 
 }
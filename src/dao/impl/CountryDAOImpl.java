@@ -1,7 +1,6 @@
 package dao.impl;
 
 import dao.CountryDAO;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -10,6 +9,7 @@ import javafx.collections.ObservableList;
 import model.Country;
 import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
 
 /**
  * Implementation for the CountryDAO interface.
@@ -23,17 +23,10 @@ public class CountryDAOImpl implements CountryDAO {
   //===========================================================================
 
   /**
-   * Connection instance for accessing application database.
+   * Maps countries rows to Country objects.
    */
-  private final Connection conn;
-
-  /**
-   * Constructor for CountryDAOImpl obtains connection reference from the
-   * DBConnector class.
-   */
-  public CountryDAOImpl() {
-    this.conn = DBConnector.getConnection();
-  }
+  private static final RowMapper<Country> COUNTRY_MAPPER = new RowMapper<>(
+      row -> new Country(row.getInt(0), row.getString(1)), "Country_ID", "Country");
 
   //===========================================================================
   // Methods
@@ -41,54 +34,41 @@ public class CountryDAOImpl implements CountryDAO {
 
   @Override
   public ObservableList<Country> getAll() {
-    ObservableList<Country> countries = FXCollections.observableArrayList();
-    String allCountries = "SELECT * FROM countries";
+    String allCountries = "SELECT " + COUNTRY_MAPPER.columnList() + " FROM countries";
 
-    try (PreparedStatement ps = conn.prepareStatement(allCountries);
-          ResultSet rs = ps.executeQuery()) {
-        while(rs.next()) {
-          countries.add(parseCountry(rs));
+    try {
+      return DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(allCountries);
+            ResultSet rs = ps.executeQuery()) {
+          return COUNTRY_MAPPER.mapAll(rs, FXCollections.<Country>observableArrayList());
         }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Country", e);
     }
-    return countries;
+
+    return FXCollections.observableArrayList();
   }
 
   @Override
   public ObservableList<Country> getById(int countryId) {
-    ObservableList<Country> countries = FXCollections.observableArrayList();
-    String byId = "SELECT * FROM countries WHERE Country_ID = ?";
+    String byId = "SELECT " + COUNTRY_MAPPER.columnList()
+        + " FROM countries WHERE Country_ID = ?";
 
-    try (PreparedStatement ps = conn.prepareStatement(byId)) {
-      ps.setInt(1, countryId);
-      try (ResultSet rs = ps.executeQuery()) {
-        while (rs.next()) {
-          countries.add(parseCountry(rs));
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(byId)) {
+          ps.setInt(1, countryId);
+          try (ResultSet rs = ps.executeQuery()) {
+            return COUNTRY_MAPPER.mapAll(rs, FXCollections.<Country>observableArrayList());
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Country", e);
     }
 
-    return countries;
-  }
-
-  /**
-   * Helper method to assist with parsing result set data into Country objects.
-   *
-   * @param rs Result set from country DAO query.
-   * @return Country object with parsed information.
-   * @throws SQLException if error parsing column from result set.
-   */
-  private Country parseCountry(ResultSet rs) throws SQLException {
-    Country country;
-
-    int id = rs.getInt("Country_ID");
-    String name = rs.getString("Country");
-    country = new Country(id, name);
-
-    return country;
+    return FXCollections.observableArrayList();
   }
 
 }
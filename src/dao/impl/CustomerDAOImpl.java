@@ -1,16 +1,25 @@
 package dao.impl;
 
 import dao.CustomerDAO;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import model.ChangeSet;
 import model.Customer;
 import model.User;
+import utils.BatchWriter;
+import utils.ChangeLog;
+import utils.ConfigProps;
 import utils.DBConnector;
+import utils.IdentityMap;
 import utils.NotificationHandler;
+import utils.RowMapper;
+import utils.UnitOfWork;
 
 /**
  * Implementation of the CustomerDAO interface for accessing customer data.
@@ -24,17 +33,53 @@ public class CustomerDAOImpl implements CustomerDAO {
   //===========================================================================
 
   /**
-   * Connection instance for accessing application database.
+   * Deletes a customer by id, run directly or in a unit of work.
    */
-  private final Connection conn;
+  private static final String DELETE_BY_ID = "DELETE FROM customers WHERE Customer_ID = ?";
 
   /**
-   * Constructor for CustomerDAOImpl obtains connection reference from the
-   * DBConnector class.
+   * Records the deletion of a customer, run before DELETE_BY_ID.
    */
-  public CustomerDAOImpl() {
-    this.conn = DBConnector.getConnection();
-  }
+  private static final String RECORD_DELETE_BY_ID =
+      ChangeLog.recordDeletions("customers", "Customer_ID", "Customer_ID = ?");
+
+  /**
+   * Inserts one customer, bound by bindInsert.
+   */
+  private static final String INSERT =
+      "INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Create_Date,"
+          + " Created_By, Last_Update, Last_Updated_By, Division_ID)"
+          + " VALUES(?, ?, ?,?,NOW(),?,NOW(),?,?)";
+
+  /**
+   * Updates one customer by id, bound by bindUpdate.
+   */
+  private static final String UPDATE = "UPDATE customers "
+      + " SET Customer_Name = ?,"
+      + " Address = ?,"
+      + " Postal_Code = ?,"
+      + " Phone = ?,"
+      + " Division_ID = ?,"
+      + " Last_Update = NOW(),"
+      + " Last_Updated_By = ?"
+      + " WHERE Customer_ID = ?";
+
+  /**
+   * Canonical Customer instance of each customer read, shared by every view.
+   */
+  private static final IdentityMap<Customer> CUSTOMERS =
+      new IdentityMap<>(Customer::setAll, new ConfigProps().getIdentityMapSize());
+
+  /**
+   * Maps customers rows to their canonical Customer objects.
+   */
+  private static final RowMapper<Customer> CUSTOMER_MAPPER = new RowMapper<>(
+      row -> CUSTOMERS.canonical(row.getInt(0),
+          new Customer(row.getInt(0), row.getString(1), row.getString(2), row.getString(3),
+              row.getString(4), row.getInt(5)),
+          row.getLocalDateTime(6)),
+      "Customer_ID", "Customer_Name", "Address", "Postal_Code", "Phone", "Division_ID",
+      "Last_Update");
 
   //===========================================================================
   // Methods
@@ -42,151 +87,216 @@ public class CustomerDAOImpl implements CustomerDAO {
 
   @Override
   public Customer getById(int id) {
-    Customer customer = null;
-    String queryById = "SELECT Customer_ID, Customer_Name, Address, Postal_Code, Phone, Division_ID"
+    String queryById = "SELECT " + CUSTOMER_MAPPER.columnList()
         + " FROM customers WHERE Customer_ID = ?";
 
-    try (PreparedStatement ps = conn.prepareStatement(queryById)) {
-      ps.setInt(1, id);
-      try (ResultSet rs = ps.executeQuery()) {
-        if (rs.next()) {
-          customer = parseCustomer(rs);
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryById)) {
+          ps.setInt(1, id);
+          try (ResultSet rs = ps.executeQuery()) {
+            return CUSTOMER_MAPPER.mapNext(rs);
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       e.printStackTrace();
     }
 
-    return customer;
+    return null;
   }
 
 
+  /**
+   * Read from the primary, as the main view follows this list with changes
+   * read from a primary watermark, and rows a lagging replica had not yet
+   * received would never be picked up.
+   */
   @Override
   public ObservableList<Customer> getAll() {
-    ObservableList<Customer> customers = FXCollections.observableArrayList();
-
-    String queryAll = "SELECT Customer_ID, Customer_Name, Address, Postal_Code, Phone, Division_ID"
-        + " FROM customers";
+    String queryAll = "SELECT " + CUSTOMER_MAPPER.columnList() + " FROM customers";
 
-    try (PreparedStatement ps = conn.prepareStatement(queryAll);
-        ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        customers.add(parseCustomer(rs));
-      }
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(queryAll);
+            ResultSet rs = ps.executeQuery()) {
+          return CUSTOMER_MAPPER.mapAll(rs, FXCollections.<Customer>observableArrayList());
+        }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Customer", e);
     }
 
-    return customers;
+    return FXCollections.observableArrayList();
+  }
+
+
+  /**
+   * Changes are read from the primary, as a replica may not have the latest
+   * changes yet and its clock would not match the primary's watermark.
+   */
+  @Override
+  public ChangeSet<Customer> getChangedSince(Timestamp since) {
+    String queryChanged = "SELECT " + CUSTOMER_MAPPER.columnList() + " FROM customers"
+        + " WHERE Last_Update >= ?";
+
+    try {
+      return DBConnector.read(conn -> {
+        Timestamp watermark = ChangeLog.watermark(conn);
+        if (ChangeLog.isExpired(since, watermark)) {
+          return ChangeSet.<Customer>expired(watermark);
+        }
+        ObservableList<Customer> changed;
+        try (PreparedStatement ps = conn.prepareStatement(queryChanged)) {
+          ps.setTimestamp(1, since);
+
+          try (ResultSet rs = ps.executeQuery()) {
+            changed = CUSTOMER_MAPPER.mapAll(rs, FXCollections.<Customer>observableArrayList());
+          }
+        }
+        Set<Integer> deleted = ChangeLog.deletedSince(conn, "customers", since);
+        return new ChangeSet<>(changed, deleted, watermark);
+      });
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Customer-Changes", e);
+    }
+
+    return null;
   }
 
 
   @Override
   public int addCustomer(Customer customer, User user) {
-    int newCustomerId = 0;
-    int rowsAffected;
-    String newCustomer =
-        "INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Create_Date,"
-            + " Created_By, Last_Update, Last_Updated_By, Division_ID)"
-            + " VALUES(?, ?, ?,?,NOW(),?,NOW(),?,?)";
-
-    try (PreparedStatement ps = conn
-        .prepareStatement(newCustomer, PreparedStatement.RETURN_GENERATED_KEYS)) {
-      ps.setString(1, customer.getName());
-      ps.setString(2, customer.getAddress());
-      ps.setString(3, customer.getPostalCode());
-      ps.setString(4, customer.getPhoneNumber());
-      ps.setString(5, user.getName());
-      ps.setString(6, user.getName());
-      ps.setInt(7, customer.getDivisionId());
-      rowsAffected = ps.executeUpdate();
-      if (rowsAffected == 0) {
-        throw new SQLException("Create user failed, no rows affected.");
-      }
-      try (ResultSet keys = ps.getGeneratedKeys()) {
-        if (keys.next()) {
-          newCustomerId = keys.getInt(1);
-        } else {
-          throw new SQLException("Create user failed, no id key returned.");
+    try {
+      return DBConnector.write(conn -> {
+        try (PreparedStatement ps = DBConnector.dialect()
+            .prepareInsert(conn, INSERT, "Customer_ID")) {
+          bindInsert(ps, customer, user);
+          if (ps.executeUpdate() == 0) {
+            throw new SQLException("Create user failed, no rows affected.");
+          }
+          try (ResultSet keys = ps.getGeneratedKeys()) {
+            if (keys.next()) {
+              return keys.getInt(1);
+            } else {
+              throw new SQLException("Create user failed, no id key returned.");
+            }
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Customer-Add", e);
     }
 
-    return newCustomerId;
+    return 0;
   }
 
 
   @Override
   public int updateCustomer(Customer customer, User user) {
-    int rowsAffected = 0;
-    String updateCustomer = "UPDATE customers "
-        + " SET Customer_Name = ?,"
-        + " Address = ?,"
-        + " Postal_Code = ?,"
-        + " Phone = ?,"
-        + " Division_ID = ?,"
-        + " Last_Update = NOW(),"
-        + " Last_Updated_By = ?"
-        + "WHERE Customer_ID = ?";
-
-    try (PreparedStatement ps = conn.prepareStatement(updateCustomer)) {
-      ps.setString(1, customer.getName());
-      ps.setString(2, customer.getAddress());
-      ps.setString(3, customer.getPostalCode());
-      ps.setString(4, customer.getPhoneNumber());
-      ps.setInt(5, customer.getDivisionId());
-      ps.setString(6, user.getName());
-      ps.setInt(7, customer.getId());
-
-      rowsAffected = ps.executeUpdate();
-
-      if (rowsAffected == 0) {
-        throw new SQLException("Update user failed, no rows affected.");
-      }
+    try {
+      return DBConnector.write(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE)) {
+          bindUpdate(ps, customer, user);
+
+          int rowsAffected = ps.executeUpdate();
+
+          if (rowsAffected == 0) {
+            throw new SQLException("Update user failed, no rows affected.");
+          }
+          return rowsAffected;
+        }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Customer-Update", e);
     }
 
-    return rowsAffected;
+    return 0;
+  }
+
+  @Override
+  public int[] addCustomers(List<Customer> customers, User user) {
+    try {
+      return BatchWriter.insert(INSERT, "Customer_ID", customers,
+          (ps, customer) -> bindInsert(ps, customer, user));
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Customer-Add All", e);
+    }
+
+    return new int[0];
+  }
+
+
+  @Override
+  public int updateCustomers(List<Customer> customers, User user) {
+    try {
+      return BatchWriter.update(UPDATE, customers,
+          (ps, customer) -> bindUpdate(ps, customer, user));
+    } catch (SQLException e) {
+      NotificationHandler.sqlPopup("Customer-Update All", e);
+    }
+
+    return 0;
   }
 
 
   @Override
   public int deleteCustomer(Customer customer) {
-    int rowsAffected = 0;
-    String deleteById = "DELETE FROM customers WHERE Customer_ID = ?";
+    UnitOfWork work = new UnitOfWork();
+    int index = deleteCustomer(customer, work);
 
-    try (PreparedStatement ps = conn.prepareStatement(deleteById)) {
-      ps.setInt(1, customer.getId());
-      rowsAffected = ps.executeUpdate();
+    try {
+      return work.commit()[index];
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Customer-Delete", e);
     }
 
-    return rowsAffected;
+    return 0;
   }
 
 
+  @Override
+  public int deleteCustomer(Customer customer, UnitOfWork work) {
+    ChangeLog.queuePrune(work);
+    work.queue(RECORD_DELETE_BY_ID, ps -> ps.setInt(1, customer.getId()));
+    return work.queue(DELETE_BY_ID, ps -> ps.setInt(1, customer.getId()));
+  }
+
+  /**
+   * Sets the parameters of the insert statement for a customer.
+   *
+   * @param ps Statement prepared from INSERT.
+   * @param customer Customer to be added.
+   * @param user User adding the customer.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void bindInsert(PreparedStatement ps, Customer customer, User user)
+      throws SQLException {
+    ps.setString(1, customer.getName());
+    ps.setString(2, customer.getAddress());
+    ps.setString(3, customer.getPostalCode());
+    ps.setString(4, customer.getPhoneNumber());
+    ps.setString(5, user.getName());
+    ps.setString(6, user.getName());
+    ps.setInt(7, customer.getDivisionId());
+  }
+
   /**
-   * Helper method to assist with parsing result set data into Customer objects.
+   * Sets the parameters of the update statement for a customer.
    *
-   * @param rs Result set from customer DAO query.
-   * @return Customer object with parsed information.
-   * @throws SQLException if error parsing column from result set.
+   * @param ps Statement prepared from UPDATE.
+   * @param customer Customer to be updated, matched by id.
+   * @param user User updating the customer.
+   * @throws SQLException if a parameter cannot be set.
    */
-  private Customer parseCustomer(ResultSet rs) throws SQLException {
-    Customer customer;
-
-    int customerId = rs.getInt("Customer_ID");
-    String customerName = rs.getString("Customer_Name");
-    String address = rs.getString("Address");
-    String postalCode = rs.getString("Postal_Code");
-    String phoneNumber = rs.getString("Phone");
-    int divisionId = rs.getInt("Division_ID");
-    customer = new Customer(customerId, customerName, address, postalCode, phoneNumber, divisionId);
-
-    return customer;
+  private static void bindUpdate(PreparedStatement ps, Customer customer, User user)
+      throws SQLException {
+    ps.setString(1, customer.getName());
+    ps.setString(2, customer.getAddress());
+    ps.setString(3, customer.getPostalCode());
+    ps.setString(4, customer.getPhoneNumber());
+    ps.setInt(5, customer.getDivisionId());
+    ps.setString(6, user.getName());
+    ps.setInt(7, customer.getId());
   }
 }
@@ -1,7 +1,6 @@
 package dao.impl;
 
 import dao.DivisionDAO;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -10,6 +9,7 @@ import javafx.collections.ObservableList;
 import model.Division;
 import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
 
 /**
  * Implementation for the DivisionDAO interface.
@@ -23,17 +23,11 @@ public class DivisionDAOImpl implements DivisionDAO {
   //===========================================================================
 
   /**
-   * Connection instance for accessing application database.
+   * Maps first_level_divisions rows to Division objects.
    */
-  private final Connection conn;
-
-  /**
-   * Constructor for DivisionDAOImpl obtains connection reference from the
-   * DBConnector class.
-   */
-  public DivisionDAOImpl() {
-    this.conn = DBConnector.getConnection();
-  }
+  private static final RowMapper<Division> DIVISION_MAPPER = new RowMapper<>(
+      row -> new Division(row.getInt(0), row.getString(1), row.getInt(2)),
+      "Division_ID", "Division", "COUNTRY_ID");
 
   //===========================================================================
   // Methods
@@ -41,57 +35,41 @@ public class DivisionDAOImpl implements DivisionDAO {
 
   @Override
   public ObservableList<Division> getAll() {
-    ObservableList<Division> divisions = FXCollections.observableArrayList();
-    String allDivisions = "SELECT * FROM first_level_divisions";
-
-    try (PreparedStatement ps = conn.prepareStatement(allDivisions);
-        ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        divisions.add(parseDivision(rs));
-      }
+    String allDivisions = "SELECT " + DIVISION_MAPPER.columnList()
+        + " FROM first_level_divisions";
+
+    try {
+      return DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(allDivisions);
+            ResultSet rs = ps.executeQuery()) {
+          return DIVISION_MAPPER.mapAll(rs, FXCollections.<Division>observableArrayList());
+        }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Division", e);
     }
 
-    return divisions;
+    return FXCollections.observableArrayList();
   }
 
   @Override
   public ObservableList<Division> getByCountry(int countryID) {
-    ObservableList<Division> divisions = FXCollections.observableArrayList();
-    String byCountryId = "SELECT * FROM first_level_divisions WHERE COUNTRY_ID = ?";
-
-    try (PreparedStatement ps = conn.prepareStatement(byCountryId)) {
-      ps.setInt(1, countryID);
-      try (ResultSet rs = ps.executeQuery()) {
-        while (rs.next()) {
-          divisions.add(parseDivision(rs));
+    String byCountryId = "SELECT " + DIVISION_MAPPER.columnList()
+        + " FROM first_level_divisions WHERE COUNTRY_ID = ?";
+
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(byCountryId)) {
+          ps.setInt(1, countryID);
+          try (ResultSet rs = ps.executeQuery()) {
+            return DIVISION_MAPPER.mapAll(rs, FXCollections.<Division>observableArrayList());
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Division", e);
     }
 
-    return divisions;
-  }
-
-
-  /**
-   * Helper method to assist with parsing result set data into Division objects.
-   *
-   * @param rs Result set from division DAO query.
-   * @return Division object with parsed information.
-   * @throws SQLException if error parsing column from result set.
-   *
-   */
-  private Division parseDivision(ResultSet rs) throws SQLException {
-    Division division;
-
-    int id = rs.getInt("Division_ID");
-    String name = rs.getString("Division");
-    int countryID = rs.getInt("COUNTRY_ID");
-    division = new Division(id, name, countryID);
-
-    return division;
+    return FXCollections.observableArrayList();
   }
 }
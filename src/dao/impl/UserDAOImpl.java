@@ -1,7 +1,6 @@
 package dao.impl;
 
 import dao.UserDAO;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -10,6 +9,7 @@ import javafx.collections.ObservableList;
 import model.User;
 import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
 
 /**
  * Implementation of the UserDAO interface for accessing user data.
@@ -21,18 +21,13 @@ public class UserDAOImpl implements UserDAO {
   //===========================================================================
   // Data Members
   //===========================================================================
-  /**
-   * Connection instance for accessing application database.
-   */
-  private final Connection conn;
 
   /**
-   * Constructor for UserDAOImpl obtains connection reference from the
-   * DBConnector class.
+   * Maps users rows to User objects.
    */
-  public UserDAOImpl() {
-    this.conn = DBConnector.getConnection();
-  }
+  private static final RowMapper<User> USER_MAPPER = new RowMapper<>(
+      row -> new User(row.getInt(0), row.getString(1), row.getString(2)),
+      "User_ID", "User_Name", "Password");
 
   //===========================================================================
   // Methods
@@ -40,57 +35,41 @@ public class UserDAOImpl implements UserDAO {
   
   @Override
   public ObservableList<User> getAll() {
-    ObservableList<User> users = FXCollections.observableArrayList();
-    String allUsers = "SELECT * FROM users";
+    String allUsers = "SELECT " + USER_MAPPER.columnList() + " FROM users";
 
-    try (PreparedStatement ps = conn.prepareStatement(allUsers);
-        ResultSet rs = ps.executeQuery()) {
-      while(rs.next()){
-        users.add(parseUser(rs));
-      }
-    } catch(SQLException e) {
+    try {
+      return DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(allUsers);
+            ResultSet rs = ps.executeQuery()) {
+          return USER_MAPPER.mapAll(rs, FXCollections.<User>observableArrayList());
+        }
+      });
+    } catch (SQLException e) {
       NotificationHandler.sqlPopup("User", e);
     }
 
-    return users;
+    return FXCollections.observableArrayList();
   }
 
   @Override
   public User getUserByName(String userName) {
-    User user = null;
-    String byUserName = "SELECT User_ID, User_Name, Password " +
-        "FROM users WHERE " +
+    String byUserName = "SELECT " + USER_MAPPER.columnList() +
+        " FROM users WHERE " +
         "User_Name = ?";
 
-    try (PreparedStatement ps = conn.prepareStatement(byUserName)) {
-      ps.setString(1, userName);
-      try (ResultSet rs = ps.executeQuery()) {
-        if (rs.next()) {
-          user = parseUser(rs);
+    try {
+      return DBConnector.read(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(byUserName)) {
+          ps.setString(1, userName);
+          try (ResultSet rs = ps.executeQuery()) {
+            return USER_MAPPER.mapNext(rs);
+          }
         }
-      }
+      });
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("User", e);
     }
-    return user;
-  }
-
-  /**
-   * Helper method to assist with parsing result set data into User objects.
-   *
-   * @param rs Result set from user DAO query.
-   * @return User object with parsed information.
-   * @throws SQLException if error parsing column from result set.
-   */
-  private User parseUser(ResultSet rs) throws SQLException {
-    User user;
-
-    int id = rs.getInt("User_ID");
-    String name = rs.getString("User_Name");
-    String password = rs.getString("Password");
-    user = new User(id, name, password);
-
-    return user;
+    return null;
   }
 
 
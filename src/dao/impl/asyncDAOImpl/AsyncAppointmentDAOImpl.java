@@ -0,0 +1,109 @@
+package dao.impl.asyncDAOImpl;
+
+import dao.AppointmentDAO;
+import dao.AsyncAppointmentDAO;
+import dao.impl.AppointmentDAOImpl;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Appointment;
+import model.ChangeSet;
+import model.Customer;
+import model.User;
+import utils.DBExecutor;
+
+/**
+ * Implementation of the AsyncAppointmentDAO interface running AppointmentDAO calls on
+ * database worker threads through DBExecutor.
+ *
+ * @author Sakae Watanabe
+ */
+public class AsyncAppointmentDAOImpl implements AsyncAppointmentDAO {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * AppointmentDAO performing the blocking database calls.
+   */
+  private final AppointmentDAO appointmentDAO;
+
+  /**
+   * Creates the async facade over the default AppointmentDAOImpl.
+   */
+  public AsyncAppointmentDAOImpl() {
+    this(new AppointmentDAOImpl());
+  }
+
+  /**
+   * Creates the async facade over the supplied AppointmentDAO.
+   *
+   * @param appointmentDAO DAO performing the blocking database calls.
+   */
+  public AsyncAppointmentDAOImpl(AppointmentDAO appointmentDAO) {
+    this.appointmentDAO = appointmentDAO;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public CompletableFuture<Appointment> getById(int appointmentId) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getById(appointmentId));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Appointment>> getAll() {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getAll());
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Appointment>> getPage(LocalDateTime afterStart,
+      int afterId, int limit) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getPage(afterStart, afterId, limit));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Appointment>> getStartingBetween(LocalDateTime from,
+      LocalDateTime to) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getStartingBetween(from, to));
+  }
+
+  @Override
+  public CompletableFuture<ChangeSet<Appointment>> getChangedSince(Timestamp since) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getChangedSince(since));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Appointment>> getByContactID(int contactID) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getByContactID(contactID));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Appointment>> getByCustomerId(int customerId) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.getByCustomerId(customerId));
+  }
+
+  @Override
+  public CompletableFuture<Integer> addAppointment(Appointment appointment, User user) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.addAppointment(appointment, user));
+  }
+
+  @Override
+  public CompletableFuture<Integer> deleteAppointment(Appointment appointment) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.deleteAppointment(appointment));
+  }
+
+  @Override
+  public CompletableFuture<Integer> deleteAppointmentByCustomer(Customer customer) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.deleteAppointmentByCustomer(customer));
+  }
+
+  @Override
+  public CompletableFuture<Integer> updateAppointment(Appointment appointment, User user) {
+    return DBExecutor.supplyAsync(() -> appointmentDAO.updateAppointment(appointment, user));
+  }
+}
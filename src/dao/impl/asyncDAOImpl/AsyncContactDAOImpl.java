@@ -0,0 +1,52 @@
+package dao.impl.asyncDAOImpl;
+
+import dao.AsyncContactDAO;
+import dao.ContactDAO;
+import dao.impl.ContactDAOImpl;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Contact;
+import utils.DBExecutor;
+
+/**
+ * Implementation of the AsyncContactDAO interface running ContactDAO calls on
+ * database worker threads through DBExecutor.
+ *
+ * @author Sakae Watanabe
+ */
+public class AsyncContactDAOImpl implements AsyncContactDAO {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * ContactDAO performing the blocking database calls.
+   */
+  private final ContactDAO contactDAO;
+
+  /**
+   * Creates the async facade over the default ContactDAOImpl.
+   */
+  public AsyncContactDAOImpl() {
+    this(new ContactDAOImpl());
+  }
+
+  /**
+   * Creates the async facade over the supplied ContactDAO.
+   *
+   * @param contactDAO DAO performing the blocking database calls.
+   */
+  public AsyncContactDAOImpl(ContactDAO contactDAO) {
+    this.contactDAO = contactDAO;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public CompletableFuture<ObservableList<Contact>> getAll() {
+    return DBExecutor.supplyAsync(() -> contactDAO.getAll());
+  }
+}
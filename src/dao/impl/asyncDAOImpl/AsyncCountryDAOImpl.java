@@ -0,0 +1,57 @@
+package dao.impl.asyncDAOImpl;
+
+import dao.AsyncCountryDAO;
+import dao.CountryDAO;
+import dao.impl.CountryDAOImpl;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Country;
+import utils.DBExecutor;
+
+/**
+ * Implementation of the AsyncCountryDAO interface running CountryDAO calls on
+ * database worker threads through DBExecutor.
+ *
+ * @author Sakae Watanabe
+ */
+public class AsyncCountryDAOImpl implements AsyncCountryDAO {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * CountryDAO performing the blocking database calls.
+   */
+  private final CountryDAO countryDAO;
+
+  /**
+   * Creates the async facade over the default CountryDAOImpl.
+   */
+  public AsyncCountryDAOImpl() {
+    this(new CountryDAOImpl());
+  }
+
+  /**
+   * Creates the async facade over the supplied CountryDAO.
+   *
+   * @param countryDAO DAO performing the blocking database calls.
+   */
+  public AsyncCountryDAOImpl(CountryDAO countryDAO) {
+    this.countryDAO = countryDAO;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public CompletableFuture<ObservableList<Country>> getById(int countryId) {
+    return DBExecutor.supplyAsync(() -> countryDAO.getById(countryId));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Country>> getAll() {
+    return DBExecutor.supplyAsync(() -> countryDAO.getAll());
+  }
+}
@@ -0,0 +1,80 @@
+package dao.impl.asyncDAOImpl;
+
+import dao.AsyncCustomerDAO;
+import dao.CustomerDAO;
+import dao.impl.CustomerDAOImpl;
+import java.sql.Timestamp;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.ChangeSet;
+import model.Customer;
+import model.User;
+import utils.DBExecutor;
+
+/**
+ * Implementation of the AsyncCustomerDAO interface running CustomerDAO calls on
+ * database worker threads through DBExecutor.
+ *
+ * @author Sakae Watanabe
+ */
+public class AsyncCustomerDAOImpl implements AsyncCustomerDAO {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * CustomerDAO performing the blocking database calls.
+   */
+  private final CustomerDAO customerDAO;
+
+  /**
+   * Creates the async facade over the default CustomerDAOImpl.
+   */
+  public AsyncCustomerDAOImpl() {
+    this(new CustomerDAOImpl());
+  }
+
+  /**
+   * Creates the async facade over the supplied CustomerDAO.
+   *
+   * @param customerDAO DAO performing the blocking database calls.
+   */
+  public AsyncCustomerDAOImpl(CustomerDAO customerDAO) {
+    this.customerDAO = customerDAO;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public CompletableFuture<Customer> getById(int id) {
+    return DBExecutor.supplyAsync(() -> customerDAO.getById(id));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Customer>> getAll() {
+    return DBExecutor.supplyAsync(() -> customerDAO.getAll());
+  }
+
+  @Override
+  public CompletableFuture<ChangeSet<Customer>> getChangedSince(Timestamp since) {
+    return DBExecutor.supplyAsync(() -> customerDAO.getChangedSince(since));
+  }
+
+  @Override
+  public CompletableFuture<Integer> addCustomer(Customer customer, User user) {
+    return DBExecutor.supplyAsync(() -> customerDAO.addCustomer(customer, user));
+  }
+
+  @Override
+  public CompletableFuture<Integer> deleteCustomer(Customer customer) {
+    return DBExecutor.supplyAsync(() -> customerDAO.deleteCustomer(customer));
+  }
+
+  @Override
+  public CompletableFuture<Integer> updateCustomer(Customer customer, User user) {
+    return DBExecutor.supplyAsync(() -> customerDAO.updateCustomer(customer, user));
+  }
+}
@@ -0,0 +1,57 @@
+package dao.impl.asyncDAOImpl;
+
+import dao.AsyncDivisionDAO;
+import dao.DivisionDAO;
+import dao.impl.DivisionDAOImpl;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.Division;
+import utils.DBExecutor;
+
+/**
+ * Implementation of the AsyncDivisionDAO interface running DivisionDAO calls on
+ * database worker threads through DBExecutor.
+ *
+ * @author Sakae Watanabe
+ */
+public class AsyncDivisionDAOImpl implements AsyncDivisionDAO {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * DivisionDAO performing the blocking database calls.
+   */
+  private final DivisionDAO divisionDAO;
+
+  /**
+   * Creates the async facade over the default DivisionDAOImpl.
+   */
+  public AsyncDivisionDAOImpl() {
+    this(new DivisionDAOImpl());
+  }
+
+  /**
+   * Creates the async facade over the supplied DivisionDAO.
+   *
+   * @param divisionDAO DAO performing the blocking database calls.
+   */
+  public AsyncDivisionDAOImpl(DivisionDAO divisionDAO) {
+    this.divisionDAO = divisionDAO;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public CompletableFuture<ObservableList<Division>> getAll() {
+    return DBExecutor.supplyAsync(() -> divisionDAO.getAll());
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<Division>> getByCountry(int countryID) {
+    return DBExecutor.supplyAsync(() -> divisionDAO.getByCountry(countryID));
+  }
+}
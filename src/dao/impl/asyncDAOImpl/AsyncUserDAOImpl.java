@@ -0,0 +1,57 @@
+package dao.impl.asyncDAOImpl;
+
+import dao.AsyncUserDAO;
+import dao.UserDAO;
+import dao.impl.UserDAOImpl;
+import java.util.concurrent.CompletableFuture;
+import javafx.collections.ObservableList;
+import model.User;
+import utils.DBExecutor;
+
+/**
+ * Implementation of the AsyncUserDAO interface running UserDAO calls on
+ * database worker threads through DBExecutor.
+ *
+ * @author Sakae Watanabe
+ */
+public class AsyncUserDAOImpl implements AsyncUserDAO {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * UserDAO performing the blocking database calls.
+   */
+  private final UserDAO userDAO;
+
+  /**
+   * Creates the async facade over the default UserDAOImpl.
+   */
+  public AsyncUserDAOImpl() {
+    this(new UserDAOImpl());
+  }
+
+  /**
+   * Creates the async facade over the supplied UserDAO.
+   *
+   * @param userDAO DAO performing the blocking database calls.
+   */
+  public AsyncUserDAOImpl(UserDAO userDAO) {
+    this.userDAO = userDAO;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public CompletableFuture<User> getUserByName(String userName) {
+    return DBExecutor.supplyAsync(() -> userDAO.getUserByName(userName));
+  }
+
+  @Override
+  public CompletableFuture<ObservableList<User>> getAll() {
+    return DBExecutor.supplyAsync(() -> userDAO.getAll());
+  }
+}
@@ -6,14 +6,18 @@ import dao.ReportDAO;
 import dao.impl.AppointmentDAOImpl;
 import dao.impl.ContactDAOImpl;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import model.Appointment;
 import model.Contact;
 import utils.TextTableBuilder;
 
 /**
  * Report dao for listing schedule for each contact in the organization with
- * appointments sorted by start date.
+ * appointments sorted by start date. Appointments are streamed from the
+ * database in one pass grouped by contact, and only the current contact's
+ * appointments are held while its table is built.
  *
  * @author Sakae Watanabe
  */
@@ -40,9 +44,16 @@ public class ContactScheduleDAOImpl extends ReportDAO {
   private List<Contact> contacts;
 
   /**
-   * List to hold appointment data for table creation.
+   * Appointments of the contact currently being streamed, held only until
+   * its table has been built.
    */
-  private List<Appointment> appointments;
+  private final List<Appointment> appointments;
+
+  /**
+   * Finished schedule table for each contact with appointments, keyed by
+   * contact id.
+   */
+  private final Map<Integer, String> schedules;
 
   /**
    * Builds report table data for appointments retrieved from database.
@@ -56,14 +67,15 @@ public class ContactScheduleDAOImpl extends ReportDAO {
   private final StringBuilder reportString;
 
   /**
-   * Initializes ArrayLists for both contacts and appointments as well as
-   * StringBuilder for reportString.
+   * Initializes ArrayLists for both contacts and appointments, the schedule
+   * map and StringBuilder for reportString.
    */
   public ContactScheduleDAOImpl() {
     this.contactDAO = new ContactDAOImpl();
     this.appointmentDAO = new AppointmentDAOImpl();
     this.contacts = new ArrayList<>();
     this.appointments = new ArrayList<>();
+    this.schedules = new HashMap<>();
     this.reportString = new StringBuilder();
   }
 
@@ -75,28 +87,48 @@ public class ContactScheduleDAOImpl extends ReportDAO {
   public void constructReport() {
     contacts = contactDAO.getAll();
 
+    tableBuilder = new TextTableBuilder<>();
+    tableBuilder.addColumn("Appt. ID", Appointment::getId);
+    tableBuilder.addColumn("Title", Appointment::getTitle);
+    tableBuilder.addColumn("Type", Appointment::getType);
+    tableBuilder.addColumn("Description", Appointment::getDescription);
+    tableBuilder.addColumn("Start", Appointment::getStartLocalString);
+    tableBuilder.addColumn("End", Appointment::getEndLocalString);
+    tableBuilder.addColumn("Customer ID", Appointment::getCustomerId);
+
+    appointmentDAO.forEachByContact(a -> {
+      if (!appointments.isEmpty() && !appointments.get(0).getContactId().equals(a.getContactId())) {
+        finishSchedule();
+      }
+      appointments.add(a);
+    });
+    finishSchedule();
+
     for (Contact c : contacts) {
       String sectionHeading = "Appointments for " + c.getName() + "\n" + "------------------------\n";
+      String schedule = schedules.get(c.getId());
 
-      appointments = appointmentDAO.getByContactID(c.getId());
-
-      if (!appointments.isEmpty()){
-        tableBuilder = new TextTableBuilder<>();
-        tableBuilder.addColumn("Appt. ID", Appointment::getId);
-        tableBuilder.addColumn("Title", Appointment::getTitle);
-        tableBuilder.addColumn("Type", Appointment::getType);
-        tableBuilder.addColumn("Description", Appointment::getDescription);
-        tableBuilder.addColumn("Start", Appointment::getStartLocalString);
-        tableBuilder.addColumn("End", Appointment::getEndLocalString);
-        tableBuilder.addColumn("Customer ID", Appointment::getCustomerId);
-
-        reportString.append(sectionHeading).append(tableBuilder.createString(appointments)).append("\n\n");
+      if (schedule != null){
+        reportString.append(sectionHeading).append(schedule).append("\n\n");
       } else {
           reportString.append(sectionHeading).append("No Appointments Scheduled\n\n");
       }
     }
 
+    schedules.clear();
     setReport(reportString.toString());
   }
 
+  /**
+   * Builds the schedule table for the appointments of the contact just
+   * streamed and releases them.
+   */
+  private void finishSchedule() {
+    if (appointments.isEmpty()) {
+      return;
+    }
+    schedules.put(appointments.get(0).getContactId(), tableBuilder.createString(appointments));
+    appointments.clear();
+  }
+
 }
@@ -7,7 +7,9 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import model.reportDTO.DivisionBookingDTO;
+import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
 import utils.TextTableBuilder;
 
 /**
@@ -36,6 +38,12 @@ public class DivisionBookingsDAOImpl extends ReportDAO {
       + " GROUP BY d.Division"
       + " ORDER BY Bookings DESC";
 
+  /**
+   * Maps report rows to division booking dto objects.
+   */
+  private static final RowMapper<DivisionBookingDTO> DTO_MAPPER = new RowMapper<>(
+      row -> new DivisionBookingDTO(row.getString(0), row.getInt(1)), "Division", "Bookings");
+
   /**
    * List for holding division booking dto objects after retrieval from database.
    */
@@ -82,31 +90,16 @@ public class DivisionBookingsDAOImpl extends ReportDAO {
    * to be used for report construction.
    */
   private void buildData() {
-    try (PreparedStatement ps = this.conn.prepareStatement(query);
-        ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        divisionBookings.add(parseDTO(rs));
-      }
+    try {
+      divisionBookings.addAll(DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(query);
+            ResultSet rs = ps.executeQuery()) {
+          return DTO_MAPPER.mapAll(rs, new ArrayList<DivisionBookingDTO>());
+        }
+      }));
     } catch(SQLException e) {
       NotificationHandler.sqlPopup("Division-Booking Report", e);
     }
   }
 
-  /**
-   * Parse result set data to dto object for division booking sales reports.
-   *
-   * @param rs Result set from executed query.
-   * @return DivisionBookingDTO object containing report data.
-   * @throws SQLException thrown when result set unable to get columns.
-   */
-  private DivisionBookingDTO parseDTO(ResultSet rs) throws SQLException {
-    DivisionBookingDTO dto = null;
-
-    String name = rs.getString("Division");
-    int bookings = rs.getInt("Bookings");
-    dto = new DivisionBookingDTO(name, bookings);
-
-    return dto;
-  }
-
 }
@@ -7,7 +7,10 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import model.reportDTO.ApptTypeSalesDTO;
+import utils.DBConnector;
 import utils.NotificationHandler;
+import utils.RowMapper;
+import utils.SQLDialect;
 import utils.TextTableBuilder;
 
 /**
@@ -24,26 +27,22 @@ public class MonthlyReportDAOImpl extends ReportDAO {
   //===========================================================================
   
   /**
-   * Query for information on type of appointments with the count per month.
+   * Column aliases for each month in calendar order.
    */
-  private final String query = "SELECT a.Type AS Type,"
-      + " SUM(IF(a.Month = 'January', a.Count, 0))AS 'Jan',"
-      + " SUM(IF(a.Month = 'February', a.Count, 0))AS 'Feb',"
-      + " SUM(IF(a.Month = 'March', a.Count, 0))AS 'Mar',"
-      + " SUM(IF(a.Month = 'April', a.Count, 0))AS 'Apr',"
-      + " SUM(IF(a.Month = 'May', a.Count, 0))AS 'May',"
-      + " SUM(IF(a.Month = 'June', a.Count, 0))AS 'Jun',"
-      + " SUM(IF(a.Month = 'July', a.Count, 0))AS 'Jul',"
-      + " SUM(IF(a.Month = 'August', a.Count, 0)) AS 'Aug',"
-      + " SUM(IF(a.Month = 'September', a.Count, 0)) AS 'Sep',"
-      + " SUM(IF(a.Month = 'October', a.Count, 0)) AS 'Oct',"
-      + " SUM(IF(a.Month = 'November', a.Count, 0))AS 'Nov',"
-      + " SUM(IF(a.Month = 'December', a.Count, 0)) AS December"
-      + " FROM (SELECT  DATE_FORMAT(Start, '%M') as Month, Type, Count(*) as Count"
-      + " FROM appointments\n"
-      + " GROUP BY Month, Type\n"
-      + " ORDER BY Month DESC) as a\n"
-      + " GROUP BY Type";
+  private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul",
+      "Aug", "Sep", "Oct", "Nov", "December"};
+
+  /**
+   * Maps report rows, a type followed by a count per month, to dto objects.
+   */
+  private static final RowMapper<ApptTypeSalesDTO> DTO_MAPPER = new RowMapper<>(
+      MonthlyReportDAOImpl::readDTO, reportColumns());
+
+  /**
+   * Query for information on type of appointments with the count per month,
+   * built for the dialect of the configured database.
+   */
+  private final String query;
 
   /**
    * List for holding type sales dto objects after retrieval from database.
@@ -61,6 +60,28 @@ public class MonthlyReportDAOImpl extends ReportDAO {
   public MonthlyReportDAOImpl() {
     this.typeSales = new ArrayList<>();
     this.tableBuilder = new TextTableBuilder<>();
+    this.query = buildQuery(DBConnector.dialect());
+  }
+
+  /**
+   * Builds the report query, bucketing appointments by month number so the
+   * result does not depend on the server's locale for month names.
+   *
+   * @param dialect Dialect of the configured database.
+   * @return Query returning a row per type with a count column per month.
+   */
+  private static String buildQuery(SQLDialect dialect) {
+    StringBuilder sb = new StringBuilder("SELECT a.Type AS Type");
+    for (int i = 0; i < MONTHS.length; i++) {
+      sb.append(", ").append(dialect.sumIf("a.Month_Num = " + (i + 1), "a.Bookings"))
+          .append(" AS ").append(MONTHS[i]);
+    }
+    sb.append(" FROM (SELECT ").append(dialect.monthOf("Start")).append(" AS Month_Num,")
+        .append(" Type, COUNT(*) AS Bookings")
+        .append(" FROM appointments")
+        .append(" GROUP BY Month_Num, Type) AS a")
+        .append(" GROUP BY a.Type");
+    return sb.toString();
   }
 
   //===========================================================================
@@ -104,11 +125,13 @@ public class MonthlyReportDAOImpl extends ReportDAO {
    * objects for used for report construction.
    */
   private void buildData() {
-    try (PreparedStatement ps = this.conn.prepareStatement(query);
-        ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        typeSales.add(parseDTO(rs));
-      }
+    try {
+      typeSales.addAll(DBConnector.readReplica(conn -> {
+        try (PreparedStatement ps = conn.prepareStatement(query);
+            ResultSet rs = ps.executeQuery()) {
+          return DTO_MAPPER.mapAll(rs, new ArrayList<ApptTypeSalesDTO>());
+        }
+      }));
     } catch (SQLException e) {
       NotificationHandler.sqlPopup("Monthly Report", e);
     }
@@ -116,33 +139,28 @@ public class MonthlyReportDAOImpl extends ReportDAO {
 
 
   /**
-   * Parse result set data to dto object for appointment type sales reports.
+   * @return Labels of the report columns, the type followed by each month.
+   */
+  private static String[] reportColumns() {
+    String[] columns = new String[MONTHS.length + 1];
+    columns[0] = "Type";
+    System.arraycopy(MONTHS, 0, columns, 1, MONTHS.length);
+    return columns;
+  }
+
+  /**
+   * Reads a report row into a dto object for appointment type sales reports.
    *
-   * @param rs Result set from executed query.
+   * @param row Current row of the report result set.
    * @return ApptTypeSalesDTO object containing report data.
    * @throws SQLException thrown when result set unable to get columns.
    */
-  private ApptTypeSalesDTO parseDTO(ResultSet rs) throws SQLException {
-    ApptTypeSalesDTO dto = null;
+  private static ApptTypeSalesDTO readDTO(RowMapper.Row row) throws SQLException {
     ArrayList<Integer> months = new ArrayList<>();
-
-    String type = rs.getString("Type");
-    months.add(rs.getInt("Jan"));
-    months.add(rs.getInt("Feb"));
-    months.add(rs.getInt("Mar"));
-    months.add(rs.getInt("Apr"));
-    months.add(rs.getInt("May"));
-    months.add(rs.getInt("Jun"));
-    months.add(rs.getInt("Jul"));
-    months.add(rs.getInt("Aug"));
-    months.add(rs.getInt("Sep"));
-    months.add(rs.getInt("Oct"));
-    months.add(rs.getInt("Nov"));
-    months.add(rs.getInt("December"));
-
-    dto = new ApptTypeSalesDTO(type, months);
-
-    return dto;
+    for (int i = 1; i <= MONTHS.length; i++) {
+      months.add(row.getInt(i));
+    }
+    return new ApptTypeSalesDTO(row.getString(0), months);
   }
 
 }
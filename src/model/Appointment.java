@@ -104,6 +104,17 @@ public class Appointment {
     this.endTime.set(endTime);
   }
 
+  /**
+   * Copy constructor creating an independent appointment with the same values.
+   *
+   * @param other Appointment to copy.
+   */
+  public Appointment(Appointment other) {
+    this(other.getId(), other.getCustomerId(), other.getContactId(), other.getContactName(),
+        other.getUserId(), other.getTitle(), other.getDescription(), other.getType(),
+        other.getLocation(), other.getStartTime(), other.getEndTime());
+  }
+
   //===========================================================================
   // Getter & Setter Methods
   //===========================================================================
@@ -389,6 +400,26 @@ public class Appointment {
     this.endTime.set(endTime);
   }
 
+  /**
+   * Sets every value of this appointment to those of another, such as a newer
+   * copy read from the database, updating views bound to its properties.
+   *
+   * @param other Appointment whose values are copied.
+   */
+  public void setAll(Appointment other) {
+    setId(other.getId());
+    setCustomerId(other.getCustomerId());
+    setContactId(other.getContactId());
+    setContactName(other.getContactName());
+    setUserId(other.getUserId());
+    setTitle(other.getTitle());
+    setDescription(other.getDescription());
+    setType(other.getType());
+    setLocation(other.getLocation());
+    setStartTime(other.getStartTime());
+    setEndTime(other.getEndTime());
+  }
+
   //===========================================================================
   // Default Overrides
   //===========================================================================
@@ -0,0 +1,82 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of booking an appointment with a conflict check: either the id of
+ * the appointment saved, or the appointments it would have overlapped, in
+ * which case nothing was saved.
+ *
+ * @author Sakae Watanabe
+ */
+public class BookingResult {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Id of the appointment saved, 0 if it was not saved.
+   */
+  private final int id;
+
+  /**
+   * Appointments overlapping the booking, empty if it was saved.
+   */
+  private final List<Appointment> conflicts;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * @param id Id of the appointment saved, 0 if it was not saved.
+   * @param conflicts Appointments overlapping the booking.
+   */
+  private BookingResult(int id, List<Appointment> conflicts) {
+    this.id = id;
+    this.conflicts = conflicts;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @param id Id of the appointment saved.
+   * @return Result of a booking that was saved.
+   */
+  public static BookingResult booked(int id) {
+    return new BookingResult(id, Collections.emptyList());
+  }
+
+  /**
+   * @param conflicts Appointments overlapping the booking, never empty.
+   * @return Result of a booking refused for overlapping other appointments.
+   */
+  public static BookingResult conflicted(List<Appointment> conflicts) {
+    return new BookingResult(0, conflicts);
+  }
+
+  /**
+   * @return True if the appointment was saved.
+   */
+  public boolean isBooked() {
+    return conflicts.isEmpty();
+  }
+
+  /**
+   * @return Id of the appointment saved, 0 if it was not saved.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @return Appointments overlapping the booking, empty if it was saved.
+   */
+  public List<Appointment> getConflicts() {
+    return conflicts;
+  }
+}
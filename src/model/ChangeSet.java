@@ -0,0 +1,125 @@
+package model;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records of one table added, updated or deleted since a point in time, as
+ * read for an incremental refresh. The watermark is passed to the next
+ * changes query so that only later changes are read. Applying a change set
+ * twice has the same effect as applying it once, so consecutive sets may
+ * overlap.
+ * <p>
+ * A set is expired when the previous watermark is older than the deletions
+ * kept by the database. Its records are then empty and the consumer must
+ * reload every record instead.
+ *
+ * @param <T> Type of record changed.
+ * @author Sakae Watanabe
+ */
+public class ChangeSet<T> {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Records added or updated, in their current state.
+   */
+  private final List<T> changed;
+
+  /**
+   * Ids of the records deleted.
+   */
+  private final Set<Integer> deleted;
+
+  /**
+   * Time to read the next changes from.
+   */
+  private final Timestamp watermark;
+
+  /**
+   * True if the changes could not be read completely.
+   */
+  private final boolean expired;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * @param changed Records added or updated, in their current state.
+   * @param deleted Ids of the records deleted.
+   * @param watermark Time to read the next changes from.
+   */
+  public ChangeSet(List<T> changed, Set<Integer> deleted, Timestamp watermark) {
+    this(changed, deleted, watermark, false);
+  }
+
+  /**
+   * @param changed Records added or updated, in their current state.
+   * @param deleted Ids of the records deleted.
+   * @param watermark Time to read the next changes from.
+   * @param expired True if the changes could not be read completely.
+   */
+  private ChangeSet(List<T> changed, Set<Integer> deleted, Timestamp watermark,
+      boolean expired) {
+    this.changed = changed;
+    this.deleted = deleted;
+    this.watermark = watermark;
+    this.expired = expired;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Creates a set for a previous watermark too old to read changes from.
+   *
+   * @param <T> Type of record changed.
+   * @param watermark Time to read the next changes from after reloading.
+   * @return Expired change set holding no records.
+   */
+  public static <T> ChangeSet<T> expired(Timestamp watermark) {
+    return new ChangeSet<>(Collections.emptyList(), Collections.emptySet(), watermark, true);
+  }
+
+  /**
+   * @return Records added or updated, in their current state.
+   */
+  public List<T> getChanged() {
+    return changed;
+  }
+
+  /**
+   * @return Ids of the records deleted.
+   */
+  public Set<Integer> getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * @return Time to pass to the next changes query.
+   */
+  public Timestamp getWatermark() {
+    return watermark;
+  }
+
+  /**
+   * @return True if no records were added, updated or deleted.
+   */
+  public boolean isEmpty() {
+    return changed.isEmpty() && deleted.isEmpty();
+  }
+
+  /**
+   * @return True if the previous watermark was too old to read changes from,
+   *         so every record must be reloaded.
+   */
+  public boolean isExpired() {
+    return expired;
+  }
+}
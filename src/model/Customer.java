@@ -49,6 +49,16 @@ public class Customer extends Person {
     this.divisionId.set(divisionId);
   }
 
+  /**
+   * Copy constructor creating an independent customer with the same values.
+   *
+   * @param other Customer to copy.
+   */
+  public Customer(Customer other) {
+    this(other.getId(), other.getName(), other.getAddress(), other.getPostalCode(),
+        other.getPhoneNumber(), other.getDivisionId());
+  }
+
   /**
    * No Arg constructor for the Customer class initializes empty strings and
    * negative id numbers.
@@ -158,6 +168,21 @@ public class Customer extends Person {
     this.divisionId.set(divisionId);
   }
 
+  /**
+   * Sets every value of this customer to those of another, such as a newer
+   * copy read from the database, updating views bound to its properties.
+   *
+   * @param other Customer whose values are copied.
+   */
+  public void setAll(Customer other) {
+    setId(other.getId());
+    setName(other.getName());
+    setAddress(other.getAddress());
+    setPostalCode(other.getPostalCode());
+    setPhoneNumber(other.getPhoneNumber());
+    setDivisionId(other.getDivisionId());
+  }
+
   //===========================================================================
   // Default Overrides
   //===========================================================================
@@ -0,0 +1,166 @@
+package model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Index of countries and first level divisions built once from the lists
+ * read from the database. Divisions and countries are looked up by id in
+ * constant time, and the divisions of each country are grouped ahead of time
+ * so the customer form and customer table never scan the full lists.
+ * <p>
+ * The index is read only; a new one is built whenever either list is loaded
+ * again.
+ *
+ * @author Sakae Watanabe
+ */
+public class GeographyIndex {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Country list the index was built from.
+   */
+  private final List<Country> countrySource;
+
+  /**
+   * Division list the index was built from.
+   */
+  private final List<Division> divisionSource;
+
+  /**
+   * Every country, unmodifiable, in the order read.
+   */
+  private final ObservableList<Country> countries;
+
+  /**
+   * Countries by id.
+   */
+  private final Map<Integer, Country> countriesById = new HashMap<>();
+
+  /**
+   * Divisions by id.
+   */
+  private final Map<Integer, Division> divisionsById = new HashMap<>();
+
+  /**
+   * Divisions of each country by country id, in their original order.
+   */
+  private final Map<Integer, ObservableList<Division>> divisionsByCountry = new HashMap<>();
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Builds the index. Divisions whose country is not in the list of
+   * countries can still be looked up by id but belong to no country.
+   *
+   * @param countries Countries read from the database.
+   * @param divisions Divisions read from the database.
+   */
+  public GeographyIndex(ObservableList<Country> countries, List<Division> divisions) {
+    this.countrySource = countries;
+    this.divisionSource = divisions;
+    this.countries = FXCollections.unmodifiableObservableList(countries);
+
+    Map<Integer, ObservableList<Division>> grouped = new HashMap<>();
+    for (Country c : countries) {
+      countriesById.put(c.getId(), c);
+      grouped.put(c.getId(), FXCollections.observableArrayList());
+    }
+    for (Division d : divisions) {
+      divisionsById.put(d.getId(), d);
+      ObservableList<Division> group = grouped.get(d.getCountryID());
+      if (group != null) {
+        group.add(d);
+      }
+    }
+    grouped.forEach((id, group) ->
+        divisionsByCountry.put(id, FXCollections.unmodifiableObservableList(group)));
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @param countries Country list to compare.
+   * @param divisions Division list to compare.
+   * @return True if the index was built from these exact list instances.
+   */
+  public boolean isBuiltFrom(List<Country> countries, List<Division> divisions) {
+    return countrySource == countries && divisionSource == divisions;
+  }
+
+  /**
+   * @return Every country, unmodifiable, in the order read.
+   */
+  public ObservableList<Country> getCountries() {
+    return countries;
+  }
+
+  /**
+   * @return Every division, unmodifiable, in the order read.
+   */
+  public List<Division> getDivisions() {
+    return Collections.unmodifiableList(divisionSource);
+  }
+
+  /**
+   * @param id Id of the country.
+   * @return Country with the id, null if there is none.
+   */
+  public Country getCountry(int id) {
+    return countriesById.get(id);
+  }
+
+  /**
+   * @param id Id of the division.
+   * @return Division with the id, null if there is none.
+   */
+  public Division getDivision(int id) {
+    return divisionsById.get(id);
+  }
+
+  /**
+   * @param division Division to look up.
+   * @return Country the division belongs to, null if it is not indexed.
+   */
+  public Country countryOf(Division division) {
+    return division == null ? null : countriesById.get(division.getCountryID());
+  }
+
+  /**
+   * @param divisionId Id of the division.
+   * @return Name of the division, or its id if it is not indexed.
+   */
+  public String divisionName(int divisionId) {
+    Division d = divisionsById.get(divisionId);
+    return d != null ? d.getName() : String.valueOf(divisionId);
+  }
+
+  /**
+   * @param divisionId Id of the division.
+   * @return Name of the division's country, empty if it is not indexed.
+   */
+  public String countryName(int divisionId) {
+    Country c = countryOf(divisionsById.get(divisionId));
+    return c != null ? c.getName() : "";
+  }
+
+  /**
+   * @param countryId Id of the country.
+   * @return Divisions of the country, unmodifiable, empty if there are none.
+   */
+  public ObservableList<Division> divisionsOf(int countryId) {
+    ObservableList<Division> group = divisionsByCountry.get(countryId);
+    return group != null ? group : FXCollections.emptyObservableList();
+  }
+}
@@ -0,0 +1,130 @@
+package utils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Runs the same insert or update for many rows as JDBC batches in a single
+ * transaction. Rows are sent in chunks of the configured batch size, so very
+ * large inputs neither build one oversized packet nor hold every bound row in
+ * the driver at once. With rewriteBatchedStatements set on the MySQL URL,
+ * each chunk of inserts travels as one multi-row INSERT.
+ * <p>
+ * Either every row is written or, if any statement fails, the transaction is
+ * rolled back and none are. Transactions the server rolls back, such as on
+ * deadlock, are retried as a whole through DBConnector.transaction.
+ *
+ * @author Sakae Watanabe
+ */
+public class BatchWriter {
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Inserts a row for each item and returns the generated keys.
+   *
+   * @param <T> Type of item inserted.
+   * @param sql Insert statement for one row.
+   * @param keyColumn Name of the generated key column.
+   * @param items Items to insert, in order.
+   * @param binder Sets the statement parameters for an item.
+   * @return Generated key of each item, in the order of the items.
+   * @throws SQLException if a row cannot be inserted or a key is missing.
+   */
+  public static <T> int[] insert(String sql, String keyColumn, List<T> items, Binder<T> binder)
+      throws SQLException {
+    if (items.isEmpty()) {
+      return new int[0];
+    }
+    int chunkSize = new ConfigProps().getBatchSize();
+    return DBConnector.transaction(conn -> {
+      int[] keys = new int[items.size()];
+      try (PreparedStatement ps = DBConnector.dialect().prepareInsert(conn, sql, keyColumn)) {
+        for (int first = 0; first < items.size(); first += chunkSize) {
+          int end = Math.min(first + chunkSize, items.size());
+          for (int i = first; i < end; i++) {
+            binder.bind(ps, items.get(i));
+            ps.addBatch();
+          }
+          ps.executeBatch();
+
+          int next = first;
+          try (ResultSet rs = ps.getGeneratedKeys()) {
+            while (next < end && rs.next()) {
+              keys[next++] = rs.getInt(1);
+            }
+          }
+          if (next < end) {
+            throw new SQLException("Batch insert failed, " + (end - next) + " of "
+                + (end - first) + " keys not returned.");
+          }
+        }
+      }
+      return keys;
+    });
+  }
+
+  /**
+   * Runs an update for each item, failing if any item matches no row.
+   *
+   * @param <T> Type of item updated.
+   * @param sql Update statement for one row.
+   * @param items Items to update, in order.
+   * @param binder Sets the statement parameters for an item.
+   * @return Total number of rows affected, an item the driver reports no
+   *         count for counting as one.
+   * @throws SQLException if a row cannot be updated or an item matches no row.
+   */
+  public static <T> int update(String sql, List<T> items, Binder<T> binder) throws SQLException {
+    if (items.isEmpty()) {
+      return 0;
+    }
+    int chunkSize = new ConfigProps().getBatchSize();
+    return DBConnector.transaction(conn -> {
+      int affected = 0;
+      try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        for (int first = 0; first < items.size(); first += chunkSize) {
+          int end = Math.min(first + chunkSize, items.size());
+          for (int i = first; i < end; i++) {
+            binder.bind(ps, items.get(i));
+            ps.addBatch();
+          }
+          int[] counts = ps.executeBatch();
+          for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+              throw new SQLException("Batch update failed, no rows affected for item "
+                  + (first + i) + ".");
+            }
+            affected += counts[i] == Statement.SUCCESS_NO_INFO ? 1 : counts[i];
+          }
+        }
+      }
+      return affected;
+    });
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * Sets the statement parameters for one item of a batch.
+   *
+   * @param <T> Type of item bound.
+   */
+  @FunctionalInterface
+  public interface Binder<T> {
+
+    /**
+     * @param ps Statement to bind parameters on.
+     * @param item Item whose values are bound.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    void bind(PreparedStatement ps, T item) throws SQLException;
+  }
+}
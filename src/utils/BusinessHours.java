@@ -1,5 +1,6 @@
 package utils;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -162,6 +163,17 @@ public class BusinessHours {
     return ldtZDT.withZoneSameInstant(businessZone);
   }
 
+  /**
+   * Longest an appointment can last in local time. Appointments must fit
+   * within one shift, plus an hour allowed for a daylight saving change in
+   * the local zone during the shift.
+   *
+   * @return Duration of the longest possible appointment.
+   */
+  public static Duration getMaxAppointmentLength() {
+    return Duration.ofHours(SHIFT_LENGTH + 1);
+  }
+
   /**
    * @return String representing the open and closing hours range in local time.
    */
@@ -0,0 +1,154 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Change tracking shared by the DAOs offering incremental refresh. Added and
+ * updated records are found by their Last_Update column; deleted records
+ * leave a row in deleted_records, written in the same transaction as the
+ * delete.
+ * <p>
+ * Watermarks are taken from the database clock, which also sets Last_Update,
+ * so client clocks do not matter. They are set back a few seconds so a
+ * change committed shortly after another client read its changes is still
+ * picked up by that client's next read. Changes near a watermark may be read
+ * twice, which the change set consumers allow for.
+ * <p>
+ * Rows in deleted_records are pruned once older than the configured
+ * retention, in the same transaction as each delete recorded. Watermarks
+ * older than half the retention are treated as expired, leaving a margin for
+ * prunes committing while the changes are read, and their holders reload
+ * everything instead.
+ *
+ * @author Sakae Watanabe
+ */
+public class ChangeLog {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Seconds watermarks are set back to allow for transactions committing
+   * after their changes were stamped.
+   */
+  static final int OVERLAP_SECONDS = 10;
+
+  /**
+   * Finds records of one table deleted since a watermark.
+   */
+  private static final String DELETED_SINCE = "SELECT Record_ID FROM deleted_records"
+      + " WHERE Table_Name = ? AND Deleted_At >= ?";
+
+  /**
+   * Deletes the deletions recorded before the retention, by the database
+   * clock. The parameter is the retention in hours, negated.
+   */
+  private static final String PRUNE = "DELETE FROM deleted_records"
+      + " WHERE Deleted_At < TIMESTAMPADD(HOUR, ?, NOW())";
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @return Watermark for reading changes made from now on.
+   * @throws SQLException if the database clock cannot be read.
+   */
+  public static Timestamp watermark() throws SQLException {
+    return DBConnector.read(ChangeLog::watermark);
+  }
+
+  /**
+   * Reads a watermark on a connection already in use, before reading the
+   * changes it will follow.
+   *
+   * @param conn Connection to the primary database.
+   * @return Watermark for reading changes made from now on.
+   * @throws SQLException if the database clock cannot be read.
+   */
+  public static Timestamp watermark(Connection conn) throws SQLException {
+    try (Statement st = conn.createStatement();
+        ResultSet rs = st.executeQuery("SELECT NOW()")) {
+      rs.next();
+      return Timestamp.valueOf(rs.getTimestamp(1).toLocalDateTime()
+          .minusSeconds(OVERLAP_SECONDS));
+    }
+  }
+
+  /**
+   * Builds a statement recording the deletion of the rows matching a
+   * condition, to be run before the delete using the same condition and
+   * parameters.
+   *
+   * @param table Table the rows are deleted from.
+   * @param idColumn Primary key column of the table.
+   * @param where Condition selecting the rows deleted.
+   * @return Insert statement recording the deletions.
+   */
+  public static String recordDeletions(String table, String idColumn, String where) {
+    return "INSERT INTO deleted_records (Table_Name, Record_ID, Deleted_At)"
+        + " SELECT '" + table + "', " + idColumn + ", NOW() FROM " + table
+        + " WHERE " + where;
+  }
+
+  /**
+   * Adds a statement pruning the deletions recorded before the retention to
+   * a unit of work recording deletions.
+   *
+   * @param work Unit the deletions are recorded in.
+   */
+  public static void queuePrune(UnitOfWork work) {
+    int hours = retentionHours();
+    work.queue(PRUNE, ps -> ps.setInt(1, -hours));
+  }
+
+  /**
+   * Checks whether deletions made since a watermark may have been pruned, in
+   * which case the changes read from it are incomplete.
+   *
+   * @param since Watermark returned with the previous changes.
+   * @param watermark Watermark read with the current changes.
+   * @return True if the previous watermark is too old to read changes from.
+   */
+  public static boolean isExpired(Timestamp since, Timestamp watermark) {
+    long marginMillis = retentionHours() * 3_600_000L / 2;
+    return since.getTime() < watermark.getTime() - marginMillis;
+  }
+
+  /**
+   * @param conn Connection to the primary database.
+   * @param table Table the records were deleted from.
+   * @param since Watermark returned with the previous changes.
+   * @return Ids of the records deleted since the watermark.
+   * @throws SQLException if the deletions cannot be read.
+   */
+  public static Set<Integer> deletedSince(Connection conn, String table, Timestamp since)
+      throws SQLException {
+    Set<Integer> deleted = new HashSet<>();
+    try (PreparedStatement ps = conn.prepareStatement(DELETED_SINCE)) {
+      ps.setString(1, table);
+      ps.setTimestamp(2, since);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          deleted.add(rs.getInt(1));
+        }
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * @return Hours deletions are kept before they are pruned, at least one.
+   */
+  private static int retentionHours() {
+    return Math.max(1, new ConfigProps().getDeletedRetentionHours());
+  }
+}
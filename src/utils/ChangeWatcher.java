@@ -0,0 +1,167 @@
+package utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Watches the database for customers and appointments changed by other
+ * clients. A background thread polls a cheap change marker, the newest
+ * Last_Update of each table and the newest deletion recorded, and runs a
+ * refresh on the JavaFX thread whenever it moves. The refresh itself reads
+ * only the changed rows.
+ * <p>
+ * Polling starts at the configured interval and doubles each time nothing
+ * has changed, up to the configured maximum, dropping back to the starting
+ * interval as soon as a change is seen. A refresh is also run while the
+ * newest change is younger than the change log overlap, as a transaction
+ * committing late can add rows older than the marker already seen.
+ *
+ * @author Sakae Watanabe
+ */
+public class ChangeWatcher {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Reads the database clock and the change marker in one round trip.
+   */
+  private static final String MARKER = "SELECT NOW(),"
+      + " (SELECT MAX(Last_Update) FROM customers),"
+      + " (SELECT MAX(Last_Update) FROM appointments),"
+      + " (SELECT MAX(Deleted_At) FROM deleted_records)";
+
+  /**
+   * Refresh run on the JavaFX thread when a change is seen, completing once
+   * the changes have been applied.
+   */
+  private final Supplier<CompletableFuture<?>> refresh;
+
+  /**
+   * Milliseconds between polls while changes are being seen.
+   */
+  private final long minDelay;
+
+  /**
+   * Most milliseconds between polls once nothing has changed for a while.
+   */
+  private final long maxDelay;
+
+  /**
+   * Single daemon thread running the polls.
+   */
+  private final ScheduledExecutorService poller;
+
+  /**
+   * Change marker seen by the last poll, null before the first. Only used on
+   * the poller thread.
+   */
+  private Timestamp[] marker = null;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Creates the watcher and schedules its first poll.
+   *
+   * @param refresh Refresh run on the JavaFX thread when a change is seen.
+   * @param config Configuration supplying the poll intervals.
+   */
+  public ChangeWatcher(Supplier<CompletableFuture<?>> refresh, ConfigProps config) {
+    this.refresh = refresh;
+    this.minDelay = TimeUnit.SECONDS.toMillis(config.getChangePollSeconds());
+    this.maxDelay = Math.max(minDelay,
+        TimeUnit.SECONDS.toMillis(config.getChangePollMaxSeconds()));
+
+    this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "change-watcher");
+      t.setDaemon(true);
+      return t;
+    });
+    schedule(minDelay);
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Stops polling. A refresh already running is left to finish.
+   */
+  public void shutdown() {
+    poller.shutdownNow();
+  }
+
+  /**
+   * @param delay Milliseconds until the next poll.
+   */
+  private void schedule(long delay) {
+    if (!poller.isShutdown()) {
+      poller.schedule(() -> poll(delay), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Reads the change marker and runs the refresh if it has moved, scheduling
+   * the next poll once the refresh has finished. Polls failing to reach the
+   * database back off like polls finding no change.
+   *
+   * @param delay Milliseconds waited before this poll.
+   */
+  private void poll(long delay) {
+    boolean changed;
+    try {
+      changed = DBConnector.read(conn -> {
+        try (Statement st = conn.createStatement();
+            ResultSet rs = st.executeQuery(MARKER)) {
+          rs.next();
+          return readMarker(rs);
+        }
+      });
+    } catch (SQLException e) {
+      System.err.println("Change watcher: " + e.getMessage());
+      changed = false;
+    }
+
+    if (!changed) {
+      schedule(Math.min(delay * 2, maxDelay));
+      return;
+    }
+    CompletableFuture.supplyAsync(refresh, DBExecutor.fxExecutor())
+        .thenCompose(running -> running)
+        .whenComplete((done, e) -> schedule(minDelay));
+  }
+
+  /**
+   * Compares the marker with the one seen by the last poll and keeps it.
+   *
+   * @param rs Marker query result positioned on its row.
+   * @return True if the marker has moved, this is the first poll, or the
+   *         newest change is recent enough that late commits may follow.
+   * @throws SQLException if the marker cannot be read.
+   */
+  private boolean readMarker(ResultSet rs) throws SQLException {
+    Timestamp now = rs.getTimestamp(1);
+    Timestamp[] seen = {rs.getTimestamp(2), rs.getTimestamp(3), rs.getTimestamp(4)};
+    boolean moved = !Arrays.equals(seen, marker);
+    marker = seen;
+
+    long recent = now.getTime() - TimeUnit.SECONDS.toMillis(ChangeLog.OVERLAP_SECONDS);
+    for (Timestamp newest : seen) {
+      if (newest != null && newest.getTime() >= recent) {
+        return true;
+      }
+    }
+    return moved;
+  }
+}
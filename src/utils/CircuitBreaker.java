@@ -0,0 +1,142 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker guarding database access. After a run of consecutive
+ * connection failures the breaker opens and calls fail immediately instead of
+ * waiting on a dead link. Once the cool down passes a single trial call is let
+ * through; its success closes the breaker and its failure opens it again. A
+ * trial ending without reaching the database, such as one timing out on a
+ * busy pool, is aborted so the next call can try instead.
+ *
+ * @author Sakae Watanabe
+ */
+public class CircuitBreaker {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * States of the breaker.
+   */
+  public enum State { CLOSED, OPEN, HALF_OPEN }
+
+  /**
+   * Consecutive failures needed to open the breaker.
+   */
+  private final int failureThreshold;
+
+  /**
+   * Milliseconds the breaker stays open before allowing a trial call.
+   */
+  private final long openMillis;
+
+  /**
+   * Current state of the breaker.
+   */
+  private State state = State.CLOSED;
+
+  /**
+   * Consecutive connection failures seen while closed.
+   */
+  private int failures = 0;
+
+  /**
+   * Time in milliseconds the breaker last opened.
+   */
+  private long openedAt = 0;
+
+  /**
+   * Indicates the single half open trial call is in progress.
+   */
+  private boolean trialInFlight = false;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * @param failureThreshold Consecutive failures needed to open the breaker.
+   * @param openSeconds Seconds to stay open before allowing a trial call.
+   */
+  public CircuitBreaker(int failureThreshold, int openSeconds) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = TimeUnit.SECONDS.toMillis(openSeconds);
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Checks that a call may go ahead, moving an open breaker to half open once
+   * the cool down has passed.
+   *
+   * @return True if the call is the half open trial, which must end in
+   *         onSuccess, onFailure or onTrialAborted.
+   * @throws DatabaseUnavailableException if the breaker is rejecting calls.
+   */
+  public synchronized boolean beforeCall() throws DatabaseUnavailableException {
+    if (state == State.CLOSED) {
+      return false;
+    }
+    long remaining = openedAt + openMillis - System.currentTimeMillis();
+    if (state == State.OPEN && remaining <= 0) {
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+    if (state == State.HALF_OPEN && !trialInFlight) {
+      trialInFlight = true;
+      return true;
+    }
+    throw new DatabaseUnavailableException(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remaining)));
+  }
+
+  /**
+   * Records a call that reached the database, closing the breaker.
+   */
+  public synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      System.out.println("Database connection restored.");
+    }
+    state = State.CLOSED;
+    failures = 0;
+    trialInFlight = false;
+  }
+
+  /**
+   * Records a connection failure, opening the breaker when the threshold is
+   * reached or when a half open trial fails.
+   */
+  public synchronized void onFailure() {
+    failures++;
+    if (state == State.HALF_OPEN || failures >= failureThreshold) {
+      if (state == State.CLOSED) {
+        System.out.println("Database unreachable, failing fast for "
+            + TimeUnit.MILLISECONDS.toSeconds(openMillis) + "s.");
+      }
+      state = State.OPEN;
+      openedAt = System.currentTimeMillis();
+      trialInFlight = false;
+    }
+  }
+
+  /**
+   * Records a half open trial that ended without showing whether the
+   * database is reachable, letting the next call make the trial instead.
+   */
+  public synchronized void onTrialAborted() {
+    if (state == State.HALF_OPEN) {
+      trialInFlight = false;
+    }
+  }
+
+  /**
+   * @return Current state of the breaker.
+   */
+  public synchronized State getState() {
+    return state;
+  }
+}
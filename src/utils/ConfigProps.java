@@ -3,6 +3,9 @@ package utils;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -25,6 +28,69 @@ public class ConfigProps {
   private static final String propFile = "resources/config/config.properties";
   /** Url address for database connection. */
   private static String dbUrl;
+  /** Database backend the application runs against, mysql or h2. */
+  private static String dbBackend = "mysql";
+  /** Url addresses of read replicas, empty when reads all go to dbUrl. */
+  private static List<String> replicaUrls = Collections.emptyList();
+  /** Seconds after a write during which reads stay on the primary. */
+  private static int replicaStickySeconds = 5;
+  /** Seconds between replica health checks. */
+  private static int replicaCheckSeconds = 10;
+  /** Appointments fetched per page for the main appointment table. */
+  private static int apptPageSize = 100;
+  /** Pages of appointments the main table keeps in memory. */
+  private static int apptCachedPages = 10;
+  /** Days ahead of now the appointment conflict detector keeps in memory. */
+  private static int conflictWindowDays = 180;
+  /** Rows fetched from the server at a time by streaming reads. */
+  private static int streamFetchSize = 500;
+  /** Rows sent to the server per JDBC batch by bulk inserts and updates. */
+  private static int batchSize = 1000;
+  /** Seconds contacts, users, countries and divisions are cached for. */
+  private static int referenceCacheSeconds = 600;
+  /** Seconds the customer list is cached for. */
+  private static int customerCacheSeconds = 60;
+  /** Most recently read customers kept in memory by the identity map. */
+  private static int identityMapSize = 1000;
+  /** Seconds between polls for changes made by other clients while changes are seen. */
+  private static int changePollSeconds = 5;
+  /** Most seconds between polls for changes once nothing has changed for a while. */
+  private static int changePollMaxSeconds = 60;
+  /** File the main view's data is saved to for showing at the next start. */
+  private static String snapshotFile = "main-view.snapshot";
+  /** Seconds between saves of the main view's data while it is shown. */
+  private static int snapshotSaveSeconds = 300;
+  /** Hours rows are kept in deleted_records before they are pruned. */
+  private static int deletedRetentionHours = 48;
+  /** File the query metrics are written to when the application exits. */
+  private static String metricsFile = "query-metrics.txt";
+  /** Milliseconds a statement may take before it is written to the slow query log. */
+  private static int slowQueryMillis = 250;
+  /** File slow statements are written to. */
+  private static String slowQueryFile = "slow-queries.log";
+  /** Size in kilobytes at which the slow query log is rotated. */
+  private static int slowQueryMaxKb = 1024;
+  /** Number of rotated slow query logs kept. */
+  private static int slowQueryBackups = 5;
+
+  /** Maximum number of open connections held by the connection pool. */
+  private static int poolMaxSize = 4;
+  /** Seconds an unused pooled connection may sit idle before it is closed. */
+  private static int poolIdleTimeout = 300;
+  /** Seconds a pooled connection may live before it is retired. */
+  private static int poolMaxLifetime = 1800;
+  /** Seconds a caller will wait to borrow a connection from an exhausted pool. */
+  private static int poolBorrowTimeout = 10;
+  /** Number of prepared statements cached per pooled connection. */
+  private static int statementCacheSize = 32;
+  /** Maximum attempts made for a database operation failing transiently. */
+  private static int retryMaxAttempts = 3;
+  /** Base delay in milliseconds for the exponential retry backoff. */
+  private static int retryBaseDelay = 100;
+  /** Consecutive connection failures before database calls fail fast. */
+  private static int breakerFailureThreshold = 3;
+  /** Seconds database calls fail fast before a reconnect is attempted. */
+  private static int breakerOpenSeconds = 15;
 
   public ConfigProps() { }
 
@@ -45,6 +111,40 @@ public class ConfigProps {
         username = prop.getProperty("userName");
         password = prop.getProperty("password");
         dbUrl = prop.getProperty("dbUrl");
+        dbBackend = prop.getProperty("dbBackend", dbBackend).strip();
+        replicaUrls = listProperty(prop, "replicaUrls");
+        replicaStickySeconds = intProperty(prop, "replicaStickySeconds", replicaStickySeconds);
+        replicaCheckSeconds = intProperty(prop, "replicaCheckSeconds", replicaCheckSeconds);
+        apptPageSize = intProperty(prop, "apptPageSize", apptPageSize);
+        apptCachedPages = intProperty(prop, "apptCachedPages", apptCachedPages);
+        conflictWindowDays = intProperty(prop, "conflictWindowDays", conflictWindowDays);
+        streamFetchSize = intProperty(prop, "streamFetchSize", streamFetchSize);
+        batchSize = intProperty(prop, "batchSize", batchSize);
+        referenceCacheSeconds = intProperty(prop, "referenceCacheSeconds",
+            referenceCacheSeconds);
+        customerCacheSeconds = intProperty(prop, "customerCacheSeconds", customerCacheSeconds);
+        identityMapSize = intProperty(prop, "identityMapSize", identityMapSize);
+        changePollSeconds = intProperty(prop, "changePollSeconds", changePollSeconds);
+        changePollMaxSeconds = intProperty(prop, "changePollMaxSeconds", changePollMaxSeconds);
+        snapshotFile = prop.getProperty("snapshotFile", snapshotFile).strip();
+        snapshotSaveSeconds = intProperty(prop, "snapshotSaveSeconds", snapshotSaveSeconds);
+        deletedRetentionHours = intProperty(prop, "deletedRetentionHours",
+            deletedRetentionHours);
+        metricsFile = prop.getProperty("metricsFile", metricsFile).strip();
+        slowQueryMillis = intProperty(prop, "slowQueryMillis", slowQueryMillis);
+        slowQueryFile = prop.getProperty("slowQueryFile", slowQueryFile).strip();
+        slowQueryMaxKb = intProperty(prop, "slowQueryMaxKb", slowQueryMaxKb);
+        slowQueryBackups = intProperty(prop, "slowQueryBackups", slowQueryBackups);
+        poolMaxSize = intProperty(prop, "poolMaxSize", poolMaxSize);
+        poolIdleTimeout = intProperty(prop, "poolIdleTimeout", poolIdleTimeout);
+        poolMaxLifetime = intProperty(prop, "poolMaxLifetime", poolMaxLifetime);
+        poolBorrowTimeout = intProperty(prop, "poolBorrowTimeout", poolBorrowTimeout);
+        statementCacheSize = intProperty(prop, "statementCacheSize", statementCacheSize);
+        retryMaxAttempts = intProperty(prop, "retryMaxAttempts", retryMaxAttempts);
+        retryBaseDelay = intProperty(prop, "retryBaseDelay", retryBaseDelay);
+        breakerFailureThreshold = intProperty(prop, "breakerFailureThreshold",
+            breakerFailureThreshold);
+        breakerOpenSeconds = intProperty(prop, "breakerOpenSeconds", breakerOpenSeconds);
       } else {
         System.out.println("Unable to load from specified path " + propFile);
         throw new FileNotFoundException("Properties File '" + propFile + "' not found.");
@@ -55,11 +155,55 @@ public class ConfigProps {
   }
 
   /**
-   * Returns a string value for the user name.
+   * Helper method for reading an optional positive integer property, falling
+   * back to the supplied default when missing or malformed.
    *
-   * @return String representing user name for login credentials.
+   * @param prop Properties loaded from config.properties.
+   * @param key Name of the property to read.
+   * @param fallback Value to use when the property is absent or invalid.
+   * @return Integer value of the property or the fallback value.
    */
-  public String getUsername() {
+  private static int intProperty(Properties prop, String key, int fallback) {
+    String value = prop.getProperty(key);
+    if (value == null || value.isBlank()) {
+      return fallback;
+    }
+    try {
+      int parsed = Integer.parseInt(value.strip());
+      return parsed > 0 ? parsed : fallback;
+    } catch (NumberFormatException e) {
+      System.out.println("Ignoring invalid value for " + key + ": " + value);
+      return fallback;
+    }
+  }
+
+  /**
+   * Helper method for reading an optional comma separated list property.
+   *
+   * @param prop Properties loaded from config.properties.
+   * @param key Name of the property to read.
+   * @return Unmodifiable list of the non blank entries, empty when absent.
+   */
+  private static List<String> listProperty(Properties prop, String key) {
+    String value = prop.getProperty(key);
+    if (value == null || value.isBlank()) {
+      return Collections.emptyList();
+    }
+    List<String> entries = new ArrayList<>();
+    for (String entry : value.split(",")) {
+      if (!entry.isBlank()) {
+        entries.add(entry.strip());
+      }
+    }
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Loads the properties file the first time any value is requested.
+   *
+   * @param item Description of the requested value for the warning popup.
+   */
+  private void loadIfNeeded(String item) {
     if(!loaded) {
       try {
         getPropValues();
@@ -67,9 +211,18 @@ public class ConfigProps {
       } catch (IOException e) {
         e.printStackTrace();
         NotificationHandler.warningPopup(e.getMessage(),
-            "Unable to get user name.");
+            "Unable to get " + item + ".");
       }
     }
+  }
+
+  /**
+   * Returns a string value for the user name.
+   *
+   * @return String representing user name for login credentials.
+   */
+  public String getUsername() {
+    loadIfNeeded("user name");
     return username;
   }
 
@@ -79,16 +232,7 @@ public class ConfigProps {
    * @return String representing user name for login credentials.
    */
   public String getPassword() {
-    if(!loaded) {
-      try {
-        getPropValues();
-        loaded = true;
-      } catch (IOException e) {
-        e.printStackTrace();
-        NotificationHandler.warningPopup(e.getMessage(),
-            "Unable to get password.");
-      }
-    }
+    loadIfNeeded("password");
     return password;
   }
 
@@ -98,16 +242,255 @@ public class ConfigProps {
    * @return String representing user name for login credentials.
    */
   public String getDbUrl() {
-    if(!loaded) {
-      try {
-        getPropValues();
-        loaded = true;
-      } catch (IOException e) {
-        e.printStackTrace();
-        NotificationHandler.warningPopup(e.getMessage(),
-            "Unable to get connection url.");
-      }
-    }
+    loadIfNeeded("connection url");
     return dbUrl;
   }
+
+  /**
+   * @return Database backend to connect to, mysql or h2.
+   */
+  public String getDbBackend() {
+    loadIfNeeded("database backend");
+    return dbBackend;
+  }
+
+  /**
+   * @return Maximum number of connections the pool may hold open at once.
+   */
+  public int getPoolMaxSize() {
+    loadIfNeeded("pool size");
+    return poolMaxSize;
+  }
+
+  /**
+   * @return Seconds an idle pooled connection is kept before being closed.
+   */
+  public int getPoolIdleTimeout() {
+    loadIfNeeded("pool idle timeout");
+    return poolIdleTimeout;
+  }
+
+  /**
+   * @return Seconds a pooled connection may live before being retired.
+   */
+  public int getPoolMaxLifetime() {
+    loadIfNeeded("pool max lifetime");
+    return poolMaxLifetime;
+  }
+
+  /**
+   * @return Seconds to wait for a free connection before giving up.
+   */
+  public int getPoolBorrowTimeout() {
+    loadIfNeeded("pool borrow timeout");
+    return poolBorrowTimeout;
+  }
+
+  /**
+   * @return Number of prepared statements cached per pooled connection.
+   */
+  public int getStatementCacheSize() {
+    loadIfNeeded("statement cache size");
+    return statementCacheSize;
+  }
+
+  /**
+   * @return Maximum attempts made for a transiently failing operation.
+   */
+  public int getRetryMaxAttempts() {
+    loadIfNeeded("retry attempts");
+    return retryMaxAttempts;
+  }
+
+  /**
+   * @return Base delay in milliseconds between retry attempts.
+   */
+  public int getRetryBaseDelay() {
+    loadIfNeeded("retry delay");
+    return retryBaseDelay;
+  }
+
+  /**
+   * @return Consecutive connection failures before calls fail fast.
+   */
+  public int getBreakerFailureThreshold() {
+    loadIfNeeded("breaker threshold");
+    return breakerFailureThreshold;
+  }
+
+  /**
+   * @return Seconds calls fail fast before a reconnect is attempted.
+   */
+  public int getBreakerOpenSeconds() {
+    loadIfNeeded("breaker open time");
+    return breakerOpenSeconds;
+  }
+
+  /**
+   * @return Url addresses of the read replicas, empty if none configured.
+   */
+  public List<String> getReplicaUrls() {
+    loadIfNeeded("replica urls");
+    return replicaUrls;
+  }
+
+  /**
+   * @return Seconds after a write during which reads stay on the primary.
+   */
+  public int getReplicaStickySeconds() {
+    loadIfNeeded("replica sticky time");
+    return replicaStickySeconds;
+  }
+
+  /**
+   * @return Seconds between replica health checks.
+   */
+  public int getReplicaCheckSeconds() {
+    loadIfNeeded("replica check interval");
+    return replicaCheckSeconds;
+  }
+
+  /**
+   * @return Appointments fetched per page for the main appointment table.
+   */
+  public int getApptPageSize() {
+    loadIfNeeded("appointment page size");
+    return apptPageSize;
+  }
+
+  /**
+   * @return Pages of appointments the main table keeps in memory.
+   */
+  public int getApptCachedPages() {
+    loadIfNeeded("appointment cached pages");
+    return apptCachedPages;
+  }
+
+  /**
+   * @return Days ahead of now the appointment conflict detector keeps in memory.
+   */
+  public int getConflictWindowDays() {
+    loadIfNeeded("conflict window");
+    return conflictWindowDays;
+  }
+
+  /**
+   * @return Rows fetched from the server at a time by streaming reads.
+   */
+  public int getStreamFetchSize() {
+    loadIfNeeded("stream fetch size");
+    return streamFetchSize;
+  }
+
+  /**
+   * @return Rows sent to the server per JDBC batch by bulk inserts and updates.
+   */
+  public int getBatchSize() {
+    loadIfNeeded("batch size");
+    return batchSize;
+  }
+
+  /**
+   * @return Seconds contacts, users, countries and divisions are cached for.
+   */
+  public int getReferenceCacheSeconds() {
+    loadIfNeeded("reference cache time");
+    return referenceCacheSeconds;
+  }
+
+  /**
+   * @return Seconds the customer list is cached for.
+   */
+  public int getCustomerCacheSeconds() {
+    loadIfNeeded("customer cache time");
+    return customerCacheSeconds;
+  }
+
+  /**
+   * @return Most recently read customers kept in memory by the identity map.
+   */
+  public int getIdentityMapSize() {
+    loadIfNeeded("identity map size");
+    return identityMapSize;
+  }
+
+  /**
+   * @return Seconds between polls for other clients' changes while changes are seen.
+   */
+  public int getChangePollSeconds() {
+    loadIfNeeded("change poll interval");
+    return changePollSeconds;
+  }
+
+  /**
+   * @return Most seconds between polls for other clients' changes.
+   */
+  public int getChangePollMaxSeconds() {
+    loadIfNeeded("change poll maximum interval");
+    return changePollMaxSeconds;
+  }
+
+  /**
+   * @return Path of the file the main view's data is saved to.
+   */
+  public String getSnapshotFile() {
+    loadIfNeeded("snapshot file");
+    return snapshotFile;
+  }
+
+  /**
+   * @return Seconds between saves of the main view's data.
+   */
+  public int getSnapshotSaveSeconds() {
+    loadIfNeeded("snapshot save interval");
+    return snapshotSaveSeconds;
+  }
+
+  /**
+   * @return Hours rows are kept in deleted_records before they are pruned.
+   */
+  public int getDeletedRetentionHours() {
+    loadIfNeeded("deleted record retention");
+    return deletedRetentionHours;
+  }
+
+  /**
+   * @return Path of the file query metrics are written to on exit.
+   */
+  public String getMetricsFile() {
+    loadIfNeeded("metrics file");
+    return metricsFile;
+  }
+
+  /**
+   * @return Milliseconds a statement may take before being logged as slow.
+   */
+  public int getSlowQueryMillis() {
+    loadIfNeeded("slow query threshold");
+    return slowQueryMillis;
+  }
+
+  /**
+   * @return Path of the slow query log file.
+   */
+  public String getSlowQueryFile() {
+    loadIfNeeded("slow query file");
+    return slowQueryFile;
+  }
+
+  /**
+   * @return Size in kilobytes at which the slow query log is rotated.
+   */
+  public int getSlowQueryMaxKb() {
+    loadIfNeeded("slow query log size");
+    return slowQueryMaxKb;
+  }
+
+  /**
+   * @return Number of rotated slow query logs kept.
+   */
+  public int getSlowQueryBackups() {
+    loadIfNeeded("slow query log backups");
+    return slowQueryBackups;
+  }
 }
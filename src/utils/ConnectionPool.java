@@ -0,0 +1,533 @@
+package utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of database connections shared by all DAO classes. Callers
+ * borrow a connection for a single unit of work and hand it back by calling
+ * close, which makes the pool usable with try-with-resources blocks.
+ * <p>
+ * Idle connections are validated before being lent out, retired once they
+ * exceed their maximum lifetime, and closed by a background housekeeper when
+ * left unused for longer than the idle timeout.
+ *
+ * @author Sakae Watanabe
+ */
+public class ConnectionPool {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Connections returned to the pool more recently than this many milliseconds
+   * are assumed healthy and skip the validation round trip on borrow.
+   */
+  private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+  /**
+   * Seconds to wait for the driver to confirm a connection is still valid.
+   */
+  private static final int VALIDATION_TIMEOUT_SECONDS = 3;
+
+  /**
+   * Seconds between housekeeping sweeps of the idle connections.
+   */
+  private static final long HOUSEKEEPING_PERIOD_SECONDS = 30;
+
+  /**
+   * JDBC url used to open new physical connections.
+   */
+  private final String jdbcUrl;
+
+  /**
+   * User name for opening new physical connections.
+   */
+  private final String username;
+
+  /**
+   * Password for opening new physical connections.
+   */
+  private final String password;
+
+  /**
+   * Maximum number of connections lent out at once.
+   */
+  private final int maxSize;
+
+  /**
+   * Milliseconds an idle connection is kept before the housekeeper closes it.
+   */
+  private final long idleTimeout;
+
+  /**
+   * Milliseconds a physical connection may live before it is retired.
+   */
+  private final long maxLifetime;
+
+  /**
+   * Milliseconds a caller will wait on an exhausted pool.
+   */
+  private final long borrowTimeout;
+
+  /**
+   * Number of prepared statements cached per physical connection.
+   */
+  private final int statementCacheSize;
+
+  /**
+   * Permits limiting the number of connections lent out at any one time.
+   */
+  private final Semaphore permits;
+
+  /**
+   * Idle connections ready to be lent out, most recently used first.
+   */
+  private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+  /**
+   * Background task closing idle and expired connections.
+   */
+  private final ScheduledExecutorService housekeeper;
+
+  /**
+   * Indicates the pool has been shut down and will not lend connections.
+   */
+  private volatile boolean shutdown = false;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Creates a connection pool for the given database. No connections are
+   * opened until the first borrow.
+   *
+   * @param jdbcUrl JDBC url for the database.
+   * @param username User name for the database login.
+   * @param password Password for the database login.
+   * @param maxSize Maximum number of connections lent out at once.
+   * @param idleTimeoutSeconds Seconds before an unused connection is closed.
+   * @param maxLifetimeSeconds Seconds before a connection is retired.
+   * @param borrowTimeoutSeconds Seconds to wait for a free connection.
+   * @param statementCacheSize Prepared statements cached per connection.
+   */
+  public ConnectionPool(String jdbcUrl, String username, String password, int maxSize,
+      int idleTimeoutSeconds, int maxLifetimeSeconds, int borrowTimeoutSeconds,
+      int statementCacheSize) {
+    this.jdbcUrl = jdbcUrl;
+    this.username = username;
+    this.password = password;
+    this.maxSize = maxSize;
+    this.permits = new Semaphore(maxSize, true);
+    this.idleTimeout = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+    this.maxLifetime = TimeUnit.SECONDS.toMillis(maxLifetimeSeconds);
+    this.borrowTimeout = TimeUnit.SECONDS.toMillis(borrowTimeoutSeconds);
+    this.statementCacheSize = statementCacheSize;
+
+    this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "db-pool-housekeeper");
+      t.setDaemon(true);
+      return t;
+    });
+    housekeeper.scheduleAtFixedRate(this::evictIdle, HOUSEKEEPING_PERIOD_SECONDS,
+        HOUSEKEEPING_PERIOD_SECONDS, TimeUnit.SECONDS);
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Borrows a connection from the pool, opening a new one when no idle
+   * connection passes validation. The returned connection must be closed by
+   * the caller to hand it back to the pool.
+   *
+   * @return Connection lent out to the caller.
+   * @throws SQLException if the pool is exhausted past the borrow timeout or a
+   *                      new connection cannot be opened.
+   */
+  public Connection borrow() throws SQLException {
+    if (shutdown) {
+      throw new SQLException("Connection pool has been shut down.", "08003");
+    }
+    try {
+      if (!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+        throw new BorrowTimeoutException(borrowTimeout);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for a database connection.", "08001", e);
+    }
+
+    try {
+      PooledConnection pooled;
+      while ((pooled = pollIdle()) != null) {
+        if (isUsable(pooled)) {
+          return pooled.lease();
+        }
+        pooled.closePhysical();
+      }
+      return open().lease();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Closes all idle connections and stops lending new ones. Connections still
+   * in use are closed as they are returned.
+   */
+  public void shutdown() {
+    shutdown = true;
+    housekeeper.shutdownNow();
+    List<PooledConnection> toClose;
+    synchronized (idle) {
+      toClose = new ArrayList<>(idle);
+      idle.clear();
+    }
+    toClose.forEach(PooledConnection::closePhysical);
+  }
+
+  /**
+   * @return Number of connections currently lent out.
+   */
+  public int getActiveCount() {
+    return maxSize - permits.availablePermits();
+  }
+
+  /**
+   * @return Number of open connections waiting in the pool.
+   */
+  public int getIdleCount() {
+    synchronized (idle) {
+      return idle.size();
+    }
+  }
+
+  /**
+   * @return Maximum number of connections lent out at once.
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Opens a new physical connection to the database.
+   *
+   * @return PooledConnection wrapping the new connection.
+   * @throws SQLException if the driver is unable to connect.
+   */
+  private PooledConnection open() throws SQLException {
+    Connection physical = DriverManager.getConnection(jdbcUrl, username, password);
+    return new PooledConnection(physical);
+  }
+
+  /**
+   * @return Most recently returned idle connection or null if none remain.
+   */
+  private PooledConnection pollIdle() {
+    synchronized (idle) {
+      return idle.pollFirst();
+    }
+  }
+
+  /**
+   * Checks that a pooled connection has not been discarded or outlived its
+   * lifetime and, if it has been idle for a while, that the database still
+   * answers on it.
+   *
+   * @param pooled Connection taken from the idle queue.
+   * @return True if the connection may be lent out.
+   */
+  private boolean isUsable(PooledConnection pooled) {
+    long now = System.currentTimeMillis();
+    if (pooled.broken || now - pooled.createdAt >= maxLifetime) {
+      return false;
+    }
+    if (now - pooled.lastReturned < VALIDATION_BYPASS_MILLIS) {
+      return true;
+    }
+    try {
+      return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Takes back a connection from a caller, closing it instead when it is
+   * broken, expired, or the pool has been shut down.
+   *
+   * @param pooled Connection being returned.
+   */
+  private void release(PooledConnection pooled) {
+    try {
+      long now = System.currentTimeMillis();
+      if (shutdown || pooled.broken || now - pooled.createdAt >= maxLifetime || !pooled.reset()) {
+        pooled.closePhysical();
+      } else {
+        pooled.lastReturned = now;
+        synchronized (idle) {
+          idle.offerFirst(pooled);
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Housekeeping task closing connections that have sat idle past the idle
+   * timeout or outlived the maximum lifetime.
+   */
+  private void evictIdle() {
+    long now = System.currentTimeMillis();
+    List<PooledConnection> toClose = new ArrayList<>();
+    synchronized (idle) {
+      Iterator<PooledConnection> it = idle.iterator();
+      while (it.hasNext()) {
+        PooledConnection pooled = it.next();
+        if (now - pooled.lastReturned >= idleTimeout || now - pooled.createdAt >= maxLifetime) {
+          it.remove();
+          toClose.add(pooled);
+        }
+      }
+    }
+    toClose.forEach(PooledConnection::closePhysical);
+  }
+
+  /**
+   * @param conn Connection to check.
+   * @return True if the connection was borrowed from this pool.
+   */
+  public boolean owns(Connection conn) {
+    if (!Proxy.isProxyClass(conn.getClass())) {
+      return false;
+    }
+    InvocationHandler handler = Proxy.getInvocationHandler(conn);
+    return handler instanceof Lease && ((Lease) handler).getPool() == this;
+  }
+
+  /**
+   * Marks a borrowed connection broken after a connection failure raised by
+   * one of its statements or result sets, which the lease does not see. The
+   * connection and its cached statements are closed when it is returned, or
+   * when next taken from the idle queue if it already has been, rather than
+   * lent out again.
+   *
+   * @param conn Connection borrowed from this pool.
+   */
+  public void discard(Connection conn) {
+    if (owns(conn)) {
+      ((Lease) Proxy.getInvocationHandler(conn)).pooled.broken = true;
+    }
+  }
+
+  /**
+   * Determines if the exception indicates the connection itself is no longer
+   * usable. See SQLRetry#isConnectionFailure.
+   *
+   * @param e SQLException thrown by the driver.
+   * @return True if the connection should be discarded.
+   */
+  static boolean isConnectionError(SQLException e) {
+    return SQLRetry.isConnectionFailure(e);
+  }
+
+  /**
+   * Thrown when every pooled connection stayed in use for the whole borrow
+   * timeout. The database itself may be healthy, so callers should not treat
+   * this as an outage.
+   */
+  static final class BorrowTimeoutException extends SQLTransientConnectionException {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param waitedMillis Milliseconds spent waiting for a connection.
+     */
+    private BorrowTimeoutException(long waitedMillis) {
+      super("Timed out after " + waitedMillis + "ms waiting for a database connection.",
+          "08001");
+    }
+  }
+
+  //===========================================================================
+  // Pooled Connection
+  //===========================================================================
+
+  /**
+   * Physical connection held by the pool along with its bookkeeping.
+   */
+  private final class PooledConnection {
+
+    /**
+     * Underlying driver connection.
+     */
+    private final Connection physical;
+
+    /**
+     * Time in milliseconds the physical connection was opened.
+     */
+    private final long createdAt;
+
+    /**
+     * Time in milliseconds the connection was last returned to the pool.
+     */
+    private volatile long lastReturned;
+
+    /**
+     * Set when the driver reports a connection level failure.
+     */
+    private volatile boolean broken = false;
+
+    /**
+     * Prepared statements kept open on this connection between borrows.
+     */
+    private final StatementCache statements = new StatementCache(statementCacheSize);
+
+    /**
+     * @param physical Newly opened driver connection.
+     */
+    private PooledConnection(Connection physical) {
+      this.physical = physical;
+      this.createdAt = System.currentTimeMillis();
+      this.lastReturned = createdAt;
+    }
+
+    /**
+     * @return Proxy handed to the borrower that returns to the pool on close.
+     */
+    private Connection lease() {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[]{Connection.class}, new Lease(this));
+    }
+
+    /**
+     * Rolls back any open transaction and restores auto commit so the next
+     * borrower receives a clean connection.
+     *
+     * @return True if the connection was reset successfully.
+     */
+    private boolean reset() {
+      try {
+        if (!physical.getAutoCommit()) {
+          physical.rollback();
+          physical.setAutoCommit(true);
+        }
+        return true;
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    /**
+     * Closes the underlying driver connection, ignoring failures.
+     */
+    private void closePhysical() {
+      statements.closeAll();
+      try {
+        physical.close();
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Invocation handler for a single borrow of a pooled connection. Calls are
+   * forwarded to the physical connection until close hands it back, after
+   * which the lease refuses further use.
+   */
+  private final class Lease implements InvocationHandler {
+
+    /**
+     * Pooled connection lent out through this lease.
+     */
+    private final PooledConnection pooled;
+
+    /**
+     * Indicates close has been called and the connection returned.
+     */
+    private boolean returned = false;
+
+    /**
+     * @param pooled Pooled connection being lent out.
+     */
+    private Lease(PooledConnection pooled) {
+      this.pooled = pooled;
+    }
+
+    /**
+     * @return Pool the leased connection belongs to.
+     */
+    private ConnectionPool getPool() {
+      return ConnectionPool.this;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!returned) {
+            returned = true;
+            release(pooled);
+          }
+          return null;
+        case "isClosed":
+          if (returned) {
+            return true;
+          }
+          break;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Pooled[" + pooled.physical + "]";
+        default:
+          break;
+      }
+      if (returned) {
+        throw new SQLException("Connection has already been returned to the pool.", "08003");
+      }
+      try {
+        if (StatementCache.isCacheable(method)) {
+          return pooled.statements.prepare(pooled.physical, (String) args[0],
+              StatementCache.generatedKeysFlag(args));
+        }
+        return method.invoke(pooled.physical, args);
+      } catch (SQLException e) {
+        if (isConnectionError(e)) {
+          pooled.broken = true;
+        }
+        throw e;
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException && isConnectionError((SQLException) cause)) {
+          pooled.broken = true;
+        }
+        throw cause;
+      }
+    }
+  }
+}
@@ -1,11 +1,33 @@
 package utils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Singleton utility to initialize connection to the database for DAO classes.
+ * Singleton utility to initialize the connection pool for DAO classes. DAO
+ * methods borrow a connection for each operation and return it by closing it,
+ * so independent loads can run concurrently on separate connections.
+ * <p>
+ * Work passed to read or write is retried with jittered exponential backoff
+ * when it fails transiently, and a circuit breaker fails calls immediately
+ * while the database is unreachable rather than letting each one wait out its
+ * own connection timeout.
+ * <p>
+ * When read replicas are configured, reports and bulk list reads passed to
+ * readReplica are spread across them. Writes, and any read made shortly after
+ * a write, go to the primary so users always see their own changes.
+ * <p>
+ * The dbBackend property selects MySQL or an in-memory H2 database, the
+ * latter created from a bundled schema script on first connect.
  *
  * @author Sakae Watanabe
  */
@@ -15,75 +37,486 @@ public class DBConnector {
   // JDBC Connection Information
   //===========================================================================
 
-  /**
-   * Connection protocol settings for MySQL database connection.
-   */
-  private static final String protocol = "jdbc";
-  private static final String vendor = ":mysql:";
-  private static final String timeZone = "?connectionTimeZone=SERVER";
-  private static final String MYSQL_JDBC_DRIVER = "com.mysql.cj.jdbc.Driver";
+  /** Dialect of the configured database backend. */
+  private static final SQLDialect dialect =
+      SQLDialect.forBackend(new ConfigProps().getDbBackend());
+
+  /** Connection pool shared by the application. */
+  private static volatile ConnectionPool pool = null;
 
-  /** Connection object for the utility. */
-  private static Connection conn = null;
+  /** Router for read replicas, null when none are configured. */
+  private static volatile ReplicaRouter replicas = null;
 
+  /** Time in nanoseconds of the most recent write to the primary. */
+  private static volatile long lastWrite = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+  /** Breaker failing calls fast while the database is unreachable. */
+  private static final CircuitBreaker breaker = createBreaker();
 
   /**
-   * Static method for initializing connection to the database. Intended to be
-   * called only at start of application. Initializes connection to database
-   * and returns Connection object. If connection has already been initialized
-   * simply returns a reference to the connection.
+   * Static method for initializing the connection pool. Intended to be called
+   * only at start of application. Opens and returns one connection to confirm
+   * the database is reachable. If the pool has already been initialized this
+   * method does nothing.
    *
    * @throws ClassNotFoundException if unable to locate the JDBC driver.
    * @throws SQLException if unable to establish connection to database.
    */
-  public static void startConnection() throws ClassNotFoundException, SQLException{
-    if(conn == null){
+  public static synchronized void startConnection() throws ClassNotFoundException, SQLException{
+    if(pool == null){
       ConfigProps config = new ConfigProps();
 
-      String jdbcURL = protocol + vendor + config.getDbUrl() + timeZone;
+      String jdbcURL = dialect.jdbcUrl(config.getDbUrl());
+      String user = config.getUsername() != null ? config.getUsername()
+          : dialect.getDefaultUser();
 
-      Class.forName(MYSQL_JDBC_DRIVER);
-      conn = DriverManager.getConnection(jdbcURL, config.getUsername(),
-          config.getPassword());
-      System.out.println("Connection successful.");
+      Class.forName(dialect.getDriverClass());
+      ConnectionPool newPool = new ConnectionPool(jdbcURL, user,
+          config.getPassword(), config.getPoolMaxSize(), config.getPoolIdleTimeout(),
+          config.getPoolMaxLifetime(), config.getPoolBorrowTimeout(),
+          config.getStatementCacheSize());
+      try (Connection conn = newPool.borrow()) {
+        runSchemaScript(conn);
+        pool = newPool;
+      } catch (SQLException e) {
+        newPool.shutdown();
+        throw e;
+      }
+      List<String> replicaUrls = new ArrayList<>();
+      config.getReplicaUrls().forEach(url -> replicaUrls.add(dialect.jdbcUrl(url)));
+      if (!replicaUrls.isEmpty()) {
+        replicas = new ReplicaRouter(replicaUrls, user, config.getPassword(),
+            config);
+        System.out.println("Routing reports to " + replicaUrls.size() + " replica(s).");
+      }
+      System.out.println("Connection successful (" + dialect.getName() + ").");
     }
   }
 
   /**
-   * Returns a reference for the database connection. If connection has not yet
-   * been initialized will call the startConnection method.
+   * Borrows a connection from the pool, initializing the pool first if needed.
+   * Callers must close the connection to return it, typically with a
+   * try-with-resources block around the unit of work. Fails immediately with
+   * DatabaseUnavailableException while the circuit breaker is open.
    *
    * @return Connection object to the application database.
+   * @throws SQLException if the pool cannot supply a connection.
+   */
+  public static Connection getConnection() throws SQLException {
+    boolean trial = breaker.beforeCall();
+    boolean recorded = false;
+    try {
+      Connection conn = borrow();
+      breaker.onSuccess();
+      recorded = true;
+      return QueryMetrics.instrument(conn);
+    } catch (SQLException e) {
+      recorded = recordFailure(e);
+      throw e;
+    } finally {
+      if (trial && !recorded) {
+        // A busy pool or unexpected error says nothing of the database.
+        breaker.onTrialAborted();
+      }
+    }
+  }
+
+  /**
+   * Runs read only work against a pooled connection. Any transient failure,
+   * including a connection lost part way through, is retried on a fresh
+   * connection since repeating a read has no side effects.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run against the borrowed connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails permanently or retries run out.
+   */
+  public static <T> T read(SQLWork<T> work) throws SQLException {
+    return measured(() -> run(work, true));
+  }
+
+  /**
+   * Runs work that modifies data against a pooled connection. Failures to
+   * obtain a connection and statements the server rolled back (deadlock, lock
+   * wait timeout) are retried. A connection lost after the statement was sent
+   * is not, as the server may already have applied the change.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run against the borrowed connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails permanently or retries run out.
    */
-  public static Connection getConnection() {
-    if(conn == null) {
+  public static <T> T write(SQLWork<T> work) throws SQLException {
+    return measured(() -> {
       try {
-        startConnection();
-      } catch (ClassNotFoundException e) {
-        NotificationHandler.warningPopup("Database Connector", e.getMessage());
-        e.printStackTrace();
+        return run(work, false);
+      } finally {
+        lastWrite = System.nanoTime();
+      }
+    });
+  }
+
+  /**
+   * Runs work against the primary database in one transaction, committed if
+   * the work succeeds and rolled back otherwise. Retried as a whole as write
+   * retries, so the work must start from scratch each time it runs. Auto
+   * commit is restored by the pool when the connection is returned.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run in the transaction.
+   * @return Result of the work.
+   * @throws SQLException if the work or the commit fails.
+   */
+  public static <T> T transaction(SQLWork<T> work) throws SQLException {
+    return write(conn -> {
+      conn.setAutoCommit(false);
+      try {
+        T result = work.run(conn);
+        conn.commit();
+        return result;
       } catch (SQLException e) {
-        NotificationHandler.sqlPopup("Database Connector", e);
-        e.printStackTrace();
+        try {
+          conn.rollback();
+        } catch (SQLException rollbackError) {
+          e.addSuppressed(rollbackError);
+        }
+        throw e;
+      }
+    });
+  }
+
+  /**
+   * Runs read only work that tolerates slightly stale data, such as reports
+   * and bulk list loads, on a read replica. Falls back to the primary when no
+   * replica is configured or healthy, when the replica connection fails, or
+   * when this application wrote to the primary within the sticky window so
+   * the replica may not have the change yet.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run against the borrowed connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails permanently or retries run out.
+   */
+  public static <T> T readReplica(SQLWork<T> work) throws SQLException {
+    return measured(() -> routeReplica(work));
+  }
+
+  /**
+   * Runs the work on a healthy replica, falling back to the primary.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run against the borrowed connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails permanently or retries run out.
+   */
+  private static <T> T routeReplica(SQLWork<T> work) throws SQLException {
+    Connection conn = borrowReplica();
+    if (conn == null) {
+      return read(work);
+    }
+    try (Connection instrumented = QueryMetrics.instrument(conn)) {
+      return work.run(instrumented);
+    } catch (SQLException e) {
+      if (!SQLRetry.isConnectionFailure(e)) {
+        throw e;
       }
+      replicas.reportFailure(conn, e);
     }
-    return conn;
+    return read(work);
   }
 
+  /**
+   * Runs read only work that streams rows to a consumer as they are fetched,
+   * on a replica when one is healthy. Unlike readReplica, the work is never
+   * repeated once it has started, on the replica or the primary, as rows
+   * already handed to the consumer would be delivered twice. Failures to
+   * obtain a connection are still retried.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run against the borrowed connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails.
+   */
+  public static <T> T stream(SQLWork<T> work) throws SQLException {
+    return measured(() -> {
+      Connection conn = borrowReplica();
+      if (conn == null) {
+        try (Connection primary = connect()) {
+          return runOn(primary, work);
+        }
+      }
+      try (Connection instrumented = QueryMetrics.instrument(conn)) {
+        return work.run(instrumented);
+      } catch (SQLException e) {
+        if (SQLRetry.isConnectionFailure(e)) {
+          replicas.reportFailure(conn, e);
+        }
+        throw e;
+      }
+    });
+  }
+
+  /**
+   * Borrows a connection to a healthy replica, unless none is configured or
+   * this application wrote to the primary within the sticky window.
+   *
+   * @return Replica connection, or null if reads should go to the primary.
+   */
+  private static Connection borrowReplica() {
+    ReplicaRouter router = replicas;
+    long sticky = TimeUnit.SECONDS.toNanos(new ConfigProps().getReplicaStickySeconds());
+    if (router == null || System.nanoTime() - lastWrite < sticky) {
+      return null;
+    }
+    return router.borrow();
+  }
 
   /**
-   * Attempts to close the active database connection. Method should be called
-   * when user is finished with application.
+   * Times a database call for the diagnostics view, attributing it to the DAO
+   * method that made it.
+   *
+   * @param <T> Type of result produced by the call.
+   * @param body Call to time.
+   * @return Result of the call.
+   * @throws SQLException if the call fails.
    */
-  public static void closeConnection() {
+  private static <T> T measured(SQLCall<T> body) throws SQLException {
+    QueryMetrics.Call call = QueryMetrics.beginCall();
+    boolean failed = true;
     try {
-      conn.close();
-      System.out.println("Connection has been closed.");
+      T result = body.call();
+      failed = false;
+      return result;
+    } finally {
+      QueryMetrics.endCall(call, failed);
     }
-    catch (SQLException e) {
-      e.printStackTrace();
+  }
+
+  /**
+   * Retry loop shared by read and write.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param work Statements to run against the borrowed connection.
+   * @param idempotent True if the work may be repeated after a lost connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails permanently or retries run out.
+   */
+  private static <T> T run(SQLWork<T> work, boolean idempotent) throws SQLException {
+    ConfigProps config = new ConfigProps();
+    for (int attempt = 1; ; attempt++) {
+      boolean sent = false;
+      try (Connection conn = getConnection()) {
+        sent = true;
+        return runOn(conn, work);
+      } catch (DatabaseUnavailableException e) {
+        throw e;
+      } catch (SQLException e) {
+        boolean retry = SQLRetry.isRolledBack(e)
+            || (SQLRetry.isConnectionFailure(e) && (idempotent || !sent));
+        if (!retry) {
+          throw e;
+        }
+        backOff(attempt, config, e);
+      }
     }
   }
 
+  /**
+   * Borrows a primary connection, retrying failures to obtain one as run
+   * does.
+   *
+   * @return Connection object to the application database.
+   * @throws SQLException if no connection can be obtained.
+   */
+  private static Connection connect() throws SQLException {
+    ConfigProps config = new ConfigProps();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return getConnection();
+      } catch (DatabaseUnavailableException e) {
+        throw e;
+      } catch (SQLException e) {
+        if (!SQLRetry.isConnectionFailure(e)) {
+          throw e;
+        }
+        backOff(attempt, config, e);
+      }
+    }
+  }
+
+  /**
+   * Waits before the next attempt, or rethrows the failure once attempts run
+   * out or the wait is interrupted.
+   *
+   * @param attempt Number of the attempt that failed, from one.
+   * @param config Configuration supplying the attempts and base delay.
+   * @param e Transient failure of the attempt.
+   * @throws SQLException the failure, if no further attempt should be made.
+   */
+  private static void backOff(int attempt, ConfigProps config, SQLException e)
+      throws SQLException {
+    int maxAttempts = config.getRetryMaxAttempts();
+    if (attempt >= maxAttempts) {
+      throw e;
+    }
+    long delay = SQLRetry.backoff(attempt, config.getRetryBaseDelay());
+    System.out.println("Retrying after " + e.getSQLState() + " in " + delay + "ms ("
+        + attempt + "/" + maxAttempts + "): " + e.getMessage());
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+
+  /**
+   * Runs work on a borrowed primary connection, counting its failures
+   * against the circuit breaker. A connection failure raised by the work
+   * marks the connection broken, so it is closed on return and a retry
+   * borrows a fresh one rather than the same dead link.
+   *
+   * @param <T> Type of result produced by the work.
+   * @param conn Connection borrowed from the primary pool.
+   * @param work Statements to run against the connection.
+   * @return Result of the work.
+   * @throws SQLException if the work fails.
+   */
+  private static <T> T runOn(Connection conn, SQLWork<T> work) throws SQLException {
+    try {
+      return work.run(conn);
+    } catch (SQLException e) {
+      recordFailure(e);
+      ConnectionPool current = pool;
+      if (current != null && SQLRetry.isConnectionFailure(e)) {
+        current.discard(QueryMetrics.original(conn));
+      }
+      throw e;
+    }
+  }
 
+  /**
+   * @return Dialect of the configured database backend, for DAOs building
+   *         queries that differ between databases.
+   */
+  public static SQLDialect dialect() {
+    return dialect;
+  }
+
+  /**
+   * Creates the schema for an embedded database from the dialect's script.
+   * Statements are separated by semicolons at the end of a line and lines
+   * starting with -- are skipped. Does nothing for server databases.
+   *
+   * @param conn Connection to the freshly started database.
+   * @throws SQLException if a statement fails or the script is missing.
+   */
+  private static void runSchemaScript(Connection conn) throws SQLException {
+    String script = dialect.getSchemaScript();
+    if (script == null) {
+      return;
+    }
+    InputStream in = DBConnector.class.getClassLoader().getResourceAsStream(script);
+    if (in == null) {
+      throw new SQLException("Schema script " + script + " not found.");
+    }
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(in, StandardCharsets.UTF_8));
+         Statement stmt = conn.createStatement()) {
+      StringBuilder sql = new StringBuilder();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+          continue;
+        }
+        sql.append(line).append('\n');
+        if (trimmed.endsWith(";")) {
+          sql.setLength(sql.lastIndexOf(";"));
+          stmt.execute(sql.toString());
+          sql.setLength(0);
+        }
+      }
+    } catch (IOException e) {
+      throw new SQLException("Unable to read schema script " + script, e);
+    }
+  }
+
+  /**
+   * Borrows from the pool, starting it first if this is the initial call.
+   *
+   * @return Connection object to the application database.
+   * @throws SQLException if the pool cannot supply a connection.
+   */
+  private static Connection borrow() throws SQLException {
+    ConnectionPool current = pool;
+    if(current == null) {
+      try {
+        startConnection();
+      } catch (ClassNotFoundException e) {
+        throw new SQLException("JDBC driver not found: " + e.getMessage(), "08001", e);
+      }
+      current = pool;
+    }
+    return current.borrow();
+  }
+
+  /**
+   * @return Circuit breaker configured from config.properties.
+   */
+  private static CircuitBreaker createBreaker() {
+    ConfigProps config = new ConfigProps();
+    return new CircuitBreaker(config.getBreakerFailureThreshold(), config.getBreakerOpenSeconds());
+  }
+
+  /**
+   * Counts connection failures against the circuit breaker. A busy pool does
+   * not count, nor do ordinary SQL errors, which show the database is up.
+   *
+   * @param e SQLException raised by the pool, driver or work.
+   * @return True if the exception was counted against the breaker.
+   */
+  private static boolean recordFailure(SQLException e) {
+    if (e instanceof ConnectionPool.BorrowTimeoutException) {
+      return false;
+    }
+    if (SQLRetry.isConnectionFailure(e)) {
+      breaker.onFailure();
+    } else {
+      breaker.onSuccess();
+    }
+    return true;
+  }
+
+  /**
+   * Closes all pooled database connections. Method should be called when user
+   * is finished with application.
+   */
+  public static synchronized void closeConnection() {
+    if (replicas != null) {
+      replicas.shutdown();
+      replicas = null;
+    }
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+      System.out.println(StatementCache.summary());
+      System.out.println("Connection has been closed.");
+    }
+  }
+
+  /**
+   * Database call timed by measured.
+   *
+   * @param <T> Type of result produced by the call.
+   */
+  @FunctionalInterface
+  private interface SQLCall<T> {
+
+    /**
+     * @return Result of the call.
+     * @throws SQLException if the call fails.
+     */
+    T call() throws SQLException;
+  }
 }
@@ -0,0 +1,171 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javafx.application.Platform;
+
+/**
+ * Utility for running database work off the JavaFX application thread. Tasks
+ * run on virtual threads when the runtime supports them (Java 21 and later)
+ * and on a cached pool of daemon threads otherwise. Results are handed back on
+ * the JavaFX application thread so callers may update controls directly.
+ * The controller that submitted a task is remembered while it runs so slow
+ * query logging can name it.
+ *
+ * @author Sakae Watanabe
+ */
+public class DBExecutor {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Executor running blocking database tasks.
+   */
+  private static final ExecutorService executor = createExecutor();
+
+  /**
+   * Controller method that submitted the task running on each worker thread.
+   */
+  private static final ThreadLocal<String> origin = new ThreadLocal<>();
+
+  /**
+   * Executor handing work to the JavaFX application thread.
+   */
+  private static final Executor fxExecutor = task -> {
+    if (Platform.isFxApplicationThread()) {
+      task.run();
+    } else {
+      Platform.runLater(task);
+    }
+  };
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Runs the task on a database worker thread and completes the returned
+   * future on the JavaFX application thread.
+   *
+   * @param <T> Type of result produced by the task.
+   * @param task Blocking database work to run.
+   * @return CompletableFuture completed on the JavaFX thread with the result.
+   */
+  public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    CompletableFuture.supplyAsync(withOrigin(task), executor).whenComplete((value, error) ->
+        fxExecutor.execute(() -> {
+          if (error != null) {
+            result.completeExceptionally(error);
+          } else {
+            result.complete(value);
+          }
+        }));
+    return result;
+  }
+
+  /**
+   * Runs the task on a database worker thread without handing the result back
+   * to the JavaFX thread. Intended for background work that does not touch
+   * controls.
+   *
+   * @param <T> Type of result produced by the task.
+   * @param task Blocking database work to run.
+   * @return CompletableFuture completed on the worker thread.
+   */
+  public static <T> CompletableFuture<T> supplyInBackground(Supplier<T> task) {
+    return CompletableFuture.supplyAsync(withOrigin(task), executor);
+  }
+
+  /**
+   * @return Executor running tasks on the JavaFX application thread.
+   */
+  public static Executor fxExecutor() {
+    return fxExecutor;
+  }
+
+  /**
+   * @return Executor running blocking database tasks.
+   */
+  public static Executor dbExecutor() {
+    return executor;
+  }
+
+  /**
+   * Stops accepting new tasks. Called when the application exits.
+   */
+  public static void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Names the controller method responsible for the database work running on
+   * this thread, either the one that submitted the task or, for work run
+   * directly, the nearest controller frame on the stack.
+   *
+   * @return Simple class and method name, or "unknown" if none found.
+   */
+  public static String origin() {
+    String submitter = origin.get();
+    return submitter != null ? submitter : findOrigin();
+  }
+
+  /**
+   * Wraps the task so it runs with the submitting controller recorded.
+   *
+   * @param <T> Type of result produced by the task.
+   * @param task Task being submitted.
+   * @return Task setting and clearing the origin around the original.
+   */
+  private static <T> Supplier<T> withOrigin(Supplier<T> task) {
+    String submitter = origin();
+    return () -> {
+      origin.set(submitter);
+      try {
+        return task.get();
+      } finally {
+        origin.remove();
+      }
+    };
+  }
+
+  /**
+   * @return First controller frame on the current stack, or "unknown".
+   */
+  private static String findOrigin() {
+    return StackWalker.getInstance().walk(frames -> frames
+        .filter(f -> f.getClassName().startsWith("view_controller."))
+        .findFirst()
+        .map(f -> f.getClassName().substring("view_controller.".length()) + "."
+            + f.getMethodName())
+        .orElse("unknown"));
+  }
+
+  /**
+   * Creates a virtual thread per task executor when available, otherwise a
+   * cached pool of daemon threads. Reflection keeps the code compiling for the
+   * Java 11 language level the project targets.
+   *
+   * @return ExecutorService for database tasks.
+   */
+  private static ExecutorService createExecutor() {
+    try {
+      Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) virtual.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      AtomicInteger count = new AtomicInteger();
+      return Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "db-worker-" + count.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+}
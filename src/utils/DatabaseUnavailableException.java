@@ -0,0 +1,23 @@
+package utils;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown without contacting the database while the circuit breaker is open
+ * after repeated connection failures.
+ *
+ * @author Sakae Watanabe
+ */
+public class DatabaseUnavailableException extends SQLTransientConnectionException {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * @param retryInSeconds Seconds until the next connection attempt is allowed.
+   */
+  public DatabaseUnavailableException(long retryInSeconds) {
+    super("Database unavailable, next connection attempt in " + retryInSeconds + "s.",
+        "08001");
+  }
+}
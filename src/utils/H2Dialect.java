@@ -0,0 +1,93 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * SQL dialect for an in-memory H2 database standing in for MySQL. The
+ * database lives for the life of the application and is created from
+ * JFXAppointmentsH2.sql on first connect, so DAOs and reports can be run for
+ * benchmarks or demos without a server.
+ *
+ * @author Sakae Watanabe
+ */
+public class H2Dialect implements SQLDialect {
+
+  //===========================================================================
+  // JDBC Connection Information
+  //===========================================================================
+
+  /**
+   * Connection settings for the in-memory database. MySQL mode covers NOW()
+   * and AUTO_INCREMENT, lower casing matches the unquoted MySQL identifiers,
+   * and END is freed for use as the appointment column name.
+   */
+  private static final String protocol = "jdbc:h2:mem:";
+  private static final String defaultName = "appointments";
+  private static final String options = ";DB_CLOSE_DELAY=-1;MODE=MySQL"
+      + ";DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=END,VALUE";
+  private static final String H2_JDBC_DRIVER = "org.h2.Driver";
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public String getName() {
+    return "h2";
+  }
+
+  @Override
+  public String getDriverClass() {
+    return H2_JDBC_DRIVER;
+  }
+
+  /**
+   * Uses the last path segment of the address as the database name, so
+   * dbUrl may be left as it is for MySQL or omitted.
+   */
+  @Override
+  public String jdbcUrl(String address) {
+    String name = defaultName;
+    if (address != null && !address.isBlank()) {
+      name = address.substring(address.lastIndexOf('/') + 1);
+    }
+    return protocol + name + options;
+  }
+
+  @Override
+  public String getDefaultUser() {
+    return "sa";
+  }
+
+  @Override
+  public String getSchemaScript() {
+    return "utils/JFXAppointmentsH2.sql";
+  }
+
+  @Override
+  public String monthOf(String column) {
+    return "EXTRACT(MONTH FROM " + column + ")";
+  }
+
+  @Override
+  public String sumIf(String condition, String value) {
+    return "SUM(CASE WHEN " + condition + " THEN " + value + " ELSE 0 END)";
+  }
+
+  @Override
+  public String dropIndex(String table, String index) {
+    return "DROP INDEX IF EXISTS " + index;
+  }
+
+  /**
+   * Names the key column explicitly, as H2 otherwise also returns columns
+   * filled from defaults.
+   */
+  @Override
+  public PreparedStatement prepareInsert(Connection conn, String sql, String keyColumn)
+      throws SQLException {
+    return conn.prepareStatement(sql, new String[]{keyColumn.toLowerCase()});
+  }
+}
@@ -0,0 +1,157 @@
+package utils;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps one canonical instance of each record read from the database, keyed
+ * by id, so every view showing a record shares the same object. A record
+ * read again is not handed out as a new object; the canonical instance is
+ * returned instead, refreshed in place unless the row's Last_Update is older
+ * than when it was last seen, as may happen reading from a lagging replica.
+ * Rows with the same Last_Update are applied again, as Last_Update only
+ * counts whole seconds and two changes may share one.
+ * <p>
+ * Instances are held weakly, so records no view refers to any longer are
+ * dropped by the garbage collector. The most recently read records, up to a
+ * fixed number, are also held strongly so that records read, let go and read
+ * again shortly after keep their identity.
+ * <p>
+ * Instances may be bound to controls, so refreshes are run on the JavaFX
+ * thread. They are queued before the read that triggered them is handed
+ * back to the JavaFX thread, so callers receive already refreshed instances.
+ *
+ * @param <T> Type of record held.
+ * @author Sakae Watanabe
+ */
+public class IdentityMap<T> {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Copies the values of a newer read into the canonical instance.
+   */
+  private final BiConsumer<T, T> refresh;
+
+  /**
+   * Canonical instance of each record, by id.
+   */
+  private final Map<Integer, Entry<T>> entries = new HashMap<>();
+
+  /**
+   * Entries whose instance has been collected, to be removed.
+   */
+  private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+  /**
+   * Most recently read instances, least recent first, held strongly.
+   */
+  private final LinkedHashMap<Integer, T> recent;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * @param refresh Copies the values of a newer read, the second argument,
+   *                into the canonical instance, the first.
+   * @param maxRecent Most recently read instances held strongly.
+   */
+  public IdentityMap(BiConsumer<T, T> refresh, int maxRecent) {
+    this.refresh = refresh;
+    this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+        return size() > maxRecent;
+      }
+    };
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Returns the canonical instance of a record just read, registering the
+   * one read if there is none.
+   *
+   * @param id Id of the record.
+   * @param read Instance built from the row read.
+   * @param lastUpdate Last_Update of the row read.
+   * @return Canonical instance of the record.
+   */
+  public synchronized T canonical(int id, T read, LocalDateTime lastUpdate) {
+    expungeCollected();
+    Entry<T> entry = entries.get(id);
+    T held = entry == null ? null : entry.get();
+
+    if (held == null) {
+      entries.put(id, new Entry<>(id, read, lastUpdate, collected));
+      held = read;
+    } else if (lastUpdate != null
+        && (entry.lastUpdate == null || !lastUpdate.isBefore(entry.lastUpdate))) {
+      entry.lastUpdate = lastUpdate;
+      T canonical = held;
+      DBExecutor.fxExecutor().execute(() -> refresh.accept(canonical, read));
+    }
+    recent.put(id, held);
+    return held;
+  }
+
+  /**
+   * @return Number of records with a canonical instance still reachable.
+   */
+  public synchronized int size() {
+    expungeCollected();
+    return entries.size();
+  }
+
+  /**
+   * Removes the entries of instances the garbage collector has dropped.
+   */
+  private void expungeCollected() {
+    Object ref;
+    while ((ref = collected.poll()) != null) {
+      Entry<?> entry = (Entry<?>) ref;
+      entries.remove(entry.id, entry);
+    }
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * Weak reference to a canonical instance, with the id and Last_Update it
+   * was last read with.
+   *
+   * @param <T> Type of record held.
+   */
+  private static final class Entry<T> extends WeakReference<T> {
+
+    /** Id of the record. */
+    private final int id;
+
+    /** Last_Update of the newest row read for the record. */
+    private LocalDateTime lastUpdate;
+
+    /**
+     * @param id Id of the record.
+     * @param instance Canonical instance.
+     * @param lastUpdate Last_Update of the row read.
+     * @param queue Queue notified once the instance is collected.
+     */
+    private Entry(int id, T instance, LocalDateTime lastUpdate, ReferenceQueue<T> queue) {
+      super(instance, queue);
+      this.id = id;
+      this.lastUpdate = lastUpdate;
+    }
+  }
+}
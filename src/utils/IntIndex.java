@@ -0,0 +1,122 @@
+package utils;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read only index of records by an int key, such as their id. Keys are kept
+ * in a primitive array probed by open addressing, so lookups neither box the
+ * key nor depend on the order of the list the index was built from. The
+ * table is kept at most half full, keeping probe sequences short.
+ * <p>
+ * The index is built once from a list and not updated; build a new one when
+ * the list is loaded again. Where records share a key the last one wins.
+ *
+ * @param <T> Type of record indexed.
+ * @author Sakae Watanabe
+ */
+public class IntIndex<T> {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Multiplier spreading consecutive keys across the table.
+   */
+  private static final int MIX = 0x9E3779B9;
+
+  /**
+   * Key held in each slot, meaningful only where the slot holds a record.
+   */
+  private final int[] keys;
+
+  /**
+   * Record held in each slot, null for an empty slot.
+   */
+  private final Object[] values;
+
+  /**
+   * Mask reducing a hash to a slot, the table length less one.
+   */
+  private final int mask;
+
+  /**
+   * Number of distinct keys indexed.
+   */
+  private int size;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Builds the index over the records of a list.
+   *
+   * @param records Records to index, none of them null.
+   * @param key Reads the key of a record.
+   */
+  public IntIndex(List<? extends T> records, ToIntFunction<? super T> key) {
+    int capacity = Integer.highestOneBit(Math.max(2, records.size()) * 2 - 1) << 1;
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+
+    for (T record : records) {
+      put(key.applyAsInt(record), record);
+    }
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @param key Key of the record.
+   * @return Record with the key, null if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int key) {
+    for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return (T) values[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return Number of distinct keys indexed.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Stores a record in the first free slot of its probe sequence, or over
+   * the record already holding its key.
+   *
+   * @param key Key of the record.
+   * @param record Record to store.
+   */
+  private void put(int key, Object record) {
+    int i = slot(key);
+    while (values[i] != null && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    if (values[i] == null) {
+      size++;
+    }
+    keys[i] = key;
+    values[i] = record;
+  }
+
+  /**
+   * @param key Key to place.
+   * @return First slot of the key's probe sequence.
+   */
+  private int slot(int key) {
+    int h = key * MIX;
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
@@ -0,0 +1,326 @@
+package utils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Augmented interval tree of half open time intervals, each tagged with an
+ * integer id. Intervals are kept in a balanced (AVL) binary search tree
+ * ordered by start time then id, and every node records the latest end time
+ * in its subtree. An overlap query skips any subtree ending before the query
+ * starts and any right subtree starting after the query ends, so it visits
+ * O(log n + k) nodes for k overlapping intervals.
+ * <p>
+ * Not thread safe.
+ *
+ * @param <T> Type of value stored with each interval.
+ * @author Sakae Watanabe
+ */
+public class IntervalTree<T> {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Root node, null while the tree is empty. */
+  private Node<T> root = null;
+
+  /** Number of intervals in the tree. */
+  private int size = 0;
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Adds an interval. An interval with the same start and id is replaced.
+   *
+   * @param start Start of the interval, inclusive.
+   * @param end End of the interval, exclusive.
+   * @param id Id identifying the interval among those with the same start.
+   * @param value Value returned by overlap queries for the interval.
+   */
+  public void insert(LocalDateTime start, LocalDateTime end, int id, T value) {
+    root = insert(root, new Node<>(start, end, id, value));
+  }
+
+  /**
+   * Removes an interval.
+   *
+   * @param start Start the interval was inserted with.
+   * @param id Id the interval was inserted with.
+   * @return True if the interval was found and removed.
+   */
+  public boolean remove(LocalDateTime start, int id) {
+    int before = size;
+    root = remove(root, start, id);
+    return size < before;
+  }
+
+  /**
+   * Finds the intervals overlapping a half open interval. Intervals touching
+   * it end to end do not overlap.
+   *
+   * @param start Start of the query interval, inclusive.
+   * @param end End of the query interval, exclusive.
+   * @param ignore Id of an interval to leave out of the result.
+   * @return Values of the overlapping intervals in start order.
+   */
+  public List<T> overlapping(LocalDateTime start, LocalDateTime end, int ignore) {
+    List<T> found = new ArrayList<>();
+    collect(root, start, end, ignore, found);
+    return found;
+  }
+
+  /**
+   * @return Number of intervals in the tree.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return True if the tree holds no intervals.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes every interval.
+   */
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  /**
+   * Adds overlapping intervals of a subtree to the result in order.
+   *
+   * @param node Root of the subtree.
+   * @param start Start of the query interval.
+   * @param end End of the query interval.
+   * @param ignore Id to leave out.
+   * @param found Result the overlapping values are added to.
+   */
+  private static <T> void collect(Node<T> node, LocalDateTime start, LocalDateTime end,
+      int ignore, List<T> found) {
+    if (node == null || !node.maxEnd.isAfter(start)) {
+      return;
+    }
+    collect(node.left, start, end, ignore, found);
+    if (!node.start.isBefore(end)) {
+      return;
+    }
+    if (node.end.isAfter(start) && node.id != ignore) {
+      found.add(node.value);
+    }
+    collect(node.right, start, end, ignore, found);
+  }
+
+  /**
+   * @param node Root of the subtree to insert into.
+   * @param added Node to insert.
+   * @return New root of the subtree.
+   */
+  private Node<T> insert(Node<T> node, Node<T> added) {
+    if (node == null) {
+      size++;
+      return added;
+    }
+    int order = compare(added.start, added.id, node);
+    if (order < 0) {
+      node.left = insert(node.left, added);
+    } else if (order > 0) {
+      node.right = insert(node.right, added);
+    } else {
+      node.end = added.end;
+      node.value = added.value;
+    }
+    return rebalance(node);
+  }
+
+  /**
+   * @param node Root of the subtree to remove from.
+   * @param start Start of the interval to remove.
+   * @param id Id of the interval to remove.
+   * @return New root of the subtree.
+   */
+  private Node<T> remove(Node<T> node, LocalDateTime start, int id) {
+    if (node == null) {
+      return null;
+    }
+    int order = compare(start, id, node);
+    if (order < 0) {
+      node.left = remove(node.left, start, id);
+    } else if (order > 0) {
+      node.right = remove(node.right, start, id);
+    } else {
+      size--;
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Node<T> successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      node.right = removeFirst(node.right);
+      successor.left = node.left;
+      successor.right = node.right;
+      node = successor;
+    }
+    return rebalance(node);
+  }
+
+  /**
+   * @param node Root of the subtree.
+   * @return Subtree with its first node removed.
+   */
+  private Node<T> removeFirst(Node<T> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = removeFirst(node.left);
+    return rebalance(node);
+  }
+
+  /**
+   * Restores the height balance of a node whose children have changed and
+   * recomputes its height and latest end.
+   *
+   * @param node Node to rebalance.
+   * @return New root of the subtree.
+   */
+  private static <T> Node<T> rebalance(Node<T> node) {
+    update(node);
+    int balance = height(node.left) - height(node.right);
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  /**
+   * @param node Node whose left child becomes the subtree root.
+   * @return New root of the subtree.
+   */
+  private static <T> Node<T> rotateRight(Node<T> node) {
+    Node<T> pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  /**
+   * @param node Node whose right child becomes the subtree root.
+   * @return New root of the subtree.
+   */
+  private static <T> Node<T> rotateLeft(Node<T> node) {
+    Node<T> pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  /**
+   * Recomputes the height and latest end of a node from its children.
+   *
+   * @param node Node to update.
+   */
+  private static <T> void update(Node<T> node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    node.maxEnd = node.end;
+    if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+      node.maxEnd = node.left.maxEnd;
+    }
+    if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+      node.maxEnd = node.right.maxEnd;
+    }
+  }
+
+  /**
+   * @param node Node or null.
+   * @return Height of the subtree, zero when empty.
+   */
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * @param start Start of the interval being placed.
+   * @param id Id of the interval being placed.
+   * @param node Node to compare against.
+   * @return Negative, zero or positive as the interval sorts before, with or after the node.
+   */
+  private static int compare(LocalDateTime start, int id, Node<?> node) {
+    int order = start.compareTo(node.start);
+    return order != 0 ? order : Integer.compare(id, node.id);
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * Tree node holding one interval.
+   *
+   * @param <T> Type of value stored with the interval.
+   */
+  private static final class Node<T> {
+
+    /** Start of the interval, inclusive. */
+    private final LocalDateTime start;
+
+    /** Id of the interval. */
+    private final int id;
+
+    /** End of the interval, exclusive. */
+    private LocalDateTime end;
+
+    /** Value stored with the interval. */
+    private T value;
+
+    /** Latest end of any interval in this subtree. */
+    private LocalDateTime maxEnd;
+
+    /** Height of this subtree. */
+    private int height = 1;
+
+    /** Subtree of intervals sorting before this one. */
+    private Node<T> left;
+
+    /** Subtree of intervals sorting after this one. */
+    private Node<T> right;
+
+    /**
+     * @param start Start of the interval.
+     * @param end End of the interval.
+     * @param id Id of the interval.
+     * @param value Value stored with the interval.
+     */
+    private Node(LocalDateTime start, LocalDateTime end, int id, T value) {
+      this.start = start;
+      this.end = end;
+      this.id = id;
+      this.value = value;
+      this.maxEnd = end;
+    }
+  }
+}
@@ -69,6 +69,7 @@ CREATE TABLE `customers`
     `Division_ID`     INT          NOT NULL,
     PRIMARY KEY (`Customer_ID`),
     KEY `Division_ID` (`Division_ID`),
+    KEY `Last_Update` (`Last_Update`),
     CONSTRAINT `customers_ibfk_1` FOREIGN KEY (`Division_ID`) REFERENCES `first_level_divisions` (`Division_ID`)
 ) ENGINE = InnoDB
   AUTO_INCREMENT = 14
@@ -91,9 +92,11 @@ CREATE TABLE `appointments`
     `User_ID`         INT                  DEFAULT NULL,
     `Contact_ID`      INT                  DEFAULT NULL,
     PRIMARY KEY (`Appointment_ID`),
-    KEY `Customer_ID` (`Customer_ID`),
-    KEY `User_ID` (`User_ID`),
-    KEY `Contact_ID` (`Contact_ID`),
+    KEY `Start_ID` (`Start`, `Appointment_ID`),
+    KEY `Contact_Start_End` (`Contact_ID`, `Start`, `End`),
+    KEY `Customer_Start_End` (`Customer_ID`, `Start`, `End`),
+    KEY `User_Start_End` (`User_ID`, `Start`, `End`),
+    KEY `Last_Update` (`Last_Update`),
     CONSTRAINT `appointments_ibfk_1` FOREIGN KEY (`Customer_ID`) REFERENCES `customers` (`Customer_ID`),
     CONSTRAINT `appointments_ibfk_2` FOREIGN KEY (`User_ID`) REFERENCES `users` (`User_ID`),
     CONSTRAINT `appointments_ibfk_3` FOREIGN KEY (`Contact_ID`) REFERENCES `contacts` (`Contact_ID`)
@@ -101,5 +104,15 @@ CREATE TABLE `appointments`
   AUTO_INCREMENT = 22
   DEFAULT CHARSET = utf8mb4;
 
+CREATE TABLE `deleted_records`
+(
+    `Table_Name` varchar(64) NOT NULL,
+    `Record_ID`  INT         NOT NULL,
+    `Deleted_At` timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    KEY `Table_Deleted_At` (`Table_Name`, `Deleted_At`),
+    KEY `Deleted_At` (`Deleted_At`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
 -- Test User
 INSERT INTO users VALUES(1, 'test', 'test', NOW(), 'script', NOW(), 'script');
\ No newline at end of file
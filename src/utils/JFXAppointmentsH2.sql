@@ -0,0 +1,127 @@
+-- Schema for the embedded H2 backend (dbBackend=h2). Mirrors JFXAppointments.sql
+-- and is run by DBConnector each time the in-memory database is started.
+
+CREATE TABLE IF NOT EXISTS contacts
+(
+    Contact_ID   INT         NOT NULL AUTO_INCREMENT,
+    Contact_Name varchar(50) NOT NULL,
+    Email        varchar(50) NOT NULL,
+    PRIMARY KEY (Contact_ID)
+);
+
+CREATE TABLE IF NOT EXISTS countries
+(
+    Country_ID      INT         NOT NULL AUTO_INCREMENT,
+    Country         varchar(50) NOT NULL,
+    Create_Date     datetime             DEFAULT CURRENT_TIMESTAMP,
+    Created_By      varchar(50)          DEFAULT NULL,
+    Last_Update     timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By varchar(50)          DEFAULT NULL,
+    PRIMARY KEY (Country_ID)
+);
+
+CREATE TABLE IF NOT EXISTS users
+(
+    User_ID         INT       NOT NULL AUTO_INCREMENT,
+    User_Name       varchar(50)        DEFAULT NULL,
+    Password        text,
+    Create_Date     datetime           DEFAULT CURRENT_TIMESTAMP,
+    Created_By      varchar(50)        DEFAULT NULL,
+    Last_Update     timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By varchar(50)        DEFAULT NULL,
+    PRIMARY KEY (User_ID),
+    UNIQUE (User_Name)
+);
+
+CREATE TABLE IF NOT EXISTS first_level_divisions
+(
+    Division_ID     INT         NOT NULL AUTO_INCREMENT,
+    Division        varchar(50) NOT NULL,
+    Create_Date     datetime             DEFAULT CURRENT_TIMESTAMP,
+    Created_By      varchar(50)          DEFAULT NULL,
+    Last_Update     timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By varchar(50)          DEFAULT NULL,
+    COUNTRY_ID      INT         NOT NULL,
+    PRIMARY KEY (Division_ID),
+    FOREIGN KEY (COUNTRY_ID) REFERENCES countries (Country_ID)
+);
+
+CREATE TABLE IF NOT EXISTS customers
+(
+    Customer_ID     INT          NOT NULL AUTO_INCREMENT,
+    Customer_Name   varchar(50)  NOT NULL,
+    Address         varchar(100) NOT NULL,
+    Postal_Code     varchar(50)  NOT NULL,
+    Phone           varchar(50)  NOT NULL,
+    Create_Date     datetime              DEFAULT CURRENT_TIMESTAMP,
+    Created_By      varchar(50)           DEFAULT NULL,
+    Last_Update     timestamp    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By varchar(50)           DEFAULT NULL,
+    Division_ID     INT          NOT NULL,
+    PRIMARY KEY (Customer_ID),
+    FOREIGN KEY (Division_ID) REFERENCES first_level_divisions (Division_ID)
+);
+
+CREATE TABLE IF NOT EXISTS appointments
+(
+    Appointment_ID  INT         NOT NULL AUTO_INCREMENT,
+    Title           varchar(50) NOT NULL,
+    Description     varchar(50)          DEFAULT NULL,
+    Location        varchar(50) NOT NULL,
+    Type            varchar(50)          DEFAULT NULL,
+    Start           datetime             DEFAULT CURRENT_TIMESTAMP,
+    End             datetime             DEFAULT CURRENT_TIMESTAMP,
+    Create_Date     datetime             DEFAULT CURRENT_TIMESTAMP,
+    Created_By      varchar(50)          DEFAULT NULL,
+    Last_Update     timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    Last_Updated_By varchar(50)          DEFAULT NULL,
+    Customer_ID     INT                  DEFAULT NULL,
+    User_ID         INT                  DEFAULT NULL,
+    Contact_ID      INT                  DEFAULT NULL,
+    PRIMARY KEY (Appointment_ID),
+    FOREIGN KEY (Customer_ID) REFERENCES customers (Customer_ID),
+    FOREIGN KEY (User_ID) REFERENCES users (User_ID),
+    FOREIGN KEY (Contact_ID) REFERENCES contacts (Contact_ID)
+);
+
+CREATE INDEX IF NOT EXISTS Start_ID ON appointments (Start, Appointment_ID);
+CREATE INDEX IF NOT EXISTS Contact_Start_End ON appointments (Contact_ID, Start, End);
+CREATE INDEX IF NOT EXISTS Customer_Start_End ON appointments (Customer_ID, Start, End);
+CREATE INDEX IF NOT EXISTS User_Start_End ON appointments (User_ID, Start, End);
+CREATE INDEX IF NOT EXISTS Appointments_Last_Update ON appointments (Last_Update);
+CREATE INDEX IF NOT EXISTS Customers_Last_Update ON customers (Last_Update);
+
+CREATE TABLE IF NOT EXISTS deleted_records
+(
+    Table_Name varchar(64) NOT NULL,
+    Record_ID  INT         NOT NULL,
+    Deleted_At timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS Table_Deleted_At ON deleted_records (Table_Name, Deleted_At);
+CREATE INDEX IF NOT EXISTS Deleted_At ON deleted_records (Deleted_At);
+
+-- Test User
+MERGE INTO users (User_ID, User_Name, Password, Created_By, Last_Updated_By)
+    KEY (User_ID) VALUES (1, 'test', 'test', 'script', 'script');
+
+-- Reference data
+MERGE INTO contacts (Contact_ID, Contact_Name, Email) KEY (Contact_ID) VALUES
+    (1, 'Anika Costa', 'acoasta@company.com'),
+    (2, 'Daniel Garcia', 'dgarcia@company.com'),
+    (3, 'Li Lee', 'llee@company.com');
+
+MERGE INTO countries (Country_ID, Country, Created_By, Last_Updated_By) KEY (Country_ID) VALUES
+    (1, 'U.S', 'script', 'script'),
+    (2, 'UK', 'script', 'script'),
+    (3, 'Canada', 'script', 'script');
+
+MERGE INTO first_level_divisions (Division_ID, Division, Created_By, Last_Updated_By, COUNTRY_ID)
+    KEY (Division_ID) VALUES
+    (1, 'Alabama', 'script', 'script', 1),
+    (29, 'New York', 'script', 'script', 1),
+    (31, 'Ohio', 'script', 'script', 1),
+    (101, 'England', 'script', 'script', 2),
+    (103, 'Scotland', 'script', 'script', 2),
+    (60, 'Ontario', 'script', 'script', 3),
+    (61, 'Quebec', 'script', 'script', 3);
@@ -0,0 +1,134 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed bucket latency histogram safe for concurrent recording. Buckets follow
+ * a 1-2.5-5 progression from 100 microseconds to 10 seconds, so percentiles
+ * are reported as the upper bound of the bucket they fall in.
+ *
+ * @author Sakae Watanabe
+ */
+public class LatencyHistogram {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Upper bounds of each bucket in microseconds. Samples above the last bound
+   * fall in a final overflow bucket.
+   */
+  private static final long[] BOUNDS_MICROS = {
+      100, 250, 500,
+      1_000, 2_500, 5_000,
+      10_000, 25_000, 50_000,
+      100_000, 250_000, 500_000,
+      1_000_000, 2_500_000, 5_000_000,
+      10_000_000
+  };
+
+  /**
+   * Sample counts per bucket, the last entry being the overflow bucket.
+   */
+  private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+
+  /**
+   * Number of samples recorded.
+   */
+  private final AtomicLong count = new AtomicLong();
+
+  /**
+   * Sum of all samples in nanoseconds.
+   */
+  private final AtomicLong totalNanos = new AtomicLong();
+
+  /**
+   * Largest sample in nanoseconds.
+   */
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @param nanos Duration of one sample in nanoseconds.
+   */
+  public void record(long nanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+    int bucket = 0;
+    while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+      bucket++;
+    }
+    buckets.incrementAndGet(bucket);
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * @return Number of samples recorded.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * @return Mean sample in milliseconds, zero when empty.
+   */
+  public double getMeanMillis() {
+    long samples = count.get();
+    return samples == 0 ? 0 : totalNanos.get() / 1e6 / samples;
+  }
+
+  /**
+   * @return Largest sample in milliseconds.
+   */
+  public double getMaxMillis() {
+    return maxNanos.get() / 1e6;
+  }
+
+  /**
+   * Estimates a percentile as the upper bound of the bucket containing it,
+   * never more than the maximum seen.
+   *
+   * @param percentile Percentile to estimate, between 0 and 100.
+   * @return Estimated percentile in milliseconds, zero when empty.
+   */
+  public double getPercentileMillis(double percentile) {
+    long samples = count.get();
+    if (samples == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(samples * percentile / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return Math.min(BOUNDS_MICROS[i] / 1000.0, getMaxMillis());
+      }
+    }
+    return getMaxMillis();
+  }
+
+  /**
+   * @return Bucket counts as text, one bucket per line, skipping empty ones.
+   */
+  public String describeBuckets() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i <= BOUNDS_MICROS.length; i++) {
+      long n = buckets.get(i);
+      if (n == 0) {
+        continue;
+      }
+      String label = i < BOUNDS_MICROS.length
+          ? "<= " + BOUNDS_MICROS[i] / 1000.0 + "ms"
+          : "> " + BOUNDS_MICROS[BOUNDS_MICROS.length - 1] / 1000.0 + "ms";
+      sb.append(String.format("  %-12s %d%n", label, n));
+    }
+    return sb.toString();
+  }
+}
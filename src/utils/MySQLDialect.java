@@ -0,0 +1,81 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SQL dialect for the MySQL server the application is deployed against.
+ *
+ * @author Sakae Watanabe
+ */
+public class MySQLDialect implements SQLDialect {
+
+  //===========================================================================
+  // JDBC Connection Information
+  //===========================================================================
+
+  /**
+   * Connection protocol settings for MySQL database connection.
+   */
+  private static final String protocol = "jdbc";
+  private static final String vendor = ":mysql:";
+  private static final String timeZone = "?connectionTimeZone=SERVER";
+  private static final String serverPrepare = "&useServerPrepStmts=true";
+  private static final String connectTimeout = "&connectTimeout=5000";
+  private static final String cursorFetch = "&useCursorFetch=true";
+  private static final String rewriteBatches = "&rewriteBatchedStatements=true";
+  private static final String MYSQL_JDBC_DRIVER = "com.mysql.cj.jdbc.Driver";
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  @Override
+  public String getName() {
+    return "mysql";
+  }
+
+  @Override
+  public String getDriverClass() {
+    return MYSQL_JDBC_DRIVER;
+  }
+
+  @Override
+  public String jdbcUrl(String address) {
+    return protocol + vendor + address + timeZone + serverPrepare + connectTimeout + cursorFetch
+        + rewriteBatches;
+  }
+
+  @Override
+  public String getDefaultUser() {
+    return null;
+  }
+
+  @Override
+  public String getSchemaScript() {
+    return null;
+  }
+
+  @Override
+  public String monthOf(String column) {
+    return "MONTH(" + column + ")";
+  }
+
+  @Override
+  public String sumIf(String condition, String value) {
+    return "SUM(IF(" + condition + ", " + value + ", 0))";
+  }
+
+  @Override
+  public String dropIndex(String table, String index) {
+    return "DROP INDEX `" + index + "` ON `" + table + "`";
+  }
+
+  @Override
+  public PreparedStatement prepareInsert(Connection conn, String sql, String keyColumn)
+      throws SQLException {
+    return conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+  }
+}
@@ -3,18 +3,31 @@ package utils;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
 
 /**
- * Contains static methods for displaying common errors to user.
+ * Contains static methods for displaying common errors to user. Popups raised
+ * from database worker threads are handed to the JavaFX application thread.
  *
  * @author Sakae Watanabe
  */
 public class NotificationHandler {
 
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Indicates a connection failure popup is on screen. Further connection
+   * failures are logged instead so an outage raises a single dialog.
+   */
+  private static final AtomicBoolean outageShowing = new AtomicBoolean(false);
+
   //===========================================================================
   // Error Handlers
   //===========================================================================
@@ -27,6 +40,9 @@ public class NotificationHandler {
    * @param message     The context of the warning message to be displayed.
    */
   public static void warningPopup(String warningName, String message) {
+    if (deferredToFxThread(() -> warningPopup(warningName, message))) {
+      return;
+    }
     Alert alert = new Alert(AlertType.WARNING);
     alert.setHeaderText(warningName);
     alert.setContentText(message);
@@ -41,6 +57,9 @@ public class NotificationHandler {
    * @param messages    List containing messages to be added to context text.
    */
   public static void warningPopup(String warningName, List<String> messages) {
+    if (deferredToFxThread(() -> warningPopup(warningName, messages))) {
+      return;
+    }
     Alert alert = new Alert(AlertType.WARNING);
     alert.setHeaderText(warningName);
     alert.setContentText(String.join("\n", messages));
@@ -48,12 +67,34 @@ public class NotificationHandler {
   }
 
   /**
-   * Adds SQLException information to popup dialog.
+   * Adds SQLException information to popup dialog. While the database is
+   * unreachable only the first connection failure is shown, the rest are
+   * written to the console.
    *
    * @param daoType The type of DAO in use at time of error.
    * @param sqlE    SQLException thrown for translation to popup dialog.
    */
   public static void sqlPopup(String daoType, SQLException sqlE) {
+    boolean outage = SQLRetry.isConnectionFailure(sqlE);
+    if (outage && (sqlE instanceof DatabaseUnavailableException
+        || !outageShowing.compareAndSet(false, true))) {
+      System.err.println(daoType + ": " + sqlE.getMessage());
+      return;
+    }
+    if (deferredToFxThread(() -> showSqlPopup(daoType, sqlE, outage))) {
+      return;
+    }
+    showSqlPopup(daoType, sqlE, outage);
+  }
+
+  /**
+   * Displays the SQLException popup on the current thread.
+   *
+   * @param daoType The type of DAO in use at time of error.
+   * @param sqlE    SQLException thrown for translation to popup dialog.
+   * @param outage  True if the popup reports a connection failure.
+   */
+  private static void showSqlPopup(String daoType, SQLException sqlE, boolean outage) {
     Alert alert = new Alert(AlertType.WARNING);
     String messages = "Error code: " + sqlE.getErrorCode() +
         "\nSQL error: " + sqlE.getSQLState() +
@@ -61,7 +102,13 @@ public class NotificationHandler {
 
     alert.setHeaderText("Data Retrieval Error -" + daoType);
     alert.setContentText(messages);
-    alert.showAndWait();
+    try {
+      alert.showAndWait();
+    } finally {
+      if (outage) {
+        outageShowing.set(false);
+      }
+    }
   }
 
   /**
@@ -82,4 +129,23 @@ public class NotificationHandler {
     return choice.get() == ButtonType.OK;
   }
 
+  /**
+   * Hands the popup to the JavaFX application thread when called from another
+   * thread. Popups raised before the toolkit has started are shown inline.
+   *
+   * @param popup Runnable displaying the popup.
+   * @return True if the popup was deferred and the caller should return.
+   */
+  private static boolean deferredToFxThread(Runnable popup) {
+    if (Platform.isFxApplicationThread()) {
+      return false;
+    }
+    try {
+      Platform.runLater(popup);
+      return true;
+    } catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
 }
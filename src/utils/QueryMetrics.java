@@ -0,0 +1,603 @@
+package utils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects latency, row, byte and error totals for every SQL statement and
+ * every DAO method that reaches the database. Connections handed out by
+ * DBConnector are wrapped in instrumenting proxies which time statement
+ * execution and result set reads, while DBConnector times each DAO call as a
+ * whole, retries included. Statements slower than the configured threshold
+ * are passed to SlowQueryLog along with their bound parameters.
+ *
+ * @author Sakae Watanabe
+ */
+public class QueryMetrics {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Totals keyed by SQL text with whitespace collapsed.
+   */
+  private static final Map<String, QueryStats> bySql = new ConcurrentHashMap<>();
+
+  /**
+   * Totals keyed by DAO class and method, e.g. AppointmentDAOImpl.getOverlapping.
+   */
+  private static final Map<String, QueryStats> byMethod = new ConcurrentHashMap<>();
+
+  /**
+   * DAO call in progress on each thread.
+   */
+  private static final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+
+  /**
+   * Longest SQL text shown in the statement table before truncating.
+   */
+  private static final int SQL_DISPLAY_WIDTH = 90;
+
+  //===========================================================================
+  // DAO Call Timing
+  //===========================================================================
+
+  /**
+   * Starts timing a DAO call on this thread, named after the first caller
+   * outside the utils package. Nested calls join the outer call.
+   *
+   * @return Call to pass to endCall.
+   */
+  static Call beginCall() {
+    Call call = currentCall.get();
+    if (call == null) {
+      call = new Call(callerName());
+      currentCall.set(call);
+    }
+    call.depth++;
+    return call;
+  }
+
+  /**
+   * Finishes timing a DAO call, recording it once the outermost call ends.
+   *
+   * @param call Call returned by beginCall.
+   * @param failed True if the call ended in an SQLException.
+   */
+  static void endCall(Call call, boolean failed) {
+    call.failed |= failed;
+    if (--call.depth > 0) {
+      return;
+    }
+    currentCall.remove();
+    stats(byMethod, call.name).record(System.nanoTime() - call.started, call.rows,
+        call.bytes, call.failed);
+  }
+
+  /**
+   * @return Simple class and method name of the first frame outside utils.
+   */
+  private static String callerName() {
+    return StackWalker.getInstance().walk(frames -> frames
+        .filter(f -> !f.getClassName().startsWith("utils."))
+        .findFirst()
+        .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName())
+        .orElse("unknown"));
+  }
+
+  /**
+   * @param className Fully qualified class name, possibly of a nested class.
+   * @return Class name without package or nested class suffix.
+   */
+  private static String simpleName(String className) {
+    String name = className.substring(className.lastIndexOf('.') + 1);
+    int nested = name.indexOf('$');
+    return nested > 0 ? name.substring(0, nested) : name;
+  }
+
+  //===========================================================================
+  // Statement Recording
+  //===========================================================================
+
+  /**
+   * Wraps a connection so every prepared statement run on it is measured.
+   *
+   * @param conn Connection borrowed from a pool.
+   * @return Instrumented connection delegating to the original.
+   */
+  static Connection instrument(Connection conn) {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, new ConnectionHandler(conn));
+  }
+
+  /**
+   * @param conn Connection returned by instrument, or any other connection.
+   * @return Connection the instrumented one delegates to, or the connection
+   *         itself if it is not instrumented.
+   */
+  static Connection original(Connection conn) {
+    if (Proxy.isProxyClass(conn.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(conn);
+      if (handler instanceof ConnectionHandler) {
+        return ((ConnectionHandler) handler).target;
+      }
+    }
+    return conn;
+  }
+
+  /**
+   * Adds a finished statement execution to the statement totals and to the
+   * DAO call running on this thread.
+   *
+   * @param sql SQL text of the statement.
+   * @param nanos Time spent executing and reading results.
+   * @param rows Rows fetched or affected.
+   * @param bytes Approximate bytes read.
+   * @param failed True if the execution threw an SQLException.
+   */
+  private static void recordStatement(String sql, long nanos, long rows, long bytes,
+      boolean failed) {
+    stats(bySql, sql).record(nanos, rows, bytes, failed);
+    Call call = currentCall.get();
+    if (call != null) {
+      call.rows += rows;
+      call.bytes += bytes;
+    }
+  }
+
+  /**
+   * @param map Totals map to look in.
+   * @param key Name of the totals.
+   * @return Existing totals for the key, created if absent.
+   */
+  private static QueryStats stats(Map<String, QueryStats> map, String key) {
+    return map.computeIfAbsent(key, QueryStats::new);
+  }
+
+  /**
+   * @param sql SQL text as written in the DAO.
+   * @return SQL text with runs of whitespace collapsed to single spaces.
+   */
+  private static String normalize(String sql) {
+    return sql.strip().replaceAll("\\s+", " ");
+  }
+
+  //===========================================================================
+  // Reporting
+  //===========================================================================
+
+  /**
+   * @return Totals for each DAO method, slowest in total first.
+   */
+  public static List<QueryStats> getMethodStats() {
+    return sorted(byMethod);
+  }
+
+  /**
+   * @return Totals for each SQL statement, slowest in total first.
+   */
+  public static List<QueryStats> getStatementStats() {
+    return sorted(bySql);
+  }
+
+  /**
+   * Clears every total. Used from the diagnostics view to measure a single
+   * action.
+   */
+  public static void reset() {
+    bySql.clear();
+    byMethod.clear();
+  }
+
+  /**
+   * Renders both tables as text for the diagnostics view.
+   *
+   * @return Formatted tables of DAO method and SQL statement totals.
+   */
+  public static String report() {
+    return "DAO methods\n\n" + table(getMethodStats(), Integer.MAX_VALUE)
+        + "\n\nSQL statements\n\n" + table(getStatementStats(), SQL_DISPLAY_WIDTH);
+  }
+
+  /**
+   * Writes the tables, full SQL text and latency buckets to a file.
+   *
+   * @param fileName Path of the file to write, replaced if present.
+   */
+  public static void dumpTo(String fileName) {
+    if (byMethod.isEmpty() && bySql.isEmpty()) {
+      return;
+    }
+    Path path = Paths.get(fileName);
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path,
+        StandardCharsets.UTF_8))) {
+      out.println("Query metrics written " + LocalDateTime.now());
+      out.println();
+      out.println(report());
+      out.println();
+      out.println("Latency buckets");
+      for (QueryStats stats : getStatementStats()) {
+        out.println();
+        out.println(stats.getName());
+        out.print(stats.getLatency().describeBuckets());
+      }
+      System.out.println("Query metrics written to " + path.toAbsolutePath());
+    } catch (IOException e) {
+      System.out.println("Unable to write query metrics: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @param map Totals map to list.
+   * @return Totals ordered by total time spent, largest first.
+   */
+  private static List<QueryStats> sorted(Map<String, QueryStats> map) {
+    List<QueryStats> list = new ArrayList<>(map.values());
+    list.sort(Comparator.comparingDouble(
+        (QueryStats s) -> s.getLatency().getMeanMillis() * s.getCount()).reversed());
+    return list;
+  }
+
+  /**
+   * @param stats Totals to render.
+   * @param nameWidth Longest name shown before truncating.
+   * @return Text table of the totals.
+   */
+  private static String table(List<QueryStats> stats, int nameWidth) {
+    if (stats.isEmpty()) {
+      return "--Nothing recorded yet--\n";
+    }
+    TextTableBuilder<QueryStats> builder = new TextTableBuilder<>();
+    builder.addColumn("Name", s -> s.getName().length() > nameWidth
+        ? s.getName().substring(0, nameWidth - 3) + "..." : s.getName());
+    builder.addColumn("Calls", QueryStats::getCount);
+    builder.addColumn("Mean ms", s -> millis(s.getLatency().getMeanMillis()));
+    builder.addColumn("p50", s -> millis(s.getLatency().getPercentileMillis(50)));
+    builder.addColumn("p95", s -> millis(s.getLatency().getPercentileMillis(95)));
+    builder.addColumn("p99", s -> millis(s.getLatency().getPercentileMillis(99)));
+    builder.addColumn("Max ms", s -> millis(s.getLatency().getMaxMillis()));
+    builder.addColumn("Rows", QueryStats::getRows);
+    builder.addColumn("Bytes", QueryStats::getBytes);
+    builder.addColumn("Errors", QueryStats::getErrors);
+    return builder.createString(stats);
+  }
+
+  /**
+   * @param value Milliseconds to format.
+   * @return Value with two decimal places.
+   */
+  private static String millis(double value) {
+    return String.format("%.2f", value);
+  }
+
+  //===========================================================================
+  // Proxies
+  //===========================================================================
+
+  /**
+   * DAO call being timed on the current thread.
+   */
+  static final class Call {
+
+    /** DAO class and method name. */
+    private final String name;
+
+    /** Time in nanoseconds the outermost call started. */
+    private final long started = System.nanoTime();
+
+    /** Nesting depth of read and write calls. */
+    private int depth = 0;
+
+    /** Rows fetched or affected during the call. */
+    private long rows = 0;
+
+    /** Approximate bytes read during the call. */
+    private long bytes = 0;
+
+    /** Indicates the call ended in an SQLException. */
+    private boolean failed = false;
+
+    private Call(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Single statement execution, open until its result set is read and closed.
+   */
+  private static final class Execution {
+
+    /** Normalized SQL text of the statement. */
+    private final String sql;
+
+    /** Parameters bound to the statement, read if the execution is slow. */
+    private final List<Object> params;
+
+    /** Time in nanoseconds spent in execute and next calls. */
+    private long nanos;
+
+    /** Rows fetched or affected. */
+    private long rows = 0;
+
+    /** Approximate bytes read. */
+    private long bytes = 0;
+
+    /** Indicates the execution has been recorded. */
+    private boolean finished = false;
+
+    private Execution(String sql, List<Object> params, long nanos) {
+      this.sql = sql;
+      this.params = params;
+      this.nanos = nanos;
+    }
+
+    /**
+     * Records the execution the first time it is called.
+     *
+     * @param failed True if the execution threw an SQLException.
+     */
+    private void finish(boolean failed) {
+      if (!finished) {
+        finished = true;
+        recordStatement(sql, nanos, rows, bytes, failed);
+        if (SlowQueryLog.isSlow(nanos)) {
+          Call call = currentCall.get();
+          SlowQueryLog.log(sql, new ArrayList<>(params), rows, nanos,
+              call != null ? call.name : "unknown");
+        }
+      }
+    }
+  }
+
+  /**
+   * Calls the target method, unwrapping driver exceptions.
+   *
+   * @param target Object to invoke the method on.
+   * @param method Method to invoke.
+   * @param args Arguments of the call.
+   * @return Result of the call.
+   * @throws Throwable exception thrown by the target.
+   */
+  private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Connection proxy wrapping prepared statements as they are created.
+   */
+  private static final class ConnectionHandler implements InvocationHandler {
+
+    /** Connection being measured. */
+    private final Connection target;
+
+    private ConnectionHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "prepareStatement":
+          PreparedStatement ps = (PreparedStatement) forward(target, method, args);
+          return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+              new Class<?>[]{PreparedStatement.class},
+              new StatementHandler(ps, normalize((String) args[0])));
+        default:
+          return forward(target, method, args);
+      }
+    }
+  }
+
+  /**
+   * Prepared statement proxy timing each execution.
+   */
+  private static final class StatementHandler implements InvocationHandler {
+
+    /** Statement being measured. */
+    private final PreparedStatement target;
+
+    /** Normalized SQL text of the statement. */
+    private final String sql;
+
+    /** Parameters bound so far, by index less one. */
+    private final List<Object> params = new ArrayList<>();
+
+    /** Query execution whose result set is still open. */
+    private Execution open;
+
+    private StatementHandler(PreparedStatement target, String sql) {
+      this.target = target;
+      this.sql = sql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      switch (name) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "close":
+          finishOpen();
+          return forward(target, method, args);
+        case "clearParameters":
+          params.clear();
+          return forward(target, method, args);
+        case "executeQuery":
+        case "executeUpdate":
+        case "executeLargeUpdate":
+        case "execute":
+        case "executeBatch":
+          return execute(method, args);
+        default:
+          if (name.startsWith("set") && args != null && args.length >= 2
+              && args[0] instanceof Integer) {
+            bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+          }
+          return forward(target, method, args);
+      }
+    }
+
+    /**
+     * Remembers a bound parameter for the slow query log.
+     *
+     * @param index One based parameter index.
+     * @param value Value bound, null for setNull.
+     */
+    private void bind(int index, Object value) {
+      while (params.size() < index) {
+        params.add(null);
+      }
+      params.set(index - 1, value);
+    }
+
+    /**
+     * Times an execute call. Queries stay open until their result set closes,
+     * updates are recorded straight away.
+     *
+     * @param method Execute method called.
+     * @param args Arguments of the call.
+     * @return Result of the call, with result sets wrapped.
+     * @throws Throwable exception thrown by the driver.
+     */
+    private Object execute(Method method, Object[] args) throws Throwable {
+      finishOpen();
+      long start = System.nanoTime();
+      Object result;
+      try {
+        result = forward(target, method, args);
+      } catch (SQLException e) {
+        new Execution(sql, params, System.nanoTime() - start).finish(true);
+        throw e;
+      }
+      Execution execution = new Execution(sql, params, System.nanoTime() - start);
+      if (result instanceof ResultSet) {
+        open = execution;
+        return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class}, new ResultSetHandler((ResultSet) result, execution));
+      }
+      if (result instanceof Integer || result instanceof Long) {
+        execution.rows = ((Number) result).longValue();
+      } else if (result instanceof int[]) {
+        for (int count : (int[]) result) {
+          execution.rows += Math.max(count, 0);
+        }
+      }
+      execution.finish(false);
+      return result;
+    }
+
+    /**
+     * Records a query whose result set was never closed.
+     */
+    private void finishOpen() {
+      if (open != null) {
+        open.finish(false);
+        open = null;
+      }
+    }
+  }
+
+  /**
+   * Result set proxy counting rows, time spent fetching and bytes read.
+   */
+  private static final class ResultSetHandler implements InvocationHandler {
+
+    /** Result set being measured. */
+    private final ResultSet target;
+
+    /** Execution the rows belong to. */
+    private final Execution execution;
+
+    private ResultSetHandler(ResultSet target, Execution execution) {
+      this.target = target;
+      this.execution = execution;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      switch (name) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "next":
+          long start = System.nanoTime();
+          boolean more;
+          try {
+            more = (Boolean) forward(target, method, args);
+          } catch (SQLException e) {
+            execution.finish(true);
+            throw e;
+          }
+          execution.nanos += System.nanoTime() - start;
+          if (more) {
+            execution.rows++;
+          }
+          return more;
+        case "close":
+          execution.finish(false);
+          return forward(target, method, args);
+        default:
+          Object value = forward(target, method, args);
+          if (name.startsWith("get") && args != null && args.length > 0) {
+            execution.bytes += sizeOf(value);
+          }
+          return value;
+      }
+    }
+
+    /**
+     * @param value Column value read from the result set.
+     * @return Approximate size of the value on the wire.
+     */
+    private static long sizeOf(Object value) {
+      if (value == null) {
+        return 0;
+      } else if (value instanceof String) {
+        return ((String) value).length();
+      } else if (value instanceof byte[]) {
+        return ((byte[]) value).length;
+      } else if (value instanceof Integer || value instanceof Float) {
+        return 4;
+      } else if (value instanceof BigDecimal) {
+        return 16;
+      } else if (value instanceof Boolean || value instanceof Byte) {
+        return 1;
+      } else if (value instanceof Short) {
+        return 2;
+      }
+      return 8;
+    }
+  }
+}
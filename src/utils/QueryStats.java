@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals for one SQL statement or one DAO method: latency histogram,
+ * rows fetched or updated, approximate bytes read and failed executions.
+ *
+ * @author Sakae Watanabe
+ */
+public class QueryStats {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * SQL text or DAO method name the totals belong to.
+   */
+  private final String name;
+
+  /**
+   * Latency of each execution or call.
+   */
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * Rows fetched by queries or affected by updates.
+   */
+  private final AtomicLong rows = new AtomicLong();
+
+  /**
+   * Approximate bytes read from result sets.
+   */
+  private final AtomicLong bytes = new AtomicLong();
+
+  /**
+   * Executions or calls ending in an SQLException.
+   */
+  private final AtomicLong errors = new AtomicLong();
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * @param name SQL text or DAO method name the totals belong to.
+   */
+  public QueryStats(String name) {
+    this.name = name;
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Adds one execution to the totals.
+   *
+   * @param nanos Time taken in nanoseconds.
+   * @param rowCount Rows fetched or affected.
+   * @param byteCount Approximate bytes read.
+   * @param failed True if the execution threw an SQLException.
+   */
+  void record(long nanos, long rowCount, long byteCount, boolean failed) {
+    latency.record(nanos);
+    rows.addAndGet(rowCount);
+    bytes.addAndGet(byteCount);
+    if (failed) {
+      errors.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return SQL text or DAO method name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return Latency histogram of the executions.
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * @return Number of executions recorded.
+   */
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  /**
+   * @return Total rows fetched or affected.
+   */
+  public long getRows() {
+    return rows.get();
+  }
+
+  /**
+   * @return Total approximate bytes read.
+   */
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  /**
+   * @return Number of failed executions.
+   */
+  public long getErrors() {
+    return errors.get();
+  }
+}
@@ -0,0 +1,205 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads read only queries across one or more read replicas in round robin
+ * order. A replica that fails to connect is taken out of rotation until a
+ * background health check finds it reachable again. When no replica is
+ * healthy callers fall back to the primary database.
+ *
+ * @author Sakae Watanabe
+ */
+public class ReplicaRouter {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Replicas available for routing, in configuration order.
+   */
+  private final List<Replica> replicas;
+
+  /**
+   * Position of the next replica to use.
+   */
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * Single daemon thread probing replica health.
+   */
+  private final ScheduledExecutorService healthCheck;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Creates a pool for each replica URL and starts the health check.
+   *
+   * @param jdbcUrls Full JDBC URLs of the replicas.
+   * @param username User name for the replica connections.
+   * @param password Password for the replica connections.
+   * @param config Configuration supplying pool sizing and check interval.
+   */
+  public ReplicaRouter(List<String> jdbcUrls, String username, String password,
+      ConfigProps config) {
+    List<Replica> created = new ArrayList<>();
+    for (String url : jdbcUrls) {
+      created.add(new Replica(url, new ConnectionPool(url, username, password,
+          config.getPoolMaxSize(), config.getPoolIdleTimeout(), config.getPoolMaxLifetime(),
+          config.getPoolBorrowTimeout(), config.getStatementCacheSize())));
+    }
+    this.replicas = Collections.unmodifiableList(created);
+
+    this.healthCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "replica-health-check");
+      t.setDaemon(true);
+      return t;
+    });
+    int interval = config.getReplicaCheckSeconds();
+    healthCheck.scheduleWithFixedDelay(this::checkHealth, 0, interval, TimeUnit.SECONDS);
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Borrows a connection from the next healthy replica. Replicas that fail to
+   * supply a connection are marked down and the next one is tried.
+   *
+   * @return Replica connection, or null if no replica is available.
+   */
+  public Connection borrow() {
+    int count = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), count);
+    for (int i = 0; i < count; i++) {
+      Replica replica = replicas.get((start + i) % count);
+      if (!replica.healthy) {
+        continue;
+      }
+      try {
+        return replica.pool.borrow();
+      } catch (ConnectionPool.BorrowTimeoutException e) {
+        // Replica is busy rather than down, try the next one.
+      } catch (SQLException e) {
+        replica.markDown(e);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Takes the replica owning the connection out of rotation after a
+   * connection failure part way through a query, and discards the connection
+   * when it is returned.
+   *
+   * @param conn Connection borrowed from this router.
+   * @param e Connection failure raised while using it.
+   */
+  public void reportFailure(Connection conn, SQLException e) {
+    for (Replica replica : replicas) {
+      if (replica.pool.owns(conn)) {
+        replica.pool.discard(conn);
+        replica.markDown(e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return Number of replicas currently in rotation.
+   */
+  public int getHealthyCount() {
+    int healthy = 0;
+    for (Replica replica : replicas) {
+      if (replica.healthy) {
+        healthy++;
+      }
+    }
+    return healthy;
+  }
+
+  /**
+   * Stops the health check and closes every replica pool.
+   */
+  public void shutdown() {
+    healthCheck.shutdownNow();
+    replicas.forEach(replica -> replica.pool.shutdown());
+  }
+
+  /**
+   * Probes each replica with a borrowed connection, returning it to rotation
+   * when reachable and removing it otherwise.
+   */
+  private void checkHealth() {
+    for (Replica replica : replicas) {
+      try (Connection conn = replica.pool.borrow()) {
+        if (conn.isValid(2)) {
+          replica.markUp();
+        } else {
+          replica.markDown(new SQLException("Validation failed.", "08006"));
+        }
+      } catch (ConnectionPool.BorrowTimeoutException e) {
+        // Every connection is in use, so the replica is answering queries.
+        replica.markUp();
+      } catch (SQLException e) {
+        replica.markDown(e);
+      }
+    }
+  }
+
+  //===========================================================================
+  // Replica
+  //===========================================================================
+
+  /**
+   * Connection pool for a single replica along with its health.
+   */
+  private static final class Replica {
+
+    /** JDBC URL of the replica, used for log output. */
+    private final String url;
+
+    /** Pool of connections to the replica. */
+    private final ConnectionPool pool;
+
+    /** Indicates the replica is in rotation. */
+    private volatile boolean healthy = true;
+
+    private Replica(String url, ConnectionPool pool) {
+      this.url = url;
+      this.pool = pool;
+    }
+
+    /**
+     * @param e Failure that took the replica out of rotation.
+     */
+    private void markDown(SQLException e) {
+      if (healthy) {
+        healthy = false;
+        System.out.println("Replica " + url + " out of rotation: " + e.getMessage());
+      }
+    }
+
+    /**
+     * Returns the replica to rotation.
+     */
+    private void markUp() {
+      if (!healthy) {
+        healthy = true;
+        System.out.println("Replica " + url + " back in rotation.");
+      }
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package utils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Maps result set rows to objects by column index. A mapper names the columns
+ * it reads; their positions are looked up from the result set metadata once
+ * per result set, and every row is then read by index rather than by label,
+ * avoiding a label lookup per column per row in the driver.
+ * <p>
+ * Readers fetch values by the position of the column in the mapper's list, so
+ * the column list and reader are declared together:
+ * <pre>
+ *   RowMapper&lt;Country&gt; COUNTRY = new RowMapper&lt;&gt;(
+ *       row -&gt; new Country(row.getInt(0), row.getString(1)), "Country_ID", "Country");
+ * </pre>
+ * Mappers are immutable and may be shared between threads.
+ *
+ * @param <T> Type of object each row is mapped to.
+ * @author Sakae Watanabe
+ */
+public final class RowMapper<T> {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /** Labels of the columns read, in the order the reader refers to them. */
+  private final String[] columns;
+
+  /** Builds an object from the columns of one row. */
+  private final Reader<T> reader;
+
+  /**
+   * @param reader Builds an object from the columns of one row.
+   * @param columns Labels of the columns read, matched ignoring case.
+   */
+  public RowMapper(Reader<T> reader, String... columns) {
+    this.reader = reader;
+    this.columns = columns.clone();
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @return Columns read by the mapper as a comma separated select list.
+   */
+  public String columnList() {
+    return String.join(", ", columns);
+  }
+
+  /**
+   * Maps every remaining row of a result set.
+   *
+   * @param <C> Type of collection the objects are added to.
+   * @param rs Result set positioned before its first unread row.
+   * @param into Collection the objects are added to.
+   * @return The collection passed in.
+   * @throws SQLException if a column is missing or cannot be read.
+   */
+  public <C extends Collection<? super T>> C mapAll(ResultSet rs, C into) throws SQLException {
+    Row row = bind(rs);
+    while (rs.next()) {
+      into.add(reader.read(row));
+    }
+    return into;
+  }
+
+  /**
+   * Maps every remaining row of a result set, handing each object to an action
+   * as soon as it is read rather than collecting them. With a forward only
+   * result set and a fetch size set on the statement, only one fetch of rows
+   * is held at a time.
+   *
+   * @param rs Result set positioned before its first unread row.
+   * @param action Action run for each object in row order.
+   * @return Number of rows mapped.
+   * @throws SQLException if a column is missing or cannot be read.
+   */
+  public int forEach(ResultSet rs, Consumer<? super T> action) throws SQLException {
+    Row row = bind(rs);
+    int count = 0;
+    while (rs.next()) {
+      action.accept(reader.read(row));
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Maps the next row of a result set.
+   *
+   * @param rs Result set positioned before the row.
+   * @return Object for the row, or null if there are no more rows.
+   * @throws SQLException if a column is missing or cannot be read.
+   */
+  public T mapNext(ResultSet rs) throws SQLException {
+    return rs.next() ? reader.read(bind(rs)) : null;
+  }
+
+  /**
+   * Resolves the indices of the mapper's columns in a result set.
+   *
+   * @param rs Result set to read from.
+   * @return Row reading the result set's current row by index.
+   * @throws SQLException if a column is not in the result set.
+   */
+  public Row bind(ResultSet rs) throws SQLException {
+    ResultSetMetaData meta = rs.getMetaData();
+    Map<String, Integer> byLabel = new HashMap<>();
+    for (int i = meta.getColumnCount(); i >= 1; i--) {
+      byLabel.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+    }
+
+    int[] indices = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      Integer index = byLabel.get(columns[i].toLowerCase(Locale.ROOT));
+      if (index == null) {
+        throw new SQLException("Column " + columns[i] + " not found in result set.");
+      }
+      indices[i] = index;
+    }
+    return new Row(rs, indices);
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * Builds an object from the columns of one row.
+   *
+   * @param <T> Type of object built.
+   */
+  @FunctionalInterface
+  public interface Reader<T> {
+
+    /**
+     * @param row Current row of the result set.
+     * @return Object built from the row.
+     * @throws SQLException if a column cannot be read.
+     */
+    T read(Row row) throws SQLException;
+  }
+
+  /**
+   * Current row of a result set, read by the position of each column in the
+   * mapper's column list.
+   */
+  public static final class Row {
+
+    /** Result set being read. */
+    private final ResultSet rs;
+
+    /** Result set index of each mapper column. */
+    private final int[] indices;
+
+    /**
+     * @param rs Result set being read.
+     * @param indices Result set index of each mapper column.
+     */
+    private Row(ResultSet rs, int[] indices) {
+      this.rs = rs;
+      this.indices = indices;
+    }
+
+    /**
+     * @param column Position of the column in the mapper's column list.
+     * @return Integer value, zero for SQL NULL.
+     * @throws SQLException if the value cannot be read.
+     */
+    public int getInt(int column) throws SQLException {
+      return rs.getInt(indices[column]);
+    }
+
+    /**
+     * @param column Position of the column in the mapper's column list.
+     * @return String value, null for SQL NULL.
+     * @throws SQLException if the value cannot be read.
+     */
+    public String getString(int column) throws SQLException {
+      return rs.getString(indices[column]);
+    }
+
+    /**
+     * @param column Position of the column in the mapper's column list.
+     * @return Date and time value, null for SQL NULL.
+     * @throws SQLException if the value cannot be read.
+     */
+    public LocalDateTime getLocalDateTime(int column) throws SQLException {
+      Timestamp value = rs.getTimestamp(indices[column]);
+      return value == null ? null : value.toLocalDateTime();
+    }
+  }
+}
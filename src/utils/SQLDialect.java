@@ -0,0 +1,101 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Database specific pieces of SQL and JDBC setup, so DAO queries can run
+ * against MySQL in production or an embedded database for benchmarks and
+ * offline demos. The dialect in use is chosen by the dbBackend property.
+ *
+ * @author Sakae Watanabe
+ */
+public interface SQLDialect {
+
+  /**
+   * Looks up the dialect for a dbBackend setting.
+   *
+   * @param backend Value of the dbBackend property, mysql or h2.
+   * @return Matching dialect, MySQL for unknown values.
+   */
+  static SQLDialect forBackend(String backend) {
+    if ("h2".equalsIgnoreCase(backend)) {
+      return new H2Dialect();
+    }
+    if (!"mysql".equalsIgnoreCase(backend)) {
+      System.out.println("Unknown dbBackend " + backend + ", using mysql.");
+    }
+    return new MySQLDialect();
+  }
+
+  /**
+   * @return Short name of the backend for log output.
+   */
+  String getName();
+
+  /**
+   * @return Fully qualified class name of the JDBC driver.
+   */
+  String getDriverClass();
+
+  /**
+   * Builds the JDBC URL for a configured server address.
+   *
+   * @param address Value of dbUrl or a replica url, as //host/database.
+   * @return JDBC URL including connection options.
+   */
+  String jdbcUrl(String address);
+
+  /**
+   * @return User name used when config.properties does not supply one.
+   */
+  String getDefaultUser();
+
+  /**
+   * @return Classpath resource holding the schema to create on connect, or
+   *         null if the database is set up outside the application.
+   */
+  String getSchemaScript();
+
+  /**
+   * Date bucketing expression extracting the month of a datetime column.
+   *
+   * @param column Column or expression holding a datetime.
+   * @return Expression giving the month number, 1 for January to 12.
+   */
+  String monthOf(String column);
+
+  /**
+   * Conditional aggregation expression, summing the value over rows meeting
+   * the condition and zero for the rest.
+   *
+   * @param condition Boolean SQL condition.
+   * @param value Expression to sum where the condition holds.
+   * @return Aggregate expression.
+   */
+  String sumIf(String condition, String value);
+
+  /**
+   * Statement dropping an index, used by maintenance tools that compare query
+   * plans with and without an index.
+   *
+   * @param table Table the index belongs to.
+   * @param index Name of the index.
+   * @return DROP INDEX statement.
+   */
+  String dropIndex(String table, String index);
+
+  /**
+   * Prepares an insert whose generated key will be read back with
+   * getGeneratedKeys.
+   *
+   * @param conn Connection to prepare the statement on.
+   * @param sql Insert statement.
+   * @param keyColumn Name of the auto increment key column.
+   * @return Statement returning the generated key as its first column.
+   * @throws SQLException if the statement cannot be prepared.
+   */
+  PreparedStatement prepareInsert(Connection conn, String sql, String keyColumn)
+      throws SQLException;
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Classifies SQLExceptions as transient or permanent and computes backoff
+ * delays for retrying transient failures.
+ *
+ * @author Sakae Watanabe
+ */
+public class SQLRetry {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * MySQL error code for a deadlock found when trying to get a lock.
+   */
+  private static final int MYSQL_DEADLOCK = 1213;
+
+  /**
+   * MySQL error code for a lock wait timeout.
+   */
+  private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+  /**
+   * Upper bound in milliseconds for a single backoff delay.
+   */
+  private static final long MAX_DELAY_MILLIS = 5000;
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Determines if the exception means the connection to the database failed
+   * or was lost, SQLState class 08 being connection exceptions.
+   *
+   * @param e SQLException thrown by the driver or pool.
+   * @return True if the connection should be discarded and reopened.
+   */
+  public static boolean isConnectionFailure(SQLException e) {
+    if (e instanceof SQLTransientConnectionException
+        || e instanceof SQLNonTransientConnectionException
+        || e instanceof SQLRecoverableException) {
+      return true;
+    }
+    String state = e.getSQLState();
+    return state != null && state.startsWith("08");
+  }
+
+  /**
+   * Determines if the server rolled back the statement because of a deadlock,
+   * serialization failure or lock wait timeout. Such statements had no effect
+   * and may be retried safely.
+   *
+   * @param e SQLException thrown by the driver.
+   * @return True if the statement may be retried.
+   */
+  public static boolean isRolledBack(SQLException e) {
+    if (e instanceof SQLTransactionRollbackException) {
+      return true;
+    }
+    String state = e.getSQLState();
+    return (state != null && state.startsWith("40"))
+        || e.getErrorCode() == MYSQL_DEADLOCK
+        || e.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT;
+  }
+
+  /**
+   * @param e SQLException thrown by the driver or pool.
+   * @return True if the failure is expected to clear up on its own.
+   */
+  public static boolean isTransient(SQLException e) {
+    return isConnectionFailure(e) || isRolledBack(e);
+  }
+
+  /**
+   * Computes a full jitter exponential backoff delay, a random delay between
+   * zero and base times two to the attempt, capped at five seconds.
+   *
+   * @param attempt Number of attempts made so far, starting at one.
+   * @param baseMillis Base delay in milliseconds.
+   * @return Delay in milliseconds before the next attempt.
+   */
+  public static long backoff(int attempt, long baseMillis) {
+    long ceiling = Math.min(MAX_DELAY_MILLIS, baseMillis << Math.min(attempt, 16));
+    return ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+}
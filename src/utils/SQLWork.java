@@ -0,0 +1,26 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unit of database work run against a borrowed connection. DAO methods pass
+ * their statement handling to DBConnector as an SQLWork so connection
+ * handling, retries and routing stay in one place.
+ *
+ * @param <T> Type of result produced by the work.
+ * @author Sakae Watanabe
+ */
+@FunctionalInterface
+public interface SQLWork<T> {
+
+  /**
+   * Runs the work using the supplied connection. Implementations must not
+   * close the connection.
+   *
+   * @param conn Connection lent out for the duration of the work.
+   * @return Result of the work.
+   * @throws SQLException if the work fails.
+   */
+  T run(Connection conn) throws SQLException;
+}
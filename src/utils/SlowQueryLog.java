@@ -0,0 +1,214 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes statements slower than the configured threshold to a rotating log
+ * file. Entries are formatted on the calling thread and handed to a single
+ * background writer through a bounded queue, so logging never waits on disk.
+ * Entries are dropped and counted if the queue is full.
+ *
+ * @author Sakae Watanabe
+ */
+public class SlowQueryLog {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Number of entries that may wait for the writer.
+   */
+  private static final int QUEUE_CAPACITY = 1024;
+
+  /**
+   * Longest bound parameter value written before truncating.
+   */
+  private static final int MAX_PARAM_LENGTH = 100;
+
+  /**
+   * Statements at or above this many nanoseconds are logged.
+   */
+  private static final long thresholdNanos;
+
+  /**
+   * Log file entries are appended to.
+   */
+  private static final Path logFile;
+
+  /**
+   * Size in bytes at which the log file is rotated.
+   */
+  private static final long maxBytes;
+
+  /**
+   * Number of rotated files kept as file.1 to file.N.
+   */
+  private static final int backups;
+
+  /**
+   * Formatted entries waiting for the writer thread.
+   */
+  private static final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  /**
+   * Entries dropped because the queue was full.
+   */
+  private static final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Entries queued but not yet written.
+   */
+  private static final AtomicLong pending = new AtomicLong();
+
+  /**
+   * Background thread writing queued entries.
+   */
+  private static final Thread writer;
+
+  static {
+    ConfigProps config = new ConfigProps();
+    thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowQueryMillis());
+    logFile = Paths.get(config.getSlowQueryFile());
+    maxBytes = config.getSlowQueryMaxKb() * 1024L;
+    backups = config.getSlowQueryBackups();
+
+    writer = new Thread(SlowQueryLog::drain, "slow-query-log");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * @param nanos Elapsed time of a statement.
+   * @return True if the statement is slow enough to be logged.
+   */
+  static boolean isSlow(long nanos) {
+    return nanos >= thresholdNanos;
+  }
+
+  /**
+   * Queues a slow statement for the log file without blocking.
+   *
+   * @param sql SQL text of the statement.
+   * @param params Bound parameter values in index order, null entries unset.
+   * @param rows Rows fetched or affected.
+   * @param nanos Elapsed time executing and reading results.
+   * @param daoMethod DAO method running the statement.
+   */
+  static void log(String sql, List<Object> params, long rows, long nanos, String daoMethod) {
+    String entry = String.format("%s slow query %.2f ms, %d rows%n"
+            + "  caller: %s via %s%n"
+            + "  sql:    %s%n"
+            + "  params: %s%n",
+        LocalDateTime.now(), nanos / 1e6, rows, DBExecutor.origin(), daoMethod, sql,
+        formatParams(params));
+    pending.incrementAndGet();
+    if (!queue.offer(entry)) {
+      pending.decrementAndGet();
+      dropped.incrementAndGet();
+    }
+  }
+
+  /**
+   * Waits briefly for queued entries to be written. Called by the shutdown
+   * hook when the application exits, on every exit path.
+   */
+  public static void flush() {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+    while (pending.get() > 0 && System.nanoTime() < deadline) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    if (dropped.get() > 0) {
+      System.out.println("Slow query log dropped " + dropped.get() + " entries.");
+    }
+  }
+
+  /**
+   * @param params Bound parameter values in index order.
+   * @return Values as text, strings quoted and long values truncated.
+   */
+  private static String formatParams(List<Object> params) {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < params.size(); i++) {
+      Object value = params.get(i);
+      String text = value instanceof String ? "'" + value + "'" : String.valueOf(value);
+      if (text.length() > MAX_PARAM_LENGTH) {
+        text = text.substring(0, MAX_PARAM_LENGTH) + "...";
+      }
+      values.add((i + 1) + "=" + text);
+    }
+    return values.toString();
+  }
+
+  /**
+   * Writer loop taking entries off the queue and appending them to the file,
+   * rotating it when it grows past the size limit.
+   */
+  private static void drain() {
+    while (true) {
+      try {
+        List<String> batch = new ArrayList<>();
+        batch.add(queue.take());
+        queue.drainTo(batch);
+        try {
+          rotateIfNeeded();
+          try (Writer out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String entry : batch) {
+              out.write(entry);
+            }
+          }
+        } finally {
+          pending.addAndGet(-batch.size());
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (IOException e) {
+        System.out.println("Unable to write slow query log: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Shifts file.N-1 to file.N down to file to file.1 once the log reaches its
+   * size limit, discarding the oldest.
+   *
+   * @throws IOException if a file cannot be moved.
+   */
+  private static void rotateIfNeeded() throws IOException {
+    if (!Files.exists(logFile) || Files.size(logFile) < maxBytes) {
+      return;
+    }
+    for (int i = backups - 1; i >= 1; i--) {
+      Path older = Paths.get(logFile + "." + i);
+      if (Files.exists(older)) {
+        Files.move(older, Paths.get(logFile + "." + (i + 1)),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    Files.move(logFile, Paths.get(logFile + ".1"), StandardCopyOption.REPLACE_EXISTING);
+  }
+}
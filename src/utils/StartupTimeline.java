@@ -0,0 +1,133 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records milestones from application launch until the main view is
+ * interactive, so start up time can be tracked as the application grows.
+ * Milestones are stamped with the time since the first mark and the thread
+ * that reached them. The timeline is printed once the application becomes
+ * interactive and is shown in the diagnostics window.
+ *
+ * @author Sakae Watanabe
+ */
+public class StartupTimeline {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Time in nanoseconds the timeline starts from, taken when the class is
+   * first used by Main.
+   */
+  private static final long origin = System.nanoTime();
+
+  /**
+   * Milestones in the order they were reached.
+   */
+  private static final ConcurrentLinkedQueue<Mark> marks = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Set once the application is interactive, after which marks are ignored.
+   */
+  private static final AtomicBoolean finished = new AtomicBoolean();
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Records a milestone at the current time. Ignored once the application has
+   * become interactive.
+   *
+   * @param event Description of the milestone.
+   */
+  public static void mark(String event) {
+    if (!finished.get()) {
+      String thread = Thread.currentThread().getName();
+      marks.add(new Mark(event, System.nanoTime() - origin,
+          thread.isEmpty() ? "virtual-" + Thread.currentThread().getId() : thread));
+    }
+  }
+
+  /**
+   * Records the final milestone and prints the timeline. Only the first call
+   * has any effect.
+   *
+   * @param event Description of the milestone at which the application is
+   *              interactive.
+   */
+  public static void finish(String event) {
+    mark(event);
+    if (finished.compareAndSet(false, true)) {
+      System.out.print(report());
+    }
+  }
+
+  /**
+   * @return Milliseconds from launch to the final milestone, or -1 if the
+   *         application has not become interactive yet.
+   */
+  public static double getTimeToInteractiveMillis() {
+    if (!finished.get()) {
+      return -1;
+    }
+    double last = 0;
+    for (Mark m : marks) {
+      last = m.nanos / 1e6;
+    }
+    return last;
+  }
+
+  /**
+   * @return Timeline as a text table with the time of each milestone and the
+   *         gap since the previous one.
+   */
+  public static String report() {
+    List<Mark> snapshot = new ArrayList<>(marks);
+    StringBuilder sb = new StringBuilder("Startup timeline");
+    sb.append(finished.get() ? String.format(" (interactive after %.1f ms)%n",
+        getTimeToInteractiveMillis()) : " (in progress)\n");
+    long previous = 0;
+    for (Mark m : snapshot) {
+      sb.append(String.format("  %9.1f ms  +%8.1f ms  %-28s %s%n", m.nanos / 1e6,
+          (m.nanos - previous) / 1e6, m.thread, m.event));
+      previous = m.nanos;
+    }
+    return sb.toString();
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * One milestone on the timeline.
+   */
+  private static final class Mark {
+
+    /** Description of the milestone. */
+    private final String event;
+
+    /** Nanoseconds since the timeline started. */
+    private final long nanos;
+
+    /** Name of the thread that reached the milestone. */
+    private final String thread;
+
+    /**
+     * @param event Description of the milestone.
+     * @param nanos Nanoseconds since the timeline started.
+     * @param thread Name of the thread that reached the milestone.
+     */
+    private Mark(String event, long nanos, String thread) {
+      this.event = event;
+      this.nanos = nanos;
+      this.thread = thread;
+    }
+  }
+}
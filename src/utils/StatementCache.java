@@ -0,0 +1,370 @@
+package utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of prepared statements for a single pooled
+ * connection, keyed by SQL text. Statements handed out by the cache are
+ * returned to it when closed, with their parameters cleared, so DAO methods
+ * can keep preparing statements per call without re-parsing the SQL.
+ * <p>
+ * Hit, miss and eviction counts are totalled across all connections so the
+ * effectiveness of the cache can be checked while the application runs.
+ *
+ * @author Sakae Watanabe
+ */
+public class StatementCache {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Number of prepares served from a cache.
+   */
+  private static final AtomicLong hits = new AtomicLong();
+
+  /**
+   * Number of prepares that had to be sent to the driver.
+   */
+  private static final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Number of statements closed to make room in a full cache.
+   */
+  private static final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Maximum number of statements kept open for the connection.
+   */
+  private final int capacity;
+
+  /**
+   * Cached statements in access order, least recently used first.
+   */
+  private final LinkedHashMap<Key, CachedStatement> statements;
+
+  //===========================================================================
+  // Constructor
+  //===========================================================================
+
+  /**
+   * Creates an empty cache holding at most the given number of statements. A
+   * capacity of zero disables caching.
+   *
+   * @param capacity Maximum number of statements kept open.
+   */
+  StatementCache(int capacity) {
+    this.capacity = capacity;
+    this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+        if (size() > StatementCache.this.capacity) {
+          evictions.incrementAndGet();
+          eldest.getValue().evict();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Returns a prepared statement for the SQL text, reusing a cached statement
+   * when one is free. The statement must be closed by the caller to return
+   * it to the cache.
+   *
+   * @param physical Driver connection the statement belongs to.
+   * @param sql SQL text of the statement.
+   * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or NO_GENERATED_KEYS.
+   * @return PreparedStatement ready for parameters.
+   * @throws SQLException if the driver is unable to prepare the statement.
+   */
+  synchronized PreparedStatement prepare(Connection physical, String sql, int autoGeneratedKeys)
+      throws SQLException {
+    if (capacity <= 0) {
+      return physical.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    Key key = new Key(sql, autoGeneratedKeys);
+    CachedStatement cached = statements.get(key);
+    if (cached != null && !cached.inUse) {
+      hits.incrementAndGet();
+      return cached.checkout();
+    }
+
+    misses.incrementAndGet();
+    PreparedStatement ps = physical.prepareStatement(sql, autoGeneratedKeys);
+    if (cached != null) {
+      // Same SQL already checked out on this connection, hand out a one-off.
+      return ps;
+    }
+    cached = new CachedStatement(key, ps);
+    statements.put(key, cached);
+    return cached.checkout();
+  }
+
+  /**
+   * Closes every cached statement. Called when the owning connection closes.
+   */
+  synchronized void closeAll() {
+    List<CachedStatement> toClose = new ArrayList<>(statements.values());
+    statements.clear();
+    toClose.forEach(CachedStatement::evict);
+  }
+
+  /**
+   * Drops a statement that could not be reset after use.
+   *
+   * @param cached Statement to remove from the cache.
+   */
+  private synchronized void discard(CachedStatement cached) {
+    Iterator<CachedStatement> it = statements.values().iterator();
+    while (it.hasNext()) {
+      if (it.next() == cached) {
+        it.remove();
+        break;
+      }
+    }
+    cached.closeQuietly();
+  }
+
+  /**
+   * @return Number of prepares served from a cache since start up.
+   */
+  public static long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return Number of prepares sent to the driver since start up.
+   */
+  public static long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return Number of statements evicted from full caches since start up.
+   */
+  public static long getEvictionCount() {
+    return evictions.get();
+  }
+
+  /**
+   * @return Summary of the cache counters for console or log output.
+   */
+  public static String summary() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    long ratio = total == 0 ? 0 : Math.round(hitCount * 100.0 / total);
+    return "Statement cache: " + hitCount + " hits, " + misses.get() + " misses ("
+        + ratio + "% hit rate), " + evictions.get() + " evictions";
+  }
+
+  //===========================================================================
+  // Cache Entries
+  //===========================================================================
+
+  /**
+   * Cache key combining the SQL text with the generated keys flag, since the
+   * driver prepares those as different statements.
+   */
+  private static final class Key {
+
+    /** SQL text of the statement. */
+    private final String sql;
+
+    /** Generated keys flag the statement was prepared with. */
+    private final int autoGeneratedKeys;
+
+    /** Precomputed hash of both fields. */
+    private final int hash;
+
+    private Key(String sql, int autoGeneratedKeys) {
+      this.sql = sql;
+      this.autoGeneratedKeys = autoGeneratedKeys;
+      this.hash = 31 * sql.hashCode() + autoGeneratedKeys;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Statement held open by the cache along with its checkout state.
+   */
+  private final class CachedStatement {
+
+    /** Key the statement is cached under. */
+    private final Key key;
+
+    /** Driver statement kept open between uses. */
+    private final PreparedStatement statement;
+
+    /** Indicates the statement is currently checked out by a caller. */
+    private boolean inUse = false;
+
+    /** Indicates the statement was evicted while checked out. */
+    private boolean evicted = false;
+
+    private CachedStatement(Key key, PreparedStatement statement) {
+      this.key = key;
+      this.statement = statement;
+    }
+
+    /**
+     * @return Proxy returning the statement to the cache when closed.
+     */
+    private PreparedStatement checkout() {
+      inUse = true;
+      return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+          new Class<?>[]{PreparedStatement.class}, new Checkout(this));
+    }
+
+    /**
+     * Closes the statement now if free, otherwise once it is returned.
+     */
+    private void evict() {
+      evicted = true;
+      if (!inUse) {
+        closeQuietly();
+      }
+    }
+
+    /**
+     * Clears parameters and any unsent batch so the next caller starts fresh, closing the
+     * statement instead if it was evicted while in use.
+     */
+    private void giveBack() {
+      synchronized (StatementCache.this) {
+        inUse = false;
+        if (evicted) {
+          closeQuietly();
+          return;
+        }
+      }
+      try {
+        statement.clearParameters();
+        statement.clearBatch();
+        statement.clearWarnings();
+      } catch (SQLException e) {
+        discard(this);
+      }
+    }
+
+    /**
+     * Closes the driver statement, ignoring failures.
+     */
+    private void closeQuietly() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Invocation handler for a single checkout of a cached statement. Calls
+   * are forwarded until close, which returns the statement to the cache.
+   */
+  private static final class Checkout implements InvocationHandler {
+
+    /** Cached statement lent out through this checkout. */
+    private final CachedStatement cached;
+
+    /** Indicates the statement has been returned to the cache. */
+    private boolean returned = false;
+
+    private Checkout(CachedStatement cached) {
+      this.cached = cached;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!returned) {
+            returned = true;
+            cached.giveBack();
+          }
+          return null;
+        case "isClosed":
+          if (returned) {
+            return true;
+          }
+          break;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Cached[" + cached.key.sql + "]";
+        default:
+          break;
+      }
+      if (returned) {
+        throw new SQLException("Statement has already been closed.", "HY010");
+      }
+      try {
+        return method.invoke(cached.statement, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * Checks if the prepareStatement overload invoked on a connection is one
+   * the cache can serve, the SQL text alone or with a generated keys flag.
+   *
+   * @param method Connection method being invoked.
+   * @return True if the call can be answered by the cache.
+   */
+  static boolean isCacheable(Method method) {
+    if (!method.getName().equals("prepareStatement")) {
+      return false;
+    }
+    Class<?>[] params = method.getParameterTypes();
+    return params.length == 1 || (params.length == 2 && params[1] == int.class);
+  }
+
+  /**
+   * @param args Arguments of a cacheable prepareStatement call.
+   * @return Generated keys flag of the call.
+   */
+  static int generatedKeysFlag(Object[] args) {
+    return args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+  }
+}
@@ -0,0 +1,155 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the statements of a multi-statement operation, such as deleting a
+ * customer together with its appointments, and runs them as one transaction
+ * with a single commit. DAO methods taking a UnitOfWork queue their statement
+ * here instead of running it, and nothing reaches the database until commit.
+ * Consecutive statements sharing the same SQL are sent as one JDBC batch.
+ *
+ * @author Sakae Watanabe
+ */
+public class UnitOfWork {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Statements in the order they were queued.
+   */
+  private final List<Entry> entries = new ArrayList<>();
+
+  /**
+   * Indicates the unit has been committed and may not be reused.
+   */
+  private boolean committed = false;
+
+  //===========================================================================
+  // Methods
+  //===========================================================================
+
+  /**
+   * Adds a statement to the unit.
+   *
+   * @param sql Insert, update or delete statement.
+   * @param binder Sets the statement parameters.
+   * @return Position of the statement in the update counts returned by commit.
+   */
+  public int queue(String sql, Binder binder) {
+    if (committed) {
+      throw new IllegalStateException("Unit of work has already been committed.");
+    }
+    entries.add(new Entry(sql, binder));
+    return entries.size() - 1;
+  }
+
+  /**
+   * @return Number of statements queued.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Runs all queued statements in one transaction and commits it. If any
+   * statement fails the transaction is rolled back and none of the changes
+   * are kept. Transactions the server rolls back, such as on deadlock, are
+   * retried as a whole through DBConnector.transaction.
+   *
+   * @return Update count of each statement in the order queued.
+   * @throws SQLException if a statement or the commit fails.
+   */
+  public int[] commit() throws SQLException {
+    if (committed) {
+      throw new IllegalStateException("Unit of work has already been committed.");
+    }
+    if (entries.isEmpty()) {
+      committed = true;
+      return new int[0];
+    }
+    int[] counts = DBConnector.transaction(this::execute);
+    committed = true;
+    return counts;
+  }
+
+  /**
+   * Executes the queued statements, batching consecutive statements with the
+   * same SQL. Auto commit is restored by the pool when the connection is
+   * returned.
+   *
+   * @param conn Connection with the transaction open.
+   * @return Update count of each statement in the order queued.
+   * @throws SQLException if a statement fails.
+   */
+  private int[] execute(Connection conn) throws SQLException {
+    int[] counts = new int[entries.size()];
+    int first = 0;
+    while (first < entries.size()) {
+      String sql = entries.get(first).sql;
+      int end = first + 1;
+      while (end < entries.size() && entries.get(end).sql.equals(sql)) {
+        end++;
+      }
+      try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        if (end - first == 1) {
+          entries.get(first).binder.bind(ps);
+          counts[first] = ps.executeUpdate();
+        } else {
+          for (int i = first; i < end; i++) {
+            entries.get(i).binder.bind(ps);
+            ps.addBatch();
+          }
+          int[] batch = ps.executeBatch();
+          System.arraycopy(batch, 0, counts, first, batch.length);
+        }
+      }
+      first = end;
+    }
+    return counts;
+  }
+
+  //===========================================================================
+  // Nested Classes
+  //===========================================================================
+
+  /**
+   * Sets the parameters of a queued statement when the unit is committed.
+   */
+  @FunctionalInterface
+  public interface Binder {
+
+    /**
+     * @param ps Statement to bind parameters on.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    void bind(PreparedStatement ps) throws SQLException;
+  }
+
+  /**
+   * A queued statement and its parameters.
+   */
+  private static final class Entry {
+
+    /** SQL text of the statement. */
+    private final String sql;
+
+    /** Sets the statement parameters. */
+    private final Binder binder;
+
+    /**
+     * @param sql SQL text of the statement.
+     * @param binder Sets the statement parameters.
+     */
+    private Entry(String sql, Binder binder) {
+      this.sql = sql;
+      this.binder = binder;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+-- Adds the appointment start time indexes to a database created with the
+-- original /utils/JFXAppointments.sql. Run once against YOUR_DATABASE; new
+-- databases created from the current script already have these indexes.
+--
+-- Start_ID serves the start time window queries and the keyset paging of the
+-- main table. The (owner, Start) indexes serve queries for one contact,
+-- customer or user within a time range, and replace the single column foreign
+-- key indexes, which they cover as a leftmost prefix.
+USE YOUR_DATABASE;
+
+ALTER TABLE `appointments`
+    ADD KEY `Start_ID` (`Start`, `Appointment_ID`),
+    ADD KEY `Contact_Start` (`Contact_ID`, `Start`),
+    ADD KEY `Customer_Start` (`Customer_ID`, `Start`),
+    ADD KEY `User_Start` (`User_ID`, `Start`);
+
+ALTER TABLE `appointments`
+    DROP KEY `Contact_ID`,
+    DROP KEY `Customer_ID`,
+    DROP KEY `User_ID`;
@@ -0,0 +1,15 @@
+-- Extends the per resource start time indexes added by V2 with the End
+-- column, so conflict checks for a contact, customer or user test both ends
+-- of the overlap within the index. Run once against YOUR_DATABASE after V2;
+-- new databases created from the current script already have these indexes.
+USE YOUR_DATABASE;
+
+ALTER TABLE `appointments`
+    ADD KEY `Contact_Start_End` (`Contact_ID`, `Start`, `End`),
+    ADD KEY `Customer_Start_End` (`Customer_ID`, `Start`, `End`),
+    ADD KEY `User_Start_End` (`User_ID`, `Start`, `End`);
+
+ALTER TABLE `appointments`
+    DROP KEY `Contact_Start`,
+    DROP KEY `Customer_Start`,
+    DROP KEY `User_Start`;
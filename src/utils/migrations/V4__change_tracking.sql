@@ -0,0 +1,24 @@
+-- Adds change tracking for the main view's incremental refresh. Run once
+-- against YOUR_DATABASE after V3; new databases created from the current
+-- script already have these changes.
+--
+-- The Last_Update indexes serve the queries for customers and appointments
+-- changed since the last refresh. deleted_records holds a row for each
+-- customer and appointment deleted, written by the application in the same
+-- transaction as the delete, so other clients can remove them too.
+USE YOUR_DATABASE;
+
+ALTER TABLE `customers`
+    ADD KEY `Last_Update` (`Last_Update`);
+
+ALTER TABLE `appointments`
+    ADD KEY `Last_Update` (`Last_Update`);
+
+CREATE TABLE `deleted_records`
+(
+    `Table_Name` varchar(64) NOT NULL,
+    `Record_ID`  INT         NOT NULL,
+    `Deleted_At` timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    KEY `Table_Deleted_At` (`Table_Name`, `Deleted_At`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
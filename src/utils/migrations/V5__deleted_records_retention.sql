@@ -0,0 +1,12 @@
+-- Indexes deleted_records by time for pruning. Run once against
+-- YOUR_DATABASE after V4; new databases created from the current script
+-- already have this change.
+--
+-- The application deletes rows older than the configured retention
+-- (deletedRetentionHours) in the same transaction as each delete it records.
+-- Clients that last refreshed before the retention reload everything rather
+-- than read deletions that may have been pruned.
+USE YOUR_DATABASE;
+
+ALTER TABLE `deleted_records`
+    ADD KEY `Deleted_At` (`Deleted_At`);
@@ -1,9 +1,10 @@
 package view_controller;
 
+import cache.ConflictDetector;
+import cache.ReferenceCache;
+import dao.AppointmentDAO.Resource;
 import dao.impl.AppointmentDAOImpl;
-import dao.impl.ContactDAOImpl;
-import dao.impl.CustomerDAOImpl;
-import dao.impl.UserDAOImpl;
+import dao.impl.asyncDAOImpl.AsyncAppointmentDAOImpl;
 import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
@@ -15,16 +16,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javafx.animation.PauseTransition;
-import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Control;
@@ -34,12 +32,13 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import model.Appointment;
+import model.BookingResult;
 import model.Contact;
 import model.Customer;
-import model.Person;
 import model.User;
 import utils.BusinessHours;
 import utils.ControlValidation;
+import utils.IntIndex;
 import utils.NotificationHandler;
 
 
@@ -77,34 +76,29 @@ public class AppointmentViewController {
   private final AppointmentDAOImpl appointmentDAO = new AppointmentDAOImpl();
 
   /**
-   * ContactDAO implementation for data retrieval.
+   * In-memory index of upcoming appointments for instant overlap feedback.
    */
-  private final ContactDAOImpl contactDAO = new ContactDAOImpl();
+  private final ConflictDetector conflictDetector = ConflictDetector.shared();
 
   /**
-   * CustomerDAO implementation for data retrieval.
+   * Completes once contacts, customers and users have been loaded.
    */
-  private final CustomerDAOImpl customerDAO = new CustomerDAOImpl();
+  private CompletableFuture<Void> dataLoaded;
 
   /**
-   * UserDAO implementation for data retrieval.
+   * Contacts of the contact combo box by id.
    */
-  private final UserDAOImpl userDAO = new UserDAOImpl();
+  private IntIndex<Contact> contacts;
 
   /**
-   * List of contacts for use in the contact combo box.
+   * Customers of the customer combo box by id.
    */
-  private ObservableList<Contact> contacts;
+  private IntIndex<Customer> customers;
 
   /**
-   * List of customers for use in the customer combo box.
+   * Users of the user combo box by id.
    */
-  private ObservableList<Customer> customers;
-
-  /**
-   * List of users for use in user combo box.
-   */
-  private ObservableList<User> users;
+  private IntIndex<User> users;
 
   /**
    * FilteredList of starting times for appointments.
@@ -236,13 +230,22 @@ public class AppointmentViewController {
   @FXML
   private Label dateWarning;
 
+  /**
+   * Text shown on the date warning label while the chosen times overlap
+   * another appointment of the contact.
+   */
+  private static final String OVERLAP_WARNING = "Overlaps another appointment";
+
   //===========================================================================
   // Scene Initialization
   //===========================================================================
 
   /**
    * Initialize values for combo boxes, start times, end times, and add empty
-   * field listeners to all controls that require data completion.
+   * field listeners to all controls that require data completion. Contacts,
+   * customers and users come from the shared reference cache, loaded in
+   * parallel off the JavaFX thread only when not already cached, along with
+   * the cache's indexes used to select the records of an appointment.
    *
    * <p>
    * <strong>DISCUSSION OF {@index LAMBDA_5}</strong> - <blockquote>Lambda used to add focus listeners to all field controls
@@ -253,16 +256,23 @@ public class AppointmentViewController {
    */
   @FXML
   public void initialize() {
-    contacts = contactDAO.getAll();
-    customers = customerDAO.getAll();
-    users = userDAO.getAll();
+    dataLoaded = CompletableFuture.allOf(
+        ReferenceCache.contacts.getLoaded().thenAccept(loaded -> {
+          contacts = loaded.getIndex();
+          contactCombo.setItems(loaded.getList());
+        }),
+        ReferenceCache.customers.getLoaded().thenAccept(loaded -> {
+          customers = loaded.getIndex();
+          customerCombo.setItems(loaded.getList());
+        }),
+        ReferenceCache.users.getLoaded().thenAccept(loaded -> {
+          users = loaded.getIndex();
+          userCombo.setItems(loaded.getList());
+        }));
 
     startTimes = BusinessHours.getStartTimes().filtered(s -> true);
     endTimes = BusinessHours.getEndTimes().filtered(e -> true);
 
-    contactCombo.setItems(contacts);
-    customerCombo.setItems(customers);
-    userCombo.setItems(users);
     startTime.setItems(startTimes);
     endTime.setItems(endTimes);
 
@@ -271,6 +281,13 @@ public class AppointmentViewController {
     fieldControls.forEach(c -> ControlValidation
         .checkEmptySelections(c, fieldControlStatus, emptyWarning, saveButton));
 
+    startDate.valueProperty().addListener((obs, oldValue, newValue) -> showConflicts());
+    startTime.valueProperty().addListener((obs, oldValue, newValue) -> showConflicts());
+    endDate.valueProperty().addListener((obs, oldValue, newValue) -> showConflicts());
+    endTime.valueProperty().addListener((obs, oldValue, newValue) -> showConflicts());
+    contactCombo.valueProperty().addListener((obs, oldValue, newValue) -> showConflicts());
+    conflictDetector.ensureLoaded(new AsyncAppointmentDAOImpl(appointmentDAO))
+        .thenRun(this::showConflicts);
   }
 
   /**
@@ -293,7 +310,7 @@ public class AppointmentViewController {
     this.user = user;
     this.isNew = isNew;
     this.currentAppointment = null;
-    updateAppointmentLabels();
+    dataLoaded.thenRun(this::updateAppointmentLabels);
   }
 
   /**
@@ -309,7 +326,7 @@ public class AppointmentViewController {
     this.user = user;
     this.isNew = isNew;
     this.currentAppointment = appointment;
-    updateAppointmentLabels();
+    dataLoaded.thenRun(this::updateAppointmentLabels);
   }
 
 
@@ -333,9 +350,9 @@ public class AppointmentViewController {
       endDate.setValue(currentAppointment.getEndTime().toLocalDate());
       descriptionField.setText(currentAppointment.getDescription());
 
-      contactCombo.setValue((Contact)findPersonById(contacts, currentAppointment.getContactId()));
-      customerCombo.setValue((Customer)findPersonById(customers, currentAppointment.getCustomerId()));
-      userCombo.setValue((User)findPersonById(users, currentAppointment.getUserId()));
+      contactCombo.setValue(contacts.get(currentAppointment.getContactId()));
+      customerCombo.setValue(customers.get(currentAppointment.getCustomerId()));
+      userCombo.setValue(users.get(currentAppointment.getUserId()));
 
       startTime.setValue(currentAppointment.getLocalStartTime());
       endTime.setValue(currentAppointment.getLocalEndTime());
@@ -354,6 +371,12 @@ public class AppointmentViewController {
    * and end times must be within close of business hours range. The BusinessHours
    * utility helps convert the local date time selections to the business hours
    * time zone for confirmation if appointments are within the proper range.
+   * The appointment may not overlap another appointment of the selected contact.
+   * The in-memory conflict detector only drives the warning shown while the
+   * form is edited; on save the database, which also holds appointments
+   * booked or moved by other users, is always checked and the appointment
+   * saved in one transaction with the contact locked. Only overlaps found
+   * there refuse the save.
    *
    * @param event ActionEvent triggered by user clicking on the save button.
    * @throws IOException Exception from failure to load the main scene.
@@ -384,50 +407,49 @@ public class AppointmentViewController {
 
       if (ready) {
         var apptId = isNew ? -1 : currentAppointment.getId();
-        var conflictList = appointmentDAO.getBetween(start, end, apptId);
-
-        if (conflictList.isEmpty()) {
-          int customerId = customerCombo.getValue().getId();
-          int contactId = contactCombo.getValue().getId();
-          int userId = userCombo.getValue().getId();
-          String contactName = contactCombo.getValue().getName();
-          String title = titleField.getText().strip();
-          String description = descriptionField.getText().strip();
-          String type = typeField.getText().strip();
-          String location = locationField.getText().strip();
-
-          if (isNew) {
-            currentAppointment = new Appointment(apptId, customerId, contactId, contactName,
-                userId, title, description, type, location, start, end);
-            currentAppointment.setId(appointmentDAO.addAppointment(currentAppointment, user));
-
-            if (currentAppointment.getId() > 0) {
-              NotificationHandler.warningPopup("Add Complete", "Appointment\n" +
-                  currentAppointment + " has been added.");
-              loadMainView(event);
-            }
-          } else {
-            currentAppointment.setTitle(title);
-            currentAppointment.setLocation(location);
-            currentAppointment.setType(type);
-            currentAppointment.setStartTime(start);
-            currentAppointment.setEndTime(end);
-            currentAppointment.setContactId(contactId);
-            currentAppointment.setContactName(contactName);
-            currentAppointment.setCustomerId(customerId);
-            currentAppointment.setUserId(userId);
-            int rowsAffected = appointmentDAO.updateAppointment(currentAppointment, user);
-            if (rowsAffected > 0) {
-              NotificationHandler.warningPopup("Update Complete", "Appointment\n" +
-                  currentAppointment + " has been updated.");
-              loadMainView(event);
-            }
-          }
+        int customerId = customerCombo.getValue().getId();
+        int contactId = contactCombo.getValue().getId();
+        int userId = userCombo.getValue().getId();
+        String contactName = contactCombo.getValue().getName();
+        String title = titleField.getText().strip();
+        String description = descriptionField.getText().strip();
+        String type = typeField.getText().strip();
+        String location = locationField.getText().strip();
+
+        if (isNew) {
+          currentAppointment = new Appointment(apptId, customerId, contactId, contactName,
+              userId, title, description, type, location, start, end);
         } else {
-          conflictMessages = conflictList.stream().map(Appointment::toString)
-              .collect(Collectors.toList());
-          NotificationHandler.warningPopup("Scheduling Overlap", conflictMessages);
+          currentAppointment.setTitle(title);
+          currentAppointment.setLocation(location);
+          currentAppointment.setType(type);
+          currentAppointment.setStartTime(start);
+          currentAppointment.setEndTime(end);
+          currentAppointment.setContactId(contactId);
+          currentAppointment.setContactName(contactName);
+          currentAppointment.setCustomerId(customerId);
+          currentAppointment.setUserId(userId);
+        }
+
+        BookingResult booking = appointmentDAO.bookAppointment(currentAppointment, user);
+        if (booking == null) {
+          return;
         }
+        if (booking.isBooked()) {
+          currentAppointment.setId(booking.getId());
+          conflictDetector.put(currentAppointment);
+          NotificationHandler.warningPopup(isNew ? "Add Complete" : "Update Complete",
+              "Appointment\n" + currentAppointment + " has been "
+                  + (isNew ? "added." : "updated."));
+          loadMainView(event);
+          return;
+        }
+
+        // The database's overlaps are current, so the live warning should show them too.
+        booking.getConflicts().forEach(conflictDetector::put);
+        conflictMessages = booking.getConflicts().stream().map(Appointment::toString)
+            .collect(Collectors.toList());
+        NotificationHandler.warningPopup("Scheduling Overlap", conflictMessages);
       } else {
           PauseTransition dateWarningPause = new PauseTransition(Duration.seconds(10));
           dateWarning.setVisible(true);
@@ -441,6 +463,33 @@ public class AppointmentViewController {
     }
   }
 
+  /**
+   * Shows or clears the overlap warning for the times and contact currently
+   * chosen, using the in-memory conflict detector. Nothing is shown while the
+   * choice is incomplete or outside the detector's window.
+   */
+  private void showConflicts() {
+    List<Appointment> conflicts = null;
+    if (startDate.getValue() != null && startTime.getValue() != null
+        && endDate.getValue() != null && endTime.getValue() != null
+        && contactCombo.getValue() != null) {
+      LocalDateTime start = LocalDateTime.of(startDate.getValue(), startTime.getValue());
+      LocalDateTime end = LocalDateTime.of(endDate.getValue(), endTime.getValue());
+      int apptId = isNew || currentAppointment == null ? -1 : currentAppointment.getId();
+      if (start.isBefore(end)) {
+        conflicts = conflictDetector.findConflicts(Resource.CONTACT,
+            contactCombo.getValue().getId(), start, end, apptId);
+      }
+    }
+
+    if (conflicts != null && !conflicts.isEmpty()) {
+      dateWarning.setText(OVERLAP_WARNING);
+      dateWarning.setVisible(true);
+    } else if (OVERLAP_WARNING.equals(dateWarning.getText())) {
+      dateWarning.setVisible(false);
+    }
+  }
+
   /**
    * Cancel the current add or update operation and revert scene to the main view.
    *
@@ -463,49 +512,10 @@ public class AppointmentViewController {
    * @param event ActionEvent triggered by save or cancel button handlers.
    * @throws IOException if unable to load main view fxml.
    */
-  @SuppressWarnings("DuplicatedCode")
   private void loadMainView(ActionEvent event) throws IOException {
-    FXMLLoader loader = new FXMLLoader();
-    loader.setLocation(getClass().getResource("/view_controller/MainView.fxml"));
-    Parent parent = loader.load();
-    Scene scene = new Scene(parent);
-
-    MainViewController controller = loader.getController();
-    controller.initData(user);
-
     Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-    stage.setScene(scene);
+    stage.setScene(MainViewController.loadScene(user));
     stage.show();
   }
 
-
-  /**
-   * Binary search implementation to find person by id in a list of sorted persons.
-   *
-   * @param persons List of Person type objects that we can search by id.
-   * @param id ID number of the person we would like to find.
-   * @return Person object representing the matching contact from the list or null.
-   */
-  private Person findPersonById(ObservableList<? extends Person> persons, int id) {
-    int low = 0;
-    int high = persons.size() - 1;
-    int idx = -1;
-
-    while (low <= high) {
-      int mid = (low + high) / 2;
-      if (persons.get(mid).getId() < id) {
-        low = mid + 1;
-      } else if (persons.get(mid).getId() > id) {
-        high = mid - 1;
-      } else if (persons.get(mid).getId() == id) {
-          idx = mid;
-          break;
-      }
-    }
-    if (idx >= 0) {
-      return persons.get(idx);
-    }
-    return null;
-  }
-
 }
@@ -1,8 +1,7 @@
 package view_controller;
 
-import dao.impl.CountryDAOImpl;
+import cache.ReferenceCache;
 import dao.impl.CustomerDAOImpl;
-import dao.impl.DivisionDAOImpl;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -11,13 +10,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
-import javafx.collections.transformation.FilteredList;
+import java.util.concurrent.CompletableFuture;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Control;
@@ -27,6 +23,7 @@ import javafx.stage.Stage;
 import model.Country;
 import model.Customer;
 import model.Division;
+import model.GeographyIndex;
 import model.User;
 import utils.ControlValidation;
 import utils.NotificationHandler;
@@ -54,34 +51,31 @@ public class CustomerViewController {
   private boolean isNew;
 
   /**
-   * Holds current customer record when updating customer.
+   * Holds a copy of the customer record when updating customer, so unsaved
+   * edits are not seen elsewhere.
    */
   private Customer currentCustomer;
 
   /**
-   * CustomerDAOImpl used for adding or updating customer record.
+   * Shared instance of the customer being updated, shown by the other views
+   * and changed only once the update has been saved.
    */
-  private final CustomerDAOImpl customerDAO = new CustomerDAOImpl();
+  private Customer sharedCustomer;
 
   /**
-   * CountryDAOImpl used for updating country combo box data..
-   */
-  private final CountryDAOImpl countryDAO = new CountryDAOImpl();
-
-  /**
-   * Filtered list for holding country records for the combo box.
+   * CustomerDAOImpl used for adding or updating customer record.
    */
-  private FilteredList<Country> countries;
+  private final CustomerDAOImpl customerDAO = new CustomerDAOImpl();
 
   /**
-   * DivisionDAOImpl used for updating division combo box data..
+   * Index of countries and divisions backing both combo boxes.
    */
-  private final DivisionDAOImpl divisionDAO = new DivisionDAOImpl();
+  private GeographyIndex geography;
 
   /**
-   * Filtered list for holding division records for the combo box.
+   * Completes once divisions and countries have been loaded.
    */
-  private FilteredList<Division> divisions;
+  private CompletableFuture<Void> dataLoaded;
 
   /**
    * List containing the field controls for the form.
@@ -175,7 +169,9 @@ public class CustomerViewController {
 
   /**
    * Initialize method prepares the scene controls, contents, and adds listeners
-   * for basic field validation to prevent empty field submissions.
+   * for basic field validation to prevent empty field submissions. Divisions
+   * and countries come from the shared reference cache's geography index,
+   * loaded off the JavaFX thread only when not already cached.
    * <p>
    * <strong>DISCUSSION OF {@index LAMBDA_4}</strong> - <blockquote>Lambda used to add focus listeners to all field controls
    *                        for scene that require data collection. Reduced necessary
@@ -185,11 +181,10 @@ public class CustomerViewController {
    */
   @FXML
   public void initialize() {
-    divisions = divisionDAO.getAll().filtered(d -> true);
-    divisionComboBox.setItems(divisions);
-
-    countries = countryDAO.getAll().filtered(c -> true);
-    countryComboBox.setItems(countries);
+    dataLoaded = ReferenceCache.geography().thenAccept(index -> {
+      geography = index;
+      countryComboBox.setItems(geography.getCountries());
+    });
 
     fieldControls.addAll(Arrays.asList(nameField, addressField, postCode, divisionComboBox,
         countryComboBox, phoneNumber));
@@ -209,8 +204,9 @@ public class CustomerViewController {
     this.user = user;
     this.isNew = isNew;
     this.currentCustomer = null;
+    this.sharedCustomer = null;
     fieldControlStatus.replaceAll((k, v) -> v = false);
-    updateCustomerLabels();
+    dataLoaded.thenRun(this::updateCustomerLabels);
   }
 
   /**
@@ -223,10 +219,13 @@ public class CustomerViewController {
    */
   public void initCustomerData(boolean isNew, User user, Customer customer) {
     this.user = user;
-    this.currentCustomer = customer;
+    this.currentCustomer = new Customer(customer);
+    this.sharedCustomer = customer;
     this.isNew = isNew;
-    updateCustomerLabels();
-    fieldControlStatus.replaceAll((k, v) -> v = true);
+    dataLoaded.thenRun(() -> {
+      updateCustomerLabels();
+      fieldControlStatus.replaceAll((k, v) -> v = true);
+    });
   }
 
   /**
@@ -249,17 +248,12 @@ public class CustomerViewController {
         postCode.setText(currentCustomer.getPostalCode());
         phoneNumber.setText(currentCustomer.getPhoneNumber());
 
-        for (Division d : divisions) {
-          if (currentCustomer.getDivisionId().equals(d.getId())) {
-            for (Country c : countries) {
-              if (c.getId() == d.getCountryID()) {
-                countryComboBox.setValue(c);
-                filterDivisions();
-                divisionComboBox.setValue(d);
-                return;
-              }
-            }
-          }
+        Division d = geography.getDivision(currentCustomer.getDivisionId());
+        Country c = geography.countryOf(d);
+        if (c != null) {
+          countryComboBox.setValue(c);
+          filterDivisions();
+          divisionComboBox.setValue(d);
         }
 
       }
@@ -292,6 +286,7 @@ public class CustomerViewController {
         currentCustomer = new Customer(-1, name, address, postalCode, phone, divisionId);
         currentCustomer.setId(customerDAO.addCustomer(currentCustomer, user));
         if (currentCustomer.getId() > 0) {
+          ReferenceCache.customers.invalidate();
           NotificationHandler.warningPopup("Add Complete", "Customer\n" +
               currentCustomer + " has been added.");
           loadMainView(event);
@@ -304,6 +299,8 @@ public class CustomerViewController {
         currentCustomer.setDivisionId(divisionId);
         int rowsAffected = customerDAO.updateCustomer(currentCustomer, user);
         if (rowsAffected > 0) {
+          sharedCustomer.setAll(currentCustomer);
+          ReferenceCache.customers.invalidate();
           NotificationHandler.warningPopup("Update Complete", "Customer\n" +
               currentCustomer + " has been updated.");
           loadMainView(event);
@@ -334,19 +331,9 @@ public class CustomerViewController {
    * @param event ActionEvent triggered by save or cancel button handlers.
    * @throws IOException if unable to load main view fxml.
    */
-  @SuppressWarnings("DuplicatedCode")
   private void loadMainView(ActionEvent event) throws IOException {
-
-    FXMLLoader loader = new FXMLLoader();
-    loader.setLocation(getClass().getResource("/view_controller/MainView.fxml"));
-    Parent parent = loader.load();
-    Scene scene = new Scene(parent);
-
-    MainViewController controller = loader.getController();
-    controller.initData(user);
-
     Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-    stage.setScene(scene);
+    stage.setScene(MainViewController.loadScene(user));
     stage.show();
   }
 
@@ -361,11 +348,7 @@ public class CustomerViewController {
     Division currentDivision = divisionComboBox.getSelectionModel().getSelectedItem();
     Country currentCountry = countryComboBox.getSelectionModel().getSelectedItem();
     if ((currentDivision != null) && (currentCountry == null)) {
-      for (Country c : countries) {
-        if (currentDivision.getCountryID() == c.getId()) {
-          countryComboBox.getSelectionModel().select(c);
-        }
-      }
+      countryComboBox.getSelectionModel().select(geography.countryOf(currentDivision));
     }
   }
 
@@ -381,17 +364,21 @@ public class CustomerViewController {
 
 
   /**
-   * Filters list of available choices for divisions based on country selection.
+   * Limits the choices for divisions to those of the selected country, using
+   * the index's precomputed division list for that country.
    */
   private void filterDivisions() {
     Country currentCountry = countryComboBox.getSelectionModel().getSelectedItem();
     Division currentDivision = divisionComboBox.getSelectionModel().getSelectedItem();
+    if (currentCountry == null) {
+      return;
+    }
     if (currentDivision != null) {
       if ((currentDivision.getCountryID() != currentCountry.getId())) {
         divisionComboBox.getSelectionModel().clearSelection();
       }
     }
-    divisions.setPredicate(d -> d.getCountryID() == currentCountry.getId());
+    divisionComboBox.setItems(geography.divisionsOf(currentCountry.getId()));
   }
 
 }
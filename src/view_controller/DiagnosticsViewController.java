@@ -0,0 +1,90 @@
+package view_controller;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextArea;
+import javafx.stage.Stage;
+import utils.QueryMetrics;
+import utils.StartupTimeline;
+
+/**
+ * Displays latency, row, byte and error totals collected by QueryMetrics for
+ * each DAO method and SQL statement run since start up or the last reset,
+ * along with the start up timeline.
+ *
+ * @author Sakae Watanabe
+ */
+public class DiagnosticsViewController {
+
+  //===========================================================================
+  // Data Members
+  //===========================================================================
+
+  /**
+   * Closes the diagnostics window and returns control to main.
+   */
+  @FXML
+  private Button backButton;
+
+  /**
+   * TextArea containing the metrics tables.
+   */
+  @FXML
+  private TextArea diagnosticsText;
+
+  //===========================================================================
+  // Scene Initialization
+  //===========================================================================
+
+  /**
+   * Fills the view with the current totals.
+   */
+  @FXML
+  public void initialize() {
+    diagnosticsText.setText(report());
+  }
+
+  /**
+   * @return Query metrics tables followed by the start up timeline.
+   */
+  private String report() {
+    return QueryMetrics.report() + "\n" + StartupTimeline.report();
+  }
+
+  //===========================================================================
+  // Event Handlers
+  //===========================================================================
+
+  /**
+   * Redraws the tables with the latest totals.
+   *
+   * @param event ActionEvent triggered by refresh button.
+   */
+  @FXML
+  private void refreshHandler(ActionEvent event) {
+    diagnosticsText.setText(report());
+  }
+
+  /**
+   * Clears all totals so the next action can be measured on its own.
+   *
+   * @param event ActionEvent triggered by reset button.
+   */
+  @FXML
+  private void resetHandler(ActionEvent event) {
+    QueryMetrics.reset();
+    diagnosticsText.setText(report());
+  }
+
+  /**
+   * Closes the diagnostics screen and returns control to the main view.
+   *
+   * @param event ActionEvent triggered by back button.
+   */
+  @FXML
+  private void closeDiagnostics(ActionEvent event) {
+    Stage stage = (Stage) backButton.getScene().getWindow();
+    stage.close();
+  }
+}
@@ -2,7 +2,8 @@ package view_controller;
 
 import static utils.BusinessHours.businessNow;
 
-import dao.impl.UserDAOImpl;
+import dao.AsyncUserDAO;
+import dao.impl.asyncDAOImpl.AsyncUserDAOImpl;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.net.URL;
@@ -21,11 +22,8 @@ import java.util.Locale;
 import java.util.ResourceBundle;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
@@ -33,6 +31,7 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import model.User;
 import utils.NotificationHandler;
+import utils.StartupTimeline;
 
 /**
  * Controller class that handles the main application login screen. Responsible
@@ -48,8 +47,8 @@ public class LoginController implements Initializable {
   /** Resource bundle containing language translation properties. */
   private ResourceBundle resources;
 
-  /** UserDAOImpl object for obtaining user records. */
-  private final UserDAOImpl userDAOImpl = new UserDAOImpl();
+  /** Async UserDAO for obtaining user records off the JavaFX thread. */
+  private final AsyncUserDAO userDAO = new AsyncUserDAOImpl();
 
   /** User object for holding current record for validation.  */
   private User user = null;
@@ -96,7 +95,10 @@ public class LoginController implements Initializable {
   /**
    * Sends request to server to validate provided login credentials for user and
    * password fields. Logical checks are made for empty user name and password
-   * fields, password validity, and existence of user in the database.
+   * fields, password validity, and existence of user in the database. The user
+   * record is looked up off the JavaFX thread, as the database connection may
+   * still be opening in the background, with the login button disabled until
+   * the lookup completes.
    *
    * @param event Event generated by user pushing loginButton.
    */
@@ -104,7 +106,6 @@ public class LoginController implements Initializable {
   private void verifyLogin(ActionEvent event) {
     String userName = userNameField.getText();
     String password = passwordField.getText();
-    List<String> errorMessages = new ArrayList<>();
 
     if (userName.isEmpty() || password.isEmpty()) {
       if (userName.isBlank()) {
@@ -112,25 +113,45 @@ public class LoginController implements Initializable {
       } else {
         logUserActivity(userNameField.getText(), false);
       }
-      errorMessages.add(resources.getString("emptyFields"));
+      showLoginErrors(List.of(resources.getString("emptyFields")));
+      return;
+    }
+
+    StartupTimeline.mark("login submitted");
+    loginButton.setDisable(true);
+    userDAO.getUserByName(userName).whenComplete((found, error) -> {
+      loginButton.setDisable(false);
+      user = found;
+      checkCredentials(event, userName, password);
+    });
+  }
+
+  /**
+   * Validates the password against the user record found and either loads the
+   * main view or lists the problems found.
+   *
+   * @param event Event generated by user pushing loginButton.
+   * @param userName User name entered.
+   * @param password Password entered.
+   */
+  private void checkCredentials(ActionEvent event, String userName, String password) {
+    List<String> errorMessages = new ArrayList<>();
+
+    if (user != null) {
+      if (!password.equals(user.getPassword())) {
+        errorMessages.add(resources.getString("invalidPassword"));
+        logUserActivity(userName, false);
+      }
     } else {
-        user = userDAOImpl.getUserByName(userName);
-        if (user != null) {
-          if (!password.equals(user.getPassword())) {
-            errorMessages.add(resources.getString("invalidPassword"));
-            logUserActivity(userNameField.getText(),false);
-          }
-        } else {
-            errorMessages.add(String.format(resources.getString("userNotFound"), userName));
-            logUserActivity(userNameField.getText(),false);
-        }
+      errorMessages.add(String.format(resources.getString("userNotFound"), userName));
+      logUserActivity(userName, false);
     }
+
     if (errorMessages.size() > 0) {
-      NotificationHandler.warningPopup(resources.getString("loginError"), errorMessages);
-      userNameField.requestFocus();
+      showLoginErrors(errorMessages);
     } else {
       try {
-        logUserActivity(userNameField.getText(),true);
+        logUserActivity(userName, true);
         loadMainView(event);
       } catch (IOException e) {
         NotificationHandler.warningPopup("Main Screen", e.getMessage());
@@ -138,29 +159,31 @@ public class LoginController implements Initializable {
     }
   }
 
+  /**
+   * Shows login problems and returns focus to the user name field.
+   *
+   * @param errorMessages Problems found with the login attempt.
+   */
+  private void showLoginErrors(List<String> errorMessages) {
+    NotificationHandler.warningPopup(resources.getString("loginError"), errorMessages);
+    userNameField.requestFocus();
+  }
+
   /**
    * Loads main application view and calls scene initialization method.
    *
    * @param event ActionEvent produced when user enters credentials.
    * @throws IOException if unable to load main view fxml.
    */
-  @SuppressWarnings("DuplicatedCode")
   private void loadMainView(ActionEvent event) throws IOException {
     passwordField.clear();
     userNameField.clear();
 
-    FXMLLoader loader = new FXMLLoader();
-    loader.setLocation(getClass().getResource("/view_controller/MainView.fxml"));
-    Parent parent = loader.load();
-    Scene scene = new Scene(parent);
-
-    MainViewController controller = loader.getController();
-    controller.initData(user);
-
     Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-    stage.setScene(scene);
+    stage.setScene(MainViewController.loadScene(user));
     stage.setResizable(true);
     stage.show();
+    StartupTimeline.mark("main view shown");
   }
 
   /**
@@ -3,19 +3,37 @@ package view_controller;
 import static utils.NotificationHandler.confirmPopup;
 import static utils.NotificationHandler.warningPopup;
 
+import cache.ConflictDetector;
+import cache.LocalSnapshot;
+import cache.PagedAppointmentList;
+import cache.ReferenceCache;
+import cache.SnapshotWriter;
+import cache.StartupPrefetch;
+import dao.AsyncAppointmentDAO;
+import dao.AsyncCustomerDAO;
 import dao.impl.AppointmentDAOImpl;
 import dao.impl.CustomerDAOImpl;
+import dao.impl.asyncDAOImpl.AsyncAppointmentDAOImpl;
+import dao.impl.asyncDAOImpl.AsyncCustomerDAOImpl;
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.Period;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -30,14 +48,25 @@ import javafx.scene.control.Label;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.CellDataFeatures;
 import javafx.scene.control.TableView;
 import javafx.scene.control.ToggleGroup;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Callback;
 import model.Appointment;
+import model.ChangeSet;
 import model.Customer;
+import model.GeographyIndex;
 import model.User;
+import utils.BusinessHours;
+import utils.ChangeLog;
+import utils.ChangeWatcher;
+import utils.ConfigProps;
+import utils.DBExecutor;
 import utils.NotificationHandler;
+import utils.StartupTimeline;
+import utils.UnitOfWork;
 
 /**
  * MainViewController handles scene events and logic for the main view.
@@ -62,15 +91,99 @@ public class MainViewController implements Initializable {
   private final AppointmentDAOImpl appointmentDAO = new AppointmentDAOImpl();
 
   /**
-   * Filtered list for holding appointment records in the table view.
+   * Async customer DAO used for loading table data off the JavaFX thread.
    */
-  private FilteredList<Appointment> appointmentsFiltered;
+  private final AsyncCustomerDAO asyncCustomerDAO = new AsyncCustomerDAOImpl(customerDAO);
+
+  /**
+   * Async appointment DAO used for loading table data off the JavaFX thread.
+   */
+  private final AsyncAppointmentDAO asyncAppointmentDAO =
+      new AsyncAppointmentDAOImpl(appointmentDAO);
+
+  /**
+   * Every appointment in start time order, fetched a page at a time as the
+   * all appointments view is scrolled.
+   */
+  private final PagedAppointmentList pagedAppointments = new PagedAppointmentList(
+      asyncAppointmentDAO, new ConfigProps().getApptPageSize(),
+      new ConfigProps().getApptCachedPages());
+
+  /**
+   * Observable list holding the appointments starting within the window shown
+   * by the week or month view, fetched each time the view is selected.
+   */
+  private final ObservableList<Appointment> windowAppointments =
+      FXCollections.observableArrayList();
+
+  /**
+   * Length of the window shown by the week or month view, null while every
+   * appointment is shown.
+   */
+  private Period apptWindow = null;
+
+  /**
+   * Time the window shown by the week or month view starts from.
+   */
+  private LocalDateTime windowFrom = null;
 
   /**
    * Observable list for holding customer records in the table view.
    */
-  private ObservableList<Customer> customers = FXCollections.observableArrayList();
+  private final ObservableList<Customer> customers = FXCollections.observableArrayList();
+
+  /**
+   * Completes once the initial customer and appointment loads have finished.
+   */
+  private CompletableFuture<Void> dataLoaded;
+
+  /**
+   * Watermark the next customer changes are read from, null if it could not
+   * be read and the next refresh must load every customer.
+   */
+  private Timestamp customersSince = null;
+
+  /**
+   * Watermark the next appointment changes are read from, null if it could
+   * not be read and the next refresh must load every appointment.
+   */
+  private Timestamp appointmentsSince = null;
+
+  /**
+   * Polls for customers and appointments changed by other clients once the
+   * initial loads have finished.
+   */
+  private ChangeWatcher changeWatcher = null;
+
+  /**
+   * Saves the local snapshot shown at the next start once the initial loads
+   * have finished.
+   */
+  private SnapshotWriter snapshotWriter = null;
+
+  /**
+   * Indicates every customer and appointment is being loaded again, during
+   * which the watermarks run ahead of the data shown and no snapshot is
+   * taken.
+   */
+  private boolean reloading = false;
+
+  /**
+   * Index used to show division and country names in the customer table,
+   * null until loaded.
+   */
+  private GeographyIndex geography = null;
+
+  /**
+   * Main view scene, loaded once and shown again whenever the user returns
+   * from another view so the tables keep their selection and scroll position.
+   */
+  private static Scene mainScene = null;
 
+  /**
+   * Controller of the main view scene.
+   */
+  private static MainViewController mainController = null;
 
   /**
    * User currently logged into the application.
@@ -145,11 +258,18 @@ public class MainViewController implements Initializable {
   private TableColumn<Customer, String> customerPhoneCol;
 
   /**
-   * Customer division id column of the table view.
+   * Customer division column of the table view, showing the division name.
    */
   @FXML
   private TableColumn<Customer, Integer> customerDivisionCol;
 
+  /**
+   * Customer country column of the table view, showing the country name of
+   * the customer's division.
+   */
+  @FXML
+  private TableColumn<Customer, Integer> customerCountryCol;
+
   /**
    * Displays the name of current application user.
    */
@@ -276,6 +396,12 @@ public class MainViewController implements Initializable {
   @FXML
   private Button divisionReportButton;
 
+  /**
+   * Button to open the query diagnostics window.
+   */
+  @FXML
+  private Button diagnosticsButton;
+
   //===========================================================================
   // Scene Initialization
   //===========================================================================
@@ -283,7 +409,10 @@ public class MainViewController implements Initializable {
 
   /**
    * Initializes the controller for the main view and sets up the table data for
-   * both customer and appointment table views.
+   * both customer and appointment table views. When a local snapshot was
+   * saved by the last run the tables are filled from it straight away and
+   * brought up to date in the background; otherwise they are loaded from
+   * the database.
    *
    * <p>
    *   <strong>DISCUSSION OF {@index LAMBDA_1} </strong> - <blockquote>Lambda expression used for setting cell value
@@ -305,44 +434,424 @@ public class MainViewController implements Initializable {
     customerPostalCol.setCellValueFactory(cellData -> cellData.getValue().postalCodeProperty());
     customerPhoneCol.setCellValueFactory(cellData -> cellData.getValue().phoneNumberProperty());
     customerDivisionCol.setCellValueFactory(cellData -> cellData.getValue().divisionIdProperty());
-
-    apptIDCol.setCellValueFactory(cellData -> cellData.getValue().idProperty());
-    apptTitleCol.setCellValueFactory(cellData -> cellData.getValue().titleProperty());
-    apptDescCol.setCellValueFactory(cellData -> cellData.getValue().descriptionProperty());
-    apptLocationCol.setCellValueFactory(cellData -> cellData.getValue().locationProperty());
-    apptContactCol.setCellValueFactory(cellData -> cellData.getValue().contactNameProperty());
-    apptTypeCol.setCellValueFactory(cellData -> cellData.getValue().typeProperty());
-    apptStartCol.setCellValueFactory(cellData -> cellData.getValue().startTimeProperty());
+    customerDivisionCol.setCellFactory(cellData -> geographyName(GeographyIndex::divisionName));
+    customerCountryCol.setCellValueFactory(cellData -> cellData.getValue().divisionIdProperty());
+    customerCountryCol.setCellFactory(cellData -> geographyName(GeographyIndex::countryName));
+
+    apptIDCol.setCellValueFactory(loadedRow(Appointment::idProperty));
+    apptTitleCol.setCellValueFactory(loadedRow(Appointment::titleProperty));
+    apptDescCol.setCellValueFactory(loadedRow(Appointment::descriptionProperty));
+    apptLocationCol.setCellValueFactory(loadedRow(Appointment::locationProperty));
+    apptContactCol.setCellValueFactory(loadedRow(Appointment::contactNameProperty));
+    apptTypeCol.setCellValueFactory(loadedRow(Appointment::typeProperty));
+    apptStartCol.setCellValueFactory(loadedRow(Appointment::startTimeProperty));
     apptStartCol.setCellFactory(cellData -> formatMyDate());
-    apptEndCol.setCellValueFactory(cellData -> cellData.getValue().endTimeProperty());
+    apptEndCol.setCellValueFactory(loadedRow(Appointment::endTimeProperty));
     apptEndCol.setCellFactory(cellData -> formatMyDate());
-    apptCustomerIdCol.setCellValueFactory(cellData -> cellData.getValue().customerIdProperty());
+    apptCustomerIdCol.setCellValueFactory(loadedRow(Appointment::customerIdProperty));
 
-    updateCustomersItems();
-    updateAppointmentsItems();
+    customerTableView.setItems(customers);
+    showPagedAppointments();
 
-    apptTableView.getSortOrder().add(apptStartCol);
-    apptTableView.sort();
+    LocalSnapshot snapshot = StartupPrefetch.takeSnapshot();
+    if (snapshot != null) {
+      dataLoaded = showSnapshot(snapshot);
+    } else {
+      dataLoaded = readWatermark().thenCompose(watermark -> {
+        setWatermarks(watermark);
+        return CompletableFuture.allOf(
+            ReferenceCache.customers.get().thenAccept(customers::setAll),
+            pagedAppointments.refresh());
+      });
+    }
+    ReferenceCache.geography().thenAccept(index -> {
+      geography = index;
+      customerTableView.refresh();
+    });
+
+    dataLoaded.thenRun(() -> StartupTimeline.finish("main view loaded"))
+        .thenRun(() -> ConflictDetector.shared().ensureLoaded(asyncAppointmentDAO))
+        .thenRun(() -> changeWatcher = new ChangeWatcher(this::refreshChanges, new ConfigProps()))
+        .thenRun(() -> snapshotWriter = new SnapshotWriter(this::captureSnapshot,
+            new ConfigProps()));
+    if (snapshot != null) {
+      refreshChanges().thenRun(() -> StartupTimeline.mark("snapshot reconciled"));
+    }
+  }
 
+  /**
+   * Shows the data of the local snapshot saved by the last run. The caller
+   * then applies the changes made since the snapshot's watermarks. If the
+   * snapshot holds no appointments the first page is fetched instead.
+   *
+   * @param snapshot Snapshot read at start up.
+   * @return CompletableFuture completing once the tables have been filled.
+   */
+  private CompletableFuture<Void> showSnapshot(LocalSnapshot snapshot) {
+    customers.setAll(snapshot.getCustomers());
+    customersSince = snapshot.getCustomersSince();
+    appointmentsSince = snapshot.getAppointmentsSince();
+    if (!snapshot.getCountries().isEmpty()) {
+      geography = new GeographyIndex(FXCollections.observableArrayList(snapshot.getCountries()),
+          snapshot.getDivisions());
+    }
+    StartupTimeline.mark("snapshot shown");
 
+    if (snapshot.getAppointments().isEmpty()) {
+      return pagedAppointments.refresh();
+    }
+    pagedAppointments.seed(snapshot.getAppointments());
+    return CompletableFuture.completedFuture(null);
   }
 
   /**
-   * Updates the list of customer records from the database.
+   * Copies the data shown for the local snapshot. Only the first page of
+   * appointments is kept, as that is all the main view shows at start up.
+   *
+   * @return Snapshot of the data shown, or null while the watermarks are not
+   *         known or run ahead of the data.
    */
-  protected void updateCustomersItems() {
-    customers = customerDAO.getAll();
-    customerTableView.setItems(customers);
+  private LocalSnapshot captureSnapshot() {
+    if (reloading || customersSince == null || appointmentsSince == null) {
+      return null;
+    }
+    List<Customer> copies = new ArrayList<>(customers.size());
+    customers.forEach(c -> copies.add(new Customer(c)));
+    GeographyIndex index = geography;
+    return new LocalSnapshot(customersSince, appointmentsSince,
+        index == null ? List.of() : new ArrayList<>(index.getCountries()),
+        index == null ? List.of() : new ArrayList<>(index.getDivisions()),
+        copies, pagedAppointments.copyFirstPage());
+  }
+
+  /**
+   * Wraps an appointment property accessor as a cell value factory that
+   * leaves cells blank for rows of the paged list still loading.
+   *
+   * @param <T> Type of value shown in the column.
+   * @param property Accessor for the property shown in the column.
+   * @return Cell value factory returning null for rows not yet loaded.
+   */
+  private static <T> Callback<CellDataFeatures<Appointment, T>, ObservableValue<T>> loadedRow(
+      Function<Appointment, ObservableValue<T>> property) {
+    return cellData -> cellData.getValue() == null ? null : property.apply(cellData.getValue());
   }
 
   /**
-   * Updated the appointment records in table view from the database.
+   * Returns the main view scene with its data brought up to date for the
+   * user. The scene is loaded on first use; afterwards the same scene is
+   * returned and only the customers and appointments changed since it was
+   * last shown are applied to its tables.
+   *
+   * @param user User currently accessing the application.
+   * @return Main view scene.
+   * @throws IOException if unable to load the main view fxml.
    */
-  private void updateAppointmentsItems() {
-    appointmentsFiltered = new FilteredList<>(appointmentDAO.getAll(), p -> true);
-    SortedList<Appointment> sortedData = new SortedList<>(appointmentsFiltered);
-    sortedData.comparatorProperty().bind(apptTableView.comparatorProperty());
-    apptTableView.setItems(sortedData);
+  public static Scene loadScene(User user) throws IOException {
+    if (mainScene == null) {
+      FXMLLoader loader = new FXMLLoader();
+      loader.setLocation(MainViewController.class.getResource("/view_controller/MainView.fxml"));
+      Parent parent = loader.load();
+      mainScene = new Scene(parent);
+      mainController = loader.getController();
+    } else {
+      mainController.refreshChanges();
+    }
+    mainController.initData(user);
+    return mainScene;
+  }
+
+  /**
+   * Stops the main view's background work and saves its local snapshot, if
+   * the main view has been shown. Called when the application is exiting.
+   */
+  public static void shutdown() {
+    if (mainController != null) {
+      mainController.stopBackgroundWork();
+    }
+  }
+
+  /**
+   * Stops polling for changes and saves a final local snapshot.
+   */
+  private void stopBackgroundWork() {
+    if (changeWatcher != null) {
+      changeWatcher.shutdown();
+    }
+    if (snapshotWriter != null) {
+      snapshotWriter.shutdown();
+    }
+  }
+
+  /**
+   * Reads the customers and appointments added, changed or deleted since the
+   * last refresh in the background and applies them to the tables in place.
+   * Run on returning to the main view, after deletes and whenever the change
+   * watcher sees another client's changes.
+   * If no watermark is known, or a watermark is older than the deletions the
+   * database keeps, every customer and appointment is loaded again instead.
+   *
+   * @return CompletableFuture completing once the changes have been applied.
+   */
+  private CompletableFuture<Void> refreshChanges() {
+    return dataLoaded.thenCompose(loaded -> {
+      if (customersSince == null || appointmentsSince == null) {
+        return reloadAll();
+      }
+      return CompletableFuture.allOf(
+          asyncCustomerDAO.getChangedSince(customersSince)
+              .thenAccept(this::applyCustomerChanges),
+          asyncAppointmentDAO.getChangedSince(appointmentsSince)
+              .thenAccept(this::applyAppointmentChanges))
+          .thenCompose(applied -> customersSince == null || appointmentsSince == null
+              ? reloadAll() : CompletableFuture.completedFuture(null));
+    });
+  }
+
+  /**
+   * Loads every customer and appointment again and sets the watermarks to
+   * follow the load.
+   *
+   * @return CompletableFuture completing once both tables have been loaded.
+   */
+  private CompletableFuture<Void> reloadAll() {
+    reloading = true;
+    return readWatermark().thenCompose(watermark -> {
+      setWatermarks(watermark);
+      return CompletableFuture.allOf(updateCustomersItems(), updateAppointmentsItems());
+    }).whenComplete((done, e) -> reloading = false);
+  }
+
+  /**
+   * Reads the watermark for the first changes query in the background.
+   *
+   * @return CompletableFuture completed with the watermark, or null if it
+   *         could not be read.
+   */
+  private static CompletableFuture<Timestamp> readWatermark() {
+    return DBExecutor.supplyAsync(() -> {
+      try {
+        return ChangeLog.watermark();
+      } catch (SQLException e) {
+        NotificationHandler.sqlPopup("Change-Watermark", e);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Sets the watermarks following a full load. Customers may have come from
+   * the reference cache, so their watermark is set back by the most the
+   * cached list can be out of date.
+   *
+   * @param watermark Watermark read before the full load, or null.
+   */
+  private void setWatermarks(Timestamp watermark) {
+    appointmentsSince = watermark;
+    customersSince = watermark == null ? null
+        : Timestamp.valueOf(watermark.toLocalDateTime().minus(ReferenceCache.customers.getTtl()));
+  }
+
+  /**
+   * Applies customers added, changed and deleted to the customer table,
+   * updating shown customers in place. Added customers are appended in one
+   * change.
+   *
+   * An expired set clears the watermark so the caller reloads every customer.
+   *
+   * @param changes Customer changes, or null if they could not be read.
+   */
+  private void applyCustomerChanges(ChangeSet<Customer> changes) {
+    if (changes == null) {
+      return;
+    }
+    if (changes.isExpired()) {
+      customersSince = null;
+      return;
+    }
+    customersSince = changes.getWatermark();
+    if (changes.isEmpty()) {
+      return;
+    }
+    ReferenceCache.customers.invalidate();
+    customers.removeIf(c -> changes.getDeleted().contains(c.getId()));
+
+    Map<Integer, Customer> shown = new HashMap<>();
+    customers.forEach(c -> shown.put(c.getId(), c));
+    List<Customer> added = new ArrayList<>();
+    for (Customer changed : changes.getChanged()) {
+      Customer customer = shown.get(changed.getId());
+      if (customer != null) {
+        customer.setAll(changed);
+      } else {
+        added.add(changed);
+      }
+    }
+    customers.addAll(added);
+  }
+
+  /**
+   * Applies appointments added, changed and deleted to the conflict detector,
+   * the paged list and the week or month window if one is shown.
+   *
+   * An expired set clears the watermark so the caller reloads every
+   * appointment, and reloads the conflict detector.
+   *
+   * @param changes Appointment changes, or null if they could not be read.
+   */
+  private void applyAppointmentChanges(ChangeSet<Appointment> changes) {
+    if (changes == null) {
+      return;
+    }
+    if (changes.isExpired()) {
+      appointmentsSince = null;
+      ConflictDetector.shared().reload(asyncAppointmentDAO);
+      return;
+    }
+    appointmentsSince = changes.getWatermark();
+    if (changes.isEmpty()) {
+      return;
+    }
+    ConflictDetector detector = ConflictDetector.shared();
+    changes.getDeleted().forEach(detector::remove);
+    changes.getChanged().forEach(detector::put);
+    pagedAppointments.applyChanges(changes);
+    if (apptWindow == null) {
+      return;
+    }
+
+    windowAppointments.removeIf(a -> changes.getDeleted().contains(a.getId()));
+    LocalDateTime windowTo = windowFrom.plus(apptWindow);
+    List<Appointment> added = new ArrayList<>();
+    for (Appointment changed : changes.getChanged()) {
+      boolean inWindow = !changed.getStartTime().isBefore(windowFrom)
+          && changed.getStartTime().isBefore(windowTo);
+      int index = 0;
+      while (index < windowAppointments.size()
+          && !windowAppointments.get(index).getId().equals(changed.getId())) {
+        index++;
+      }
+
+      if (index == windowAppointments.size()) {
+        if (inWindow) {
+          added.add(new Appointment(changed));
+        }
+      } else if (!inWindow) {
+        windowAppointments.remove(index);
+      } else if (windowAppointments.get(index).getStartTime().equals(changed.getStartTime())) {
+        windowAppointments.get(index).setAll(changed);
+      } else {
+        windowAppointments.set(index, new Appointment(changed));
+      }
+    }
+    windowAppointments.addAll(added);
+  }
+
+  /**
+   * Updates the list of customer records from the database in the background.
+   *
+   * @return CompletableFuture completing once the table has been refreshed.
+   */
+  protected CompletableFuture<Void> updateCustomersItems() {
+    return asyncCustomerDAO.getAll().thenAccept(customers::setAll);
+  }
+
+  /**
+   * Updates the appointment records in table view from the database in the
+   * background. The paged list starts again from its first page, and the
+   * week or month window is fetched again if one is shown.
+   *
+   * @return CompletableFuture completing once the table has been refreshed.
+   */
+  private CompletableFuture<Void> updateAppointmentsItems() {
+    CompletableFuture<Void> paged = pagedAppointments.refresh();
+    if (apptWindow == null) {
+      return paged;
+    }
+    return CompletableFuture.allOf(paged, loadWindowAppointments());
+  }
+
+  /**
+   * Fetches the appointments starting between now and the end of the window
+   * shown by the week or month view. Results arriving after another view has
+   * been selected are ignored.
+   *
+   * @return CompletableFuture completing once the window has been fetched.
+   */
+  private CompletableFuture<Void> loadWindowAppointments() {
+    Period window = apptWindow;
+    LocalDateTime from = LocalDateTime.now();
+    return asyncAppointmentDAO.getStartingBetween(from, from.plus(window))
+        .thenAccept(rows -> {
+          if (window.equals(apptWindow)) {
+            windowFrom = from;
+            windowAppointments.setAll(rows);
+          }
+        });
+  }
+
+  /**
+   * Shows every appointment through the paged list. Column sorting is turned
+   * off, as the pages are fetched in start time order and sorting would need
+   * every page in memory.
+   */
+  private void showPagedAppointments() {
+    apptWindow = null;
+    apptTableView.getSortOrder().clear();
+    setApptSortable(false);
+    apptTableView.setItems(pagedAppointments);
+  }
+
+  /**
+   * Shows the appointments starting within the next window sorted by the
+   * table columns. Only the window is fetched from the database.
+   *
+   * @param window Length of the window to show, from now.
+   */
+  private void showWindowAppointments(Period window) {
+    apptWindow = window;
+    windowFrom = LocalDateTime.now();
+    windowAppointments.clear();
+    loadWindowAppointments();
+    SortedList<Appointment> sortedAppointments = new SortedList<>(windowAppointments);
+    sortedAppointments.comparatorProperty().bind(apptTableView.comparatorProperty());
+    apptTableView.setItems(sortedAppointments);
+    setApptSortable(true);
+    if (apptTableView.getSortOrder().isEmpty()) {
+      apptTableView.getSortOrder().add(apptStartCol);
+    }
+  }
+
+  /**
+   * @param sortable True to let the user sort the appointment table by column.
+   */
+  private void setApptSortable(boolean sortable) {
+    List.of(apptIDCol, apptTitleCol, apptDescCol, apptLocationCol, apptContactCol, apptTypeCol,
+        apptStartCol, apptEndCol, apptCustomerIdCol).forEach(c -> c.setSortable(sortable));
+  }
+
+  /**
+   * Provides cell factory showing a name looked up by division id in the
+   * geography index. The id itself is shown until the index has loaded.
+   *
+   * @param name Looks up the name shown for a division id.
+   * @return TableCell with the name for the row's division.
+   */
+  private TableCell<Customer, Integer> geographyName(
+      BiFunction<GeographyIndex, Integer, String> name) {
+    return new TableCell<>() {
+      @Override
+      protected void updateItem(Integer item, boolean empty) {
+        super.updateItem(item, empty);
+        if (empty || item == null) {
+          setText(null);
+        } else if (geography == null) {
+          setText(String.valueOf(item));
+        } else {
+          setText(name.apply(geography, item));
+        }
+      }
+    };
   }
 
   /**
@@ -360,7 +869,7 @@ public class MainViewController implements Initializable {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMATTER);
 
         super.updateItem(item, empty);
-        if (empty) {
+        if (empty || item == null) {
           setText(null);
         } else {
           setText(item.format(formatter));
@@ -371,7 +880,7 @@ public class MainViewController implements Initializable {
 
   /**
    * Initializes user data for the scene and makes call to check for upcoming
-   * appointments.
+   * appointments once the appointment data has loaded.
    *
    * @param user User currently accessing the application.
    */
@@ -379,21 +888,39 @@ public class MainViewController implements Initializable {
     MainViewController.user = user;
     userName.setText(user.getName());
     if (firstLoad) {
-      checkForUpcoming();
+      dataLoaded.thenRun(this::checkForUpcoming);
       firstLoad = false;
     }
   }
 
   /**
-   * Checks list of appointment data for any start times that are within 15
-   * minutes of user login and provides on screen alert.
+   * Checks the coming week of appointments, prefetched at start up when
+   * available, for any start times that are within 15 minutes of user login.
    */
   private void checkForUpcoming() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime from = now.minus(BusinessHours.getMaxAppointmentLength());
+    StartupPrefetch.weekAppointments
+        .takeOr(() -> asyncAppointmentDAO.getStartingBetween(from, now.plusWeeks(1)))
+        .thenAccept(this::showUpcoming);
+  }
+
+  /**
+   * Provides on screen alert for appointments of the current user starting
+   * within 15 minutes of user login, or already under way.
+   *
+   * @param nearby Appointments in the coming week, and any that may still be
+   *               under way.
+   */
+  private void showUpcoming(List<Appointment> nearby) {
     List<String> messages = new ArrayList<>();
     LocalDateTime timeLimit = LocalDateTime.now().plusMinutes(15);
 
-    for (Appointment a : appointmentsFiltered) {
+    for (Appointment a : nearby) {
       var start = a.getStartTime();
+      if (!a.getEndTime().isAfter(LocalDateTime.now())) {
+        continue;
+      }
       if ((start.compareTo(timeLimit) <= 0) && (user.getId().equals(a.getUserId()))) {
         if (start.isBefore(LocalDateTime.now()) || start.isEqual(LocalDateTime.now())) {
           messages.add("\nPast Due:\n" + a);
@@ -435,7 +962,7 @@ public class MainViewController implements Initializable {
     } else if (buttonId.equals(updateCustomerButton.getId())) {
       Customer customer = customerTableView.getSelectionModel().getSelectedItem();
       if (customer != null) {
-        controller.initCustomerData(false, user, customer);
+        controller.initCustomerData(false, user, new Customer(customer));
 
       } else {
         warningPopup("No Customer Selected", "Please select a customer.");
@@ -473,7 +1000,7 @@ public class MainViewController implements Initializable {
     } else if (buttonId.equals(updateApptButton.getId())) {
       Appointment appointment = apptTableView.getSelectionModel().getSelectedItem();
       if (appointment != null) {
-        controller.initAppointmentData(false, user, appointment);
+        controller.initAppointmentData(false, user, new Appointment(appointment));
 
       } else {
         warningPopup("No appointment Selected", "Please select a appointment.");
@@ -513,6 +1040,25 @@ public class MainViewController implements Initializable {
     stage.show();
   }
 
+  /**
+   * Opens the diagnostics window showing query latency and error totals.
+   *
+   * @param event ActionEvent generated by user clicking the diagnostics button.
+   * @throws IOException if unable to load the diagnostics view fxml.
+   */
+  @FXML
+  void loadDiagnostics(ActionEvent event) throws IOException {
+    FXMLLoader loader = new FXMLLoader();
+    loader.setLocation(getClass().getResource("/view_controller/DiagnosticsView.fxml"));
+    Parent parent = loader.load();
+    Stage stage = new Stage();
+
+    stage.setScene(new Scene(parent));
+    stage.initModality(Modality.WINDOW_MODAL);
+    stage.initOwner(diagnosticsButton.getScene().getWindow());
+    stage.show();
+  }
+
   //===========================================================================
   // Event Handlers & Helper Methods
   //===========================================================================
@@ -520,8 +1066,10 @@ public class MainViewController implements Initializable {
   /**
    * Handles user request to delete customer if selected and will also confirm
    * deletion of associated customer appointments from the system. Provides user
-   * with a list of associated appointments that will be removed. Updates both
-   * customer and appointment views after transaction has been completed.
+   * with a list of associated appointments that will be removed. Both deletes
+   * run in one transaction, so the customer and its appointments are removed
+   * together or not at all. Updates both customer and appointment views after
+   * transaction has been completed, applying only the records changed.
    *
    * @param event Event triggered when user clicks on delete customer.
    */
@@ -547,15 +1095,26 @@ public class MainViewController implements Initializable {
       System.out.println(confirmationMsg);
       if (confirmPopup(event, confirmationMsg)) {
 
-        int appointmentsDeleted = appointmentDAO.deleteAppointmentByCustomer(customer);
-        int customerDeleted = customerDAO.deleteCustomer(customer);
+        UnitOfWork work = new UnitOfWork();
+        int appointmentsIndex = appointmentDAO.deleteAppointmentByCustomer(customer, work);
+        int customerIndex = customerDAO.deleteCustomer(customer, work);
+        int[] counts;
+        try {
+          counts = work.commit();
+        } catch (SQLException e) {
+          NotificationHandler.sqlPopup("Customer-Delete", e);
+          return;
+        }
+        int appointmentsDeleted = counts[appointmentsIndex];
+        int customerDeleted = counts[customerIndex];
 
         if (customerDeleted > 0) {
           String deleteMsg = "Customer " + customer + " deleted.\n" +
               appointmentsDeleted + " associated appointments were deleted.";
           warningPopup("Delete Complete", deleteMsg);
-          updateCustomersItems();
-          updateAppointmentsItems();
+          ConflictDetector.shared().removeCustomer(customer.getId());
+          ReferenceCache.customers.invalidate();
+          refreshChanges();
         }
       }
     } else {
@@ -565,8 +1124,8 @@ public class MainViewController implements Initializable {
 
 
   /**
-   * Handles user request to delete selected appointment and updates the contents
-   * of the table view.
+   * Handles user request to delete selected appointment and removes it from the
+   * table view, along with any other changes made since the last refresh.
    *
    * @param event Event triggered when user clicks on delete appointment.
    */
@@ -583,10 +1142,10 @@ public class MainViewController implements Initializable {
         int rows = appointmentDAO.deleteAppointment(appointment);
 
         if (rows > 0) {
+          ConflictDetector.shared().remove(appointmentId);
           String deleteMsg = "Appointment " + appointmentId + " deleted.";
           warningPopup("Delete Complete", deleteMsg);
-          updateAppointmentsItems();
-          allRadioButton.setSelected(true);
+          refreshChanges();
         }
       }
     } else {
@@ -603,16 +1162,18 @@ public class MainViewController implements Initializable {
   @FXML
   private void exitApp(ActionEvent event) {
     if (confirmPopup(event, "Please confirm you would like to exit.")) {
+      stopBackgroundWork();
       System.exit(0);
     }
   }
 
   /**
-   * Monitor action events triggered by the appointment view by toggle group. Sets predicate for the
-   * filtered list based on selected radio button using lambda expression.
+   * Monitor action events triggered by the appointment view by toggle group. The
+   * week and month views fetch only the appointments starting within the next
+   * week or month, filtered by the database rather than in memory.
    *
    * <p>
-   *   <strong>DISCUSSION OF {@index LAMBDA_3} </strong> -  <blockquote>Filtered list predicates are updated using lambda
+   *   <strong>DISCUSSION OF {@index LAMBDA_3} </strong> -  <blockquote>Fetched windows are applied to the table using lambda
    *                               expressions, allowing reduced code for interface.</blockquote>
    *
    *
@@ -622,18 +1183,16 @@ public class MainViewController implements Initializable {
   @FXML
   void apptViewRadio(@SuppressWarnings("unused") ActionEvent event) {
     if (viewByGroup.getSelectedToggle().equals(allRadioButton)) {
-      appointmentsFiltered.setPredicate(a -> true);
-    } else if (viewByGroup.getSelectedToggle().equals(weekRadioButton)) {
-      appointmentsFiltered
-          .setPredicate(a -> a.getStartTime().isBefore(LocalDateTime.now().plusWeeks(1)));
-    } else if (viewByGroup.getSelectedToggle().equals(monthRadioButton)) {
-      appointmentsFiltered
-          .setPredicate(a -> a.getStartTime().isBefore(LocalDateTime.now().plusMonths(1)));
+      showPagedAppointments();
+      return;
     }
 
-    SortedList<Appointment> sortedAppointments = new SortedList<>(appointmentsFiltered);
-    sortedAppointments.comparatorProperty().bind(apptTableView.comparatorProperty());
-    apptTableView.setItems(sortedAppointments);
+    if (viewByGroup.getSelectedToggle().equals(weekRadioButton)) {
+      showWindowAppointments(Period.ofWeeks(1));
+    } else if (viewByGroup.getSelectedToggle().equals(monthRadioButton)) {
+      showWindowAppointments(Period.ofMonths(1));
+    }
   }
 
+
 }